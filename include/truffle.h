@@ -46,6 +46,8 @@ void *truffle_managed_malloc(long size);
 void *truffle_managed_memcpy(void *destination, const void *source, size_t count);
 
 // Managed objects <===> native handles
+// Handles are reference counted: every truffle_handle_for_managed or
+// truffle_deref_handle_for_managed call must be matched by a truffle_release_handle.
 void *truffle_handle_for_managed(void *managedObject);
 void *truffle_release_handle(void *nativeHandle);
 void *truffle_managed_from_handle(void *nativeHandle);
@@ -111,6 +111,8 @@ def _sulong_gate_runner(args, tasks):
         if t: mx_testsuites.runSuite('gcc_fortran')
     with Task("TestSulong", tasks, tags=['sulong', 'sulongBasic']) as t:
         if t: mx_unittest.unittest(['SulongSuite'])
+    with Task("TestSulongCoalescing", tasks, tags=['sulongCoalescing', 'sulongMisc']) as t:
+        if t: mx_unittest.unittest(['-Dpolyglot.llvm.coalesceFrameSlots=true', 'SulongSuite'])
     with Task("TestInterop", tasks, tags=['interop', 'sulongBasic']) as t:
         if t: mx_unittest.unittest(['com.oracle.truffle.llvm.test.interop'])
     with Task("TestDebug", tasks, tags=['debug', 'sulongBasic']) as t:
@@ -710,12 +710,32 @@ unsigned int sulong_eh_canCatch(_Unwind_Exception *unwindHeader, std::type_info
     }
     if (ct->can_catch(et, p)) {
         ex->adjustedPtr = p;
-        return 1;
+        // a class is caught at a fixed offset within the thrown object, pointers are not
+        return dynamic_cast<__class_type_info*>(ct) != NULL ? 2 : 1;
     } else {
         return 0;
     }
 }
 
+// helper routines for Sulong's cache of sulong_eh_canCatch results
+extern "C"
+std::type_info *sulong_eh_getType(_Unwind_Exception *unwindHeader) {
+    __cxa_exception *ex = cxa_exception_from_exception_unwind_exception(unwindHeader);
+    return ex->exceptionType;
+}
+
+extern "C"
+long sulong_eh_getAdjustment(_Unwind_Exception *unwindHeader) {
+    __cxa_exception *ex = cxa_exception_from_exception_unwind_exception(unwindHeader);
+    return static_cast<char*>(ex->adjustedPtr) - static_cast<char*>(thrown_object_from_cxa_exception(ex));
+}
+
+extern "C"
+void sulong_eh_setAdjustment(_Unwind_Exception *unwindHeader, long adjustment) {
+    __cxa_exception *ex = cxa_exception_from_exception_unwind_exception(unwindHeader);
+    ex->adjustedPtr = static_cast<char*>(thrown_object_from_cxa_exception(ex)) + adjustment;
+}
+
 }  // extern "C"
 
 }  // abi
@@ -27,6 +27,8 @@
  * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
  * OF THE POSSIBILITY OF SUCH DAMAGE.
  */
+#include <stddef.h>
+#include <sys/mman.h>
 #include <trufflenfi.h>
 
 void *getNullPointer() {
@@ -41,3 +43,19 @@ TruffleObject createNativeWrapper(TruffleEnv *env, void *fnPtr) {
     TruffleObject wrapper = (*env)->getClosureObject(env, fnPtr);
     return (*env)->releaseAndReturn(env, wrapper);
 }
+
+void *__sulong_reserve_stack(size_t size, size_t guard) {
+    char *base = mmap(NULL, size + guard, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS | MAP_NORESERVE, -1, 0);
+    if (base == MAP_FAILED) {
+        return NULL;
+    }
+    if (guard != 0 && mprotect(base, guard, PROT_NONE) != 0) {
+        munmap(base, size + guard);
+        return NULL;
+    }
+    return base + guard;
+}
+
+void __sulong_release_stack(void *stack, size_t size, size_t guard) {
+    munmap((char *) stack - guard, size + guard);
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.nodes.asm.syscall;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.llvm.nodes.memory.NativeProfiledMemMoveNodeGen;
+import com.oracle.truffle.llvm.runtime.LLVMStdioBuffer;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemMoveNode;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMNode;
+
+/**
+ * Gives the read and write syscalls access to the {@link LLVMStdioBuffer} of the context. If
+ * buffering is disabled, all operations fold away in compiled code.
+ */
+final class LLVMAMD64StdioBufferNode extends LLVMNode {
+
+    @CompilationFinal private boolean resolved;
+    @CompilationFinal private LLVMStdioBuffer buffer;
+
+    @Child private LLVMMemMoveNode memMove = NativeProfiledMemMoveNodeGen.create();
+
+    private LLVMStdioBuffer getBuffer() {
+        if (!resolved) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            buffer = getContextReference().get().getStdioBuffer();
+            resolved = true;
+        }
+        return buffer;
+    }
+
+    /**
+     * @return {@code true} if the write has been buffered
+     */
+    boolean write(long fd, long address, long length) {
+        LLVMStdioBuffer stdioBuffer = getBuffer();
+        return stdioBuffer != null && LLVMStdioBuffer.isBufferedFd(fd) && stdioBuffer.buffer(getLLVMMemory(), memMove, (int) fd, address, length);
+    }
+
+    /**
+     * Writes out all buffered output before the program waits for input on stdin.
+     */
+    void flushBeforeRead(long fd) {
+        if (fd == 0) {
+            flush();
+        }
+    }
+
+    void flush() {
+        LLVMStdioBuffer stdioBuffer = getBuffer();
+        if (stdioBuffer != null) {
+            stdioBuffer.flush();
+        }
+    }
+
+    boolean isEnabled() {
+        return getBuffer() != null;
+    }
+}
@@ -29,35 +29,49 @@
  */
 package com.oracle.truffle.llvm.nodes.asm.syscall;
 
-import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNode;
+import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNodeGen;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
-import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemoryMappings;
 import com.oracle.truffle.llvm.runtime.memory.LLVMSyscallOperationNode;
 
 public abstract class LLVMAMD64SyscallMmapNode extends LLVMSyscallOperationNode {
+    @Child private LLVMAMD64PosixCallNode mmap;
+
+    public LLVMAMD64SyscallMmapNode() {
+        mmap = LLVMAMD64PosixCallNodeGen.create("mmap", "(UINT64,UINT64,SINT32,SINT32,SINT32,SINT64):SINT64", 6);
+    }
 
     @Override
     public final String getName() {
         return "mmap";
     }
 
-    private final ConditionProfile mapAnonymousProfile = ConditionProfile.createCountingProfile();
-
-    @SuppressWarnings("unused")
     @Specialization
-    protected long doOp(LLVMAddress addr, long len, long prot, long flags, long fildes, long off,
-                    @Cached("getLLVMMemory()") LLVMMemory memory) {
-        if (mapAnonymousProfile.profile((flags & LLVMAMD64Memory.MAP_ANONYMOUS) != 0)) {
-            LLVMAddress ptr = memory.allocateMemory(len);
-            return ptr.getVal();
-        }
-        return -LLVMAMD64Error.ENOMEM;
+    protected long doOp(LLVMAddress addr, long len, long prot, long flags, long fildes, long off) {
+        return doOp(addr.getVal(), len, prot, flags, fildes, off);
     }
 
     @Specialization
     protected long doOp(long addr, long len, long prot, long flags, long fildes, long off) {
-        return execute(LLVMAddress.fromLong(addr), len, prot, flags, fildes, off);
+        if (len <= 0 || !LLVMMemoryMappings.isPageAligned(off)) {
+            return -LLVMAMD64Error.EINVAL;
+        }
+        if (len > Long.MAX_VALUE - LLVMMemoryMappings.PAGE_SIZE) {
+            return -LLVMAMD64Error.ENOMEM;
+        }
+        LLVMMemoryMappings mappings = getContextReference().get().getMemoryMappings();
+        if ((flags & LLVMAMD64Memory.MAP_FIXED) != 0 && !(LLVMMemoryMappings.isPageAligned(addr) && mappings.contains(addr, len))) {
+            // a fixed mapping must not replace memory of the host process
+            return -LLVMAMD64Error.EINVAL;
+        }
+        long result = (long) mmap.execute(addr, len, (int) prot, (int) flags, (int) fildes, off);
+        if (result < 0 && result > -LLVMMemoryMappings.PAGE_SIZE) {
+            // negative errno value
+            return result;
+        }
+        mappings.add(result, len);
+        return result;
     }
 }
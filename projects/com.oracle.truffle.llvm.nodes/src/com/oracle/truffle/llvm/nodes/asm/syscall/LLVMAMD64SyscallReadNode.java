@@ -30,17 +30,13 @@
 package com.oracle.truffle.llvm.nodes.asm.syscall;
 
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNode;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNodeGen;
+import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixIOCallNode;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.memory.LLVMSyscallOperationNode;
 
 public abstract class LLVMAMD64SyscallReadNode extends LLVMSyscallOperationNode {
-    @Child private LLVMAMD64PosixCallNode read;
-
-    public LLVMAMD64SyscallReadNode() {
-        read = LLVMAMD64PosixCallNodeGen.create("read", "(SINT32,POINTER,UINT64):SINT64", 3);
-    }
+    @Child private LLVMAMD64PosixIOCallNode read = LLVMAMD64PosixIOCallNode.createWithSize("read");
+    @Child private LLVMAMD64StdioBufferNode stdioBuffer = new LLVMAMD64StdioBufferNode();
 
     @Override
     public final String getName() {
@@ -49,11 +45,12 @@ public abstract class LLVMAMD64SyscallReadNode extends LLVMSyscallOperationNode
 
     @Specialization
     protected long doOp(long fd, LLVMAddress ptr, long size) {
-        return (long) read.execute((int) fd, ptr.getVal(), size);
+        return doOp(fd, ptr.getVal(), size);
     }
 
     @Specialization
     protected long doOp(long fd, long ptr, long size) {
-        return doOp(fd, LLVMAddress.fromLong(ptr), size);
+        stdioBuffer.flushBeforeRead(fd);
+        return read.execute((int) fd, ptr, size);
     }
 }
@@ -30,17 +30,13 @@
 package com.oracle.truffle.llvm.nodes.asm.syscall;
 
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNode;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNodeGen;
+import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixIOCallNode;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.memory.LLVMSyscallOperationNode;
 
 public abstract class LLVMAMD64SyscallReadvNode extends LLVMSyscallOperationNode {
-    @Child private LLVMAMD64PosixCallNode readv;
-
-    public LLVMAMD64SyscallReadvNode() {
-        readv = LLVMAMD64PosixCallNodeGen.create("readv", "(SINT32,POINTER,SINT32):SINT64", 3);
-    }
+    @Child private LLVMAMD64PosixIOCallNode readv = LLVMAMD64PosixIOCallNode.createWithCount("readv");
+    @Child private LLVMAMD64StdioBufferNode stdioBuffer = new LLVMAMD64StdioBufferNode();
 
     @Override
     public final String getName() {
@@ -49,11 +45,12 @@ public abstract class LLVMAMD64SyscallReadvNode extends LLVMSyscallOperationNode
 
     @Specialization
     protected long doOp(long fd, LLVMAddress ptr, long size) {
-        return (long) readv.execute((int) fd, ptr.getVal(), size);
+        return doOp(fd, ptr.getVal(), size);
     }
 
     @Specialization
     protected long doOp(long fd, long ptr, long size) {
-        return doOp(fd, LLVMAddress.fromLong(ptr), size);
+        stdioBuffer.flushBeforeRead(fd);
+        return readv.execute((int) fd, ptr, size);
     }
 }
@@ -30,17 +30,13 @@
 package com.oracle.truffle.llvm.nodes.asm.syscall;
 
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNode;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNodeGen;
+import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixIOCallNode;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.memory.LLVMSyscallOperationNode;
 
 public abstract class LLVMAMD64SyscallWriteNode extends LLVMSyscallOperationNode {
-    @Child private LLVMAMD64PosixCallNode write;
-
-    public LLVMAMD64SyscallWriteNode() {
-        write = LLVMAMD64PosixCallNodeGen.create("write", "(SINT32,POINTER,UINT64):SINT64", 3);
-    }
+    @Child private LLVMAMD64PosixIOCallNode write = LLVMAMD64PosixIOCallNode.createWithSize("write");
+    @Child private LLVMAMD64StdioBufferNode stdioBuffer = new LLVMAMD64StdioBufferNode();
 
     @Override
     public final String getName() {
@@ -49,11 +45,14 @@ public abstract class LLVMAMD64SyscallWriteNode extends LLVMSyscallOperationNode
 
     @Specialization
     protected long doOp(long fd, LLVMAddress ptr, long size) {
-        return (long) write.execute((int) fd, ptr.getVal(), size);
+        return doOp(fd, ptr.getVal(), size);
     }
 
     @Specialization
     protected long doOp(long fd, long ptr, long size) {
-        return doOp(fd, LLVMAddress.fromLong(ptr), size);
+        if (stdioBuffer.write(fd, ptr, size)) {
+            return size;
+        }
+        return write.execute((int) fd, ptr, size);
     }
 }
@@ -30,17 +30,18 @@
 package com.oracle.truffle.llvm.nodes.asm.syscall;
 
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNode;
-import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixCallNodeGen;
+import com.oracle.truffle.llvm.nodes.asm.syscall.posix.LLVMAMD64PosixIOCallNode;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
+import com.oracle.truffle.llvm.runtime.LLVMStdioBuffer;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
 import com.oracle.truffle.llvm.runtime.memory.LLVMSyscallOperationNode;
 
 public abstract class LLVMAMD64SyscallWritevNode extends LLVMSyscallOperationNode {
-    @Child private LLVMAMD64PosixCallNode writev;
+    private static final int IOVEC_SIZE = 16;
+    private static final int IOVEC_LEN_OFFSET = 8;
 
-    public LLVMAMD64SyscallWritevNode() {
-        writev = LLVMAMD64PosixCallNodeGen.create("writev", "(SINT32,POINTER,SINT32):SINT64", 3);
-    }
+    @Child private LLVMAMD64PosixIOCallNode writev = LLVMAMD64PosixIOCallNode.createWithCount("writev");
+    @Child private LLVMAMD64StdioBufferNode stdioBuffer = new LLVMAMD64StdioBufferNode();
 
     @Override
     public final String getName() {
@@ -49,11 +50,43 @@ public abstract class LLVMAMD64SyscallWritevNode extends LLVMSyscallOperationNod
 
     @Specialization
     protected long doOp(long fd, LLVMAddress ptr, long size) {
-        return (long) writev.execute((int) fd, ptr.getVal(), size);
+        return doOp(fd, ptr.getVal(), size);
     }
 
     @Specialization
     protected long doOp(long fd, long ptr, long size) {
-        return doOp(fd, LLVMAddress.fromLong(ptr), size);
+        if (stdioBuffer.isEnabled() && LLVMStdioBuffer.isBufferedFd(fd)) {
+            long written = bufferVector(fd, ptr, size);
+            if (written >= 0) {
+                return written;
+            }
+        }
+        return writev.execute((int) fd, ptr, size);
+    }
+
+    /**
+     * Buffers all elements of the vector if they fit into the buffer together.
+     *
+     * @return the number of buffered bytes, or {@code -1} if the vector has to be written directly
+     */
+    private long bufferVector(long fd, long iov, long count) {
+        LLVMMemory memory = getLLVMMemory();
+        long total = 0;
+        for (long i = 0; i < count && total <= LLVMStdioBuffer.CAPACITY; i++) {
+            long length = memory.getI64(iov + i * IOVEC_SIZE + IOVEC_LEN_OFFSET);
+            total = length < 0 ? Long.MAX_VALUE : total + length;
+        }
+        if (count <= 0 || total > LLVMStdioBuffer.CAPACITY) {
+            // let the native call report errors, and keep the order with the pending output
+            stdioBuffer.flush();
+            return -1;
+        }
+        for (long i = 0; i < count; i++) {
+            long base = memory.getI64(iov + i * IOVEC_SIZE);
+            long length = memory.getI64(iov + i * IOVEC_SIZE + IOVEC_LEN_OFFSET);
+            boolean buffered = stdioBuffer.write(fd, base, length);
+            assert buffered;
+        }
+        return total;
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.nodes.asm.syscall.posix;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.NFIContextExtension;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMNode;
+
+/**
+ * Calls a posix function of the shape {@code ssize_t f(int fd, void *buf, <count>)}, like
+ * {@code read}, {@code write}, {@code readv} and {@code writev}.
+ *
+ * Unlike {@link LLVMAMD64PosixCallNode}, the arity and the argument types are fixed, so there is
+ * no specialization on the argument types on the way to the native call. The interop execute
+ * message only takes an {@code Object[]}, so the arguments are still boxed in the interpreter. The
+ * array has a constant length, which lets compiled code virtualize it together with the boxes.
+ */
+public final class LLVMAMD64PosixIOCallNode extends LLVMNode {
+    private final String name;
+    private final String signature;
+    private final boolean intCount;
+
+    @CompilationFinal private TruffleObject function;
+    @Child private Node nativeExecute = Message.createExecute(3).createNode();
+
+    private LLVMAMD64PosixIOCallNode(String name, boolean intCount) {
+        this.name = name;
+        this.signature = intCount ? "(SINT32,POINTER,SINT32):SINT64" : "(SINT32,POINTER,UINT64):SINT64";
+        this.intCount = intCount;
+    }
+
+    /**
+     * For functions that take a byte count ({@code size_t}).
+     */
+    public static LLVMAMD64PosixIOCallNode createWithSize(String name) {
+        return new LLVMAMD64PosixIOCallNode(name, false);
+    }
+
+    /**
+     * For functions that take an element count ({@code int}).
+     */
+    public static LLVMAMD64PosixIOCallNode createWithCount(String name) {
+        return new LLVMAMD64PosixIOCallNode(name, true);
+    }
+
+    private TruffleObject getFunction() {
+        if (function == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            LLVMContext context = getContextReference().get();
+            NFIContextExtension nfiContextExtension = context.getContextExtension(NFIContextExtension.class);
+            function = nfiContextExtension.getNativeFunction(context, "@__sulong_posix_" + name, signature);
+        }
+        return function;
+    }
+
+    public long execute(int fd, long address, long count) {
+        try {
+            if (intCount) {
+                return (long) ForeignAccess.sendExecute(nativeExecute, getFunction(), fd, address, (int) count);
+            } else {
+                return (long) ForeignAccess.sendExecute(nativeExecute, getFunction(), fd, address, count);
+            }
+        } catch (InteropException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "posix " + name;
+    }
+}
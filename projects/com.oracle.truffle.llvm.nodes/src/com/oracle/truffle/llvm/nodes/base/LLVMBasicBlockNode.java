@@ -67,6 +67,9 @@ public class LLVMBasicBlockNode extends LLVMExpressionNode {
     private final BranchProfile blockEntered = BranchProfile.create();
 
     @CompilationFinal(dimensions = 1) private final long[] successorExecutionCount;
+    @CompilationFinal(dimensions = 1) private int[] successorsByFrequency;
+    // inverse of successorsByFrequency, only used by the interpreter
+    private final int[] successorPositions;
 
     @Override
     public Object executeGeneric(VirtualFrame frame) {
@@ -80,6 +83,16 @@ public class LLVMBasicBlockNode extends LLVMExpressionNode {
         this.blockId = blockId;
         this.blockName = blockName;
         successorExecutionCount = termInstruction.needsBranchProfiling() ? new long[termInstruction.getSuccessorCount()] : null;
+        if (termInstruction.needsBranchProfiling()) {
+            successorsByFrequency = new int[termInstruction.getSuccessorCount()];
+            successorPositions = new int[termInstruction.getSuccessorCount()];
+            for (int i = 0; i < successorsByFrequency.length; i++) {
+                successorsByFrequency[i] = i;
+                successorPositions[i] = i;
+            }
+        } else {
+            successorPositions = null;
+        }
     }
 
     @ExplodeLoop
@@ -203,8 +216,40 @@ public class LLVMBasicBlockNode extends LLVMExpressionNode {
         }
     }
 
+    /**
+     * Gets the successor indices ordered by descending execution count, so that compiled code can
+     * test the most frequently taken successors first.
+     *
+     * @return the successor indices, most frequent first
+     */
+    public int[] getSuccessorsByFrequency() {
+        assert termInstruction.needsBranchProfiling();
+        return successorsByFrequency;
+    }
+
     private void incrementCountAtIndex(int successorIndex) {
         assert termInstruction.needsBranchProfiling();
-        successorExecutionCount[successorIndex]++;
+        long count = ++successorExecutionCount[successorIndex];
+
+        /*
+         * Only the incremented successor can move, and only towards the front. The order is
+         * replaced instead of updated in place, so that a compiler thread always sees every
+         * successor exactly once. Switches rely on this to fall through to the last successor.
+         */
+        int[] order = successorsByFrequency;
+        int position = successorPositions[successorIndex];
+        assert order[position] == successorIndex;
+        if (position > 0 && successorExecutionCount[order[position - 1]] < count) {
+            int[] newOrder = order.clone();
+            while (position > 0 && successorExecutionCount[newOrder[position - 1]] < count) {
+                int overtaken = newOrder[position - 1];
+                newOrder[position] = overtaken;
+                successorPositions[overtaken] = position;
+                position--;
+            }
+            newOrder[position] = successorIndex;
+            successorPositions[successorIndex] = position;
+            successorsByFrequency = newOrder;
+        }
     }
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.nodes.control;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind;
+import com.oracle.truffle.llvm.nodes.base.LLVMBasicBlockNode;
+import com.oracle.truffle.llvm.nodes.base.LLVMFrameNullerUtil;
+import com.oracle.truffle.llvm.nodes.func.LLVMInvokeNode;
+import com.oracle.truffle.llvm.nodes.func.LLVMResumeNode;
+import com.oracle.truffle.llvm.nodes.others.LLVMUnreachableNode;
+import com.oracle.truffle.llvm.runtime.LLVMException;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMControlFlowNode;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
+
+/**
+ * Dispatches between basic blocks: executes a block, its terminator, the phis of the taken edge and
+ * the frame slot nullers, and continues with the successor until {@link #isExit} holds for it. The
+ * loop is exploded, so the block index must stay a compilation constant on every edge, which is why
+ * all terminators are handled in this one method. Natural loops are executed by their own
+ * {@link LLVMLoopNode}.
+ */
+abstract class LLVMAbstractBlockDispatchNode extends LLVMExpressionNode {
+
+    private final FrameSlot exceptionValueSlot;
+    @Children private final LLVMBasicBlockNode[] bodyNodes;
+    @Children private final LLVMLoopNode[] loops;
+    @CompilationFinal(dimensions = 2) private final FrameSlot[][] beforeBlockNuller;
+    @CompilationFinal(dimensions = 2) private final FrameSlot[][] afterBlockNuller;
+
+    /**
+     * @param bodyNodes the blocks that are executed directly, indexed by block index
+     * @param loops the loops that are executed as a whole, indexed by the block index of their
+     *            header
+     */
+    LLVMAbstractBlockDispatchNode(FrameSlot exceptionValueSlot, LLVMBasicBlockNode[] bodyNodes, LLVMLoopNode[] loops, FrameSlot[][] beforeBlockNuller, FrameSlot[][] afterBlockNuller) {
+        this.exceptionValueSlot = exceptionValueSlot;
+        this.bodyNodes = bodyNodes;
+        this.loops = loops;
+        this.beforeBlockNuller = beforeBlockNuller;
+        this.afterBlockNuller = afterBlockNuller;
+    }
+
+    /**
+     * @return whether the dispatch stops before executing the given block
+     */
+    protected abstract boolean isExit(int basicBlockIndex);
+
+    /**
+     * Called once the dispatch stopped.
+     *
+     * @param basicBlockIndex the block for which {@link #isExit} holds
+     * @param returnValue the value returned by a {@link LLVMRetNode}, or null
+     * @param backEdgeCount the number of back edges taken in the interpreter
+     * @return the result of {@link #dispatch}
+     */
+    protected abstract Object exit(VirtualFrame frame, int basicBlockIndex, Object returnValue, int backEdgeCount);
+
+    @ExplodeLoop(kind = LoopExplosionKind.MERGE_EXPLODE)
+    protected final Object dispatch(VirtualFrame frame, int startIndex) {
+        Object returnValue = null;
+
+        CompilerAsserts.compilationConstant(bodyNodes.length);
+        int basicBlockIndex = startIndex;
+        int backEdgeCounter = 0;
+        outer: do {
+            CompilerAsserts.partialEvaluationConstant(basicBlockIndex);
+            LLVMLoopNode loop = loops[basicBlockIndex];
+            if (loop != null) {
+                // the loop reports its own iterations and may be compiled separately (OSR)
+                int successor = loop.execute(frame);
+                int[] successors = loop.getSuccessors();
+                for (int i = 0; i < successors.length; i++) {
+                    if (successors[i] == successor) {
+                        basicBlockIndex = successors[i];
+                        continue outer;
+                    }
+                }
+                CompilerDirectives.transferToInterpreter();
+                throw new IllegalStateException("unexpected successor of a loop: " + successor);
+            }
+
+            LLVMBasicBlockNode bb = bodyNodes[basicBlockIndex];
+
+            // execute all statements
+            bb.executeStatements(frame);
+
+            // execute control flow node, write phis, null stack frame slots, and dispatch to
+            // the correct successor block
+            LLVMControlFlowNode controlFlowNode = bb.termInstruction;
+            if (controlFlowNode instanceof LLVMConditionalBranchNode) {
+                LLVMConditionalBranchNode conditionalBranchNode = (LLVMConditionalBranchNode) controlFlowNode;
+                boolean condition = conditionalBranchNode.executeCondition(frame);
+                if (CompilerDirectives.injectBranchProbability(bb.getBranchProbability(LLVMConditionalBranchNode.TRUE_SUCCESSOR), condition)) {
+                    if (CompilerDirectives.inInterpreter()) {
+                        bb.increaseBranchProbability(LLVMConditionalBranchNode.TRUE_SUCCESSOR);
+                        if (conditionalBranchNode.getTrueSuccessor() <= basicBlockIndex) {
+                            backEdgeCounter++;
+                        }
+                    }
+                    basicBlockIndex = followEdge(frame, conditionalBranchNode, LLVMConditionalBranchNode.TRUE_SUCCESSOR, basicBlockIndex, conditionalBranchNode.getTrueSuccessor());
+                    continue outer;
+                } else {
+                    if (CompilerDirectives.inInterpreter()) {
+                        bb.increaseBranchProbability(LLVMConditionalBranchNode.FALSE_SUCCESSOR);
+                        if (conditionalBranchNode.getFalseSuccessor() <= basicBlockIndex) {
+                            backEdgeCounter++;
+                        }
+                    }
+                    basicBlockIndex = followEdge(frame, conditionalBranchNode, LLVMConditionalBranchNode.FALSE_SUCCESSOR, basicBlockIndex, conditionalBranchNode.getFalseSuccessor());
+                    continue outer;
+                }
+            } else if (controlFlowNode instanceof LLVMSwitchNode) {
+                LLVMSwitchNode switchNode = (LLVMSwitchNode) controlFlowNode;
+                int[] successors = switchNode.getSuccessors();
+                int successorIndex = switchNode.executeSuccessorIndex(frame);
+                if (CompilerDirectives.inInterpreter()) {
+                    // the interpreter can follow the selected edge directly, only compiled code
+                    // needs a constant successor for every case
+                    bb.increaseBranchProbability(successorIndex);
+                    if (successors[successorIndex] <= basicBlockIndex) {
+                        backEdgeCounter++;
+                    }
+                    basicBlockIndex = followEdge(frame, switchNode, successorIndex, basicBlockIndex, successors[successorIndex]);
+                    continue outer;
+                }
+                // compiled code tests the most frequent cases first, the least frequent one is the
+                // fall-through
+                int i = 0;
+                if (switchNode.needsBranchProfiling()) {
+                    int[] successorsByFrequency = bb.getSuccessorsByFrequency();
+                    for (int j = 0; j < successorsByFrequency.length - 1; j++) {
+                        i = successorsByFrequency[j];
+                        if (CompilerDirectives.injectBranchProbability(bb.getBranchProbability(i), successorIndex == i)) {
+                            basicBlockIndex = followEdge(frame, switchNode, i, basicBlockIndex, successors[i]);
+                            continue outer;
+                        }
+                    }
+                    i = successorsByFrequency[successorsByFrequency.length - 1];
+                }
+                basicBlockIndex = followEdge(frame, switchNode, i, basicBlockIndex, successors[i]);
+                continue outer;
+            } else if (controlFlowNode instanceof LLVMIndirectBranchNode) {
+                LLVMIndirectBranchNode indirectBranchNode = (LLVMIndirectBranchNode) controlFlowNode;
+                int[] successors = indirectBranchNode.getSuccessors();
+                int successorIndex = indirectBranchNode.executeSuccessorIndex(frame);
+                if (CompilerDirectives.inInterpreter()) {
+                    bb.increaseBranchProbability(successorIndex);
+                    if (successors[successorIndex] <= basicBlockIndex) {
+                        backEdgeCounter++;
+                    }
+                    basicBlockIndex = followEdge(frame, indirectBranchNode, successorIndex, basicBlockIndex, successors[successorIndex]);
+                    continue outer;
+                }
+                if (!indirectBranchNode.needsBranchProfiling()) {
+                    // executeSuccessorIndex already checked that the target is the only successor
+                    basicBlockIndex = followEdge(frame, indirectBranchNode, 0, basicBlockIndex, successors[0]);
+                    continue outer;
+                }
+                // compiled code only contains the targets that were taken in the interpreter, most
+                // frequent first
+                int[] successorsByFrequency = bb.getSuccessorsByFrequency();
+                for (int j = 0; j < successorsByFrequency.length; j++) {
+                    int i = successorsByFrequency[j];
+                    double probability = bb.getBranchProbability(i);
+                    if (probability == 0) {
+                        break;
+                    }
+                    if (CompilerDirectives.injectBranchProbability(probability, successorIndex == i)) {
+                        basicBlockIndex = followEdge(frame, indirectBranchNode, i, basicBlockIndex, successors[i]);
+                        continue outer;
+                    }
+                }
+
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                bb.increaseBranchProbability(successorIndex);
+                basicBlockIndex = followEdge(frame, indirectBranchNode, successorIndex, basicBlockIndex, successors[successorIndex]);
+                continue outer;
+            } else if (controlFlowNode instanceof LLVMBrUnconditionalNode) {
+                LLVMBrUnconditionalNode unconditionalNode = (LLVMBrUnconditionalNode) controlFlowNode;
+                if (CompilerDirectives.inInterpreter()) {
+                    if (unconditionalNode.getSuccessor() <= basicBlockIndex) {
+                        backEdgeCounter++;
+                    }
+                }
+                unconditionalNode.execute(frame); // required for instrumentation
+                basicBlockIndex = followEdge(frame, unconditionalNode, 0, basicBlockIndex, unconditionalNode.getSuccessor());
+                continue outer;
+            } else if (controlFlowNode instanceof LLVMInvokeNode) {
+                LLVMInvokeNode invokeNode = (LLVMInvokeNode) controlFlowNode;
+                try {
+                    invokeNode.execute(frame);
+                    if (CompilerDirectives.inInterpreter()) {
+                        if (invokeNode.getNormalSuccessor() <= basicBlockIndex) {
+                            backEdgeCounter++;
+                        }
+                    }
+                    basicBlockIndex = followEdge(frame, invokeNode, LLVMInvokeNode.NORMAL_SUCCESSOR, basicBlockIndex, invokeNode.getNormalSuccessor());
+                    continue outer;
+                } catch (LLVMException e) {
+                    frame.setObject(exceptionValueSlot, e);
+                    if (CompilerDirectives.inInterpreter()) {
+                        if (invokeNode.getUnwindSuccessor() <= basicBlockIndex) {
+                            backEdgeCounter++;
+                        }
+                    }
+                    basicBlockIndex = followEdge(frame, invokeNode, LLVMInvokeNode.UNWIND_SUCCESSOR, basicBlockIndex, invokeNode.getUnwindSuccessor());
+                    continue outer;
+                }
+            } else if (controlFlowNode instanceof LLVMRetNode) {
+                LLVMRetNode retNode = (LLVMRetNode) controlFlowNode;
+                returnValue = retNode.execute(frame);
+                assert noPhisNecessary(retNode);
+                nullDeadSlots(frame, basicBlockIndex, afterBlockNuller);
+                basicBlockIndex = retNode.getSuccessor();
+                continue outer;
+            } else if (controlFlowNode instanceof LLVMResumeNode) {
+                LLVMResumeNode resumeNode = (LLVMResumeNode) controlFlowNode;
+                assert noPhisNecessary(resumeNode);
+                nullDeadSlots(frame, basicBlockIndex, afterBlockNuller);
+                resumeNode.execute(frame);
+                CompilerAsserts.neverPartOfCompilation();
+                throw new IllegalStateException("must not reach here");
+            } else if (controlFlowNode instanceof LLVMUnreachableNode) {
+                LLVMUnreachableNode unreachableNode = (LLVMUnreachableNode) controlFlowNode;
+                assert noPhisNecessary(unreachableNode);
+                unreachableNode.execute();
+                CompilerAsserts.neverPartOfCompilation();
+                throw new IllegalStateException("must not reach here");
+            } else {
+                CompilerAsserts.neverPartOfCompilation();
+                throw new UnsupportedOperationException("unexpected controlFlowNode type: " + controlFlowNode);
+            }
+        } while (!isExit(basicBlockIndex));
+        assert backEdgeCounter >= 0;
+        return exit(frame, basicBlockIndex, returnValue, backEdgeCounter);
+    }
+
+    /**
+     * Writes the phis of the edge, nulls the slots that die on it and returns the successor.
+     */
+    private int followEdge(VirtualFrame frame, LLVMControlFlowNode controlFlowNode, int successorIndex, int basicBlockIndex, int successor) {
+        executePhis(frame, controlFlowNode, successorIndex);
+        nullDeadSlots(frame, basicBlockIndex, afterBlockNuller);
+        nullDeadSlots(frame, successor, beforeBlockNuller);
+        return successor;
+    }
+
+    @ExplodeLoop
+    private static void executePhis(VirtualFrame frame, LLVMControlFlowNode controlFlowNode, int successorIndex) {
+        LLVMExpressionNode phi = controlFlowNode.getPhiNode(successorIndex);
+        if (phi != null) {
+            phi.executeGeneric(frame);
+        }
+    }
+
+    @ExplodeLoop
+    private static void nullDeadSlots(VirtualFrame frame, int bci, FrameSlot[][] blockNullers) {
+        FrameSlot[] frameSlotsToNull = blockNullers[bci];
+        if (frameSlotsToNull != null) {
+            assert frameSlotsToNull.length > 0;
+            for (int i = 0; i < frameSlotsToNull.length; i++) {
+                LLVMFrameNullerUtil.nullFrameSlot(frame, frameSlotsToNull[i]);
+            }
+        }
+    }
+
+    private static boolean noPhisNecessary(LLVMControlFlowNode controlFlowNode) {
+        return controlFlowNode.getSuccessorCount() == 0 || controlFlowNode.getSuccessorCount() == 1 && controlFlowNode.getPhiNode(0) == null;
+    }
+}
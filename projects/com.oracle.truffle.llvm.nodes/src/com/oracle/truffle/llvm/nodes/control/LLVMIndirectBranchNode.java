@@ -29,6 +29,8 @@
  */
 package com.oracle.truffle.llvm.nodes.control;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -68,6 +70,12 @@ public abstract class LLVMIndirectBranchNode extends LLVMControlFlowNode impleme
 
     public abstract int executeCondition(VirtualFrame frame);
 
+    /**
+     * Evaluates the branch address and maps it to the position of the target block in
+     * {@link #getSuccessors()}.
+     */
+    public abstract int executeSuccessorIndex(VirtualFrame frame);
+
     public abstract int[] getSuccessors();
 
     private static final class LLVMIndirectBranchNodeImpl extends LLVMIndirectBranchNode {
@@ -75,13 +83,24 @@ public abstract class LLVMIndirectBranchNode extends LLVMControlFlowNode impleme
         @Child private LLVMBranchAddressNode branchAddress;
         @Children private final LLVMExpressionNode[] phiWriteNodes;
         @CompilationFinal(dimensions = 1) private final int[] successors;
+        @CompilationFinal(dimensions = 1) private final int[] successorIndexByBlock;
 
         private LLVMIndirectBranchNodeImpl(LLVMBranchAddressNode branchAddress, int[] indices, LLVMExpressionNode[] phiWriteNodes, LLVMSourceLocation sourceSection) {
             super(sourceSection);
-            assert indices.length > 1;
             this.successors = indices;
             this.branchAddress = branchAddress;
             this.phiWriteNodes = phiWriteNodes;
+
+            int maxBlockIndex = 0;
+            for (int block : indices) {
+                maxBlockIndex = Math.max(maxBlockIndex, block);
+            }
+            this.successorIndexByBlock = new int[maxBlockIndex + 1];
+            Arrays.fill(successorIndexByBlock, -1);
+            // a block may be listed more than once, its first position is used
+            for (int i = indices.length - 1; i >= 0; i--) {
+                successorIndexByBlock[indices[i]] = i;
+            }
         }
 
         @Override
@@ -99,6 +118,19 @@ public abstract class LLVMIndirectBranchNode extends LLVMControlFlowNode impleme
             return branchAddress.branchAddress(frame);
         }
 
+        @Override
+        public int executeSuccessorIndex(VirtualFrame frame) {
+            int block = executeCondition(frame);
+            if (block >= 0 && block < successorIndexByBlock.length) {
+                int successorIndex = successorIndexByBlock[block];
+                if (successorIndex >= 0) {
+                    return successorIndex;
+                }
+            }
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException("indirect branch to a block that is not a successor: " + block);
+        }
+
         @Override
         public int[] getSuccessors() {
             return successors;
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.nodes.control;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RepeatingNode;
+import com.oracle.truffle.llvm.nodes.base.LLVMBasicBlockNode;
+
+/**
+ * Executes one iteration of a natural loop: dispatches from the loop header through the blocks of
+ * the loop until control either returns to the header or leaves the loop. In the latter case, the
+ * index of the next block is written to the successor slot. Nested loops are executed by their own
+ * {@link LLVMLoopNode}.
+ *
+ * Blocks that return from the function never belong to a loop, because no back edge can be reached
+ * from them.
+ */
+public final class LLVMLoopDispatchNode extends LLVMAbstractBlockDispatchNode implements RepeatingNode {
+
+    private final int headerIndex;
+    private final FrameSlot successorSlot;
+    @CompilationFinal(dimensions = 1) private final boolean[] inLoop;
+
+    /**
+     * @param bodyNodes the blocks of this loop that are not part of a nested loop, indexed by block
+     *            index
+     * @param nestedLoops the directly nested loops, indexed by the block index of their header
+     * @param inLoop whether a block is part of this loop (or a nested loop)
+     */
+    public LLVMLoopDispatchNode(int headerIndex, FrameSlot exceptionValueSlot, FrameSlot successorSlot, LLVMBasicBlockNode[] bodyNodes, LLVMLoopNode[] nestedLoops, boolean[] inLoop,
+                    FrameSlot[][] beforeBlockNuller, FrameSlot[][] afterBlockNuller) {
+        super(exceptionValueSlot, bodyNodes, nestedLoops, beforeBlockNuller, afterBlockNuller);
+        this.headerIndex = headerIndex;
+        this.successorSlot = successorSlot;
+        this.inLoop = inLoop;
+    }
+
+    @Override
+    public Object executeGeneric(VirtualFrame frame) {
+        CompilerAsserts.neverPartOfCompilation();
+        throw new UnsupportedOperationException("Must not be called.");
+    }
+
+    @Override
+    public boolean executeRepeating(VirtualFrame frame) {
+        return (boolean) dispatch(frame, headerIndex);
+    }
+
+    @Override
+    protected boolean isExit(int basicBlockIndex) {
+        return basicBlockIndex == headerIndex || !inLoop[basicBlockIndex];
+    }
+
+    @Override
+    protected Object exit(VirtualFrame frame, int basicBlockIndex, Object returnValue, int backEdgeCount) {
+        // the loop node counts the iterations itself
+        if (basicBlockIndex == headerIndex) {
+            return true;
+        }
+        frame.setInt(successorSlot, basicBlockIndex);
+        return false;
+    }
+}
@@ -29,10 +29,15 @@
  */
 package com.oracle.truffle.llvm.nodes.control;
 
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.InstrumentableNode;
 import com.oracle.truffle.api.instrumentation.ProbeNode;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.llvm.runtime.debug.scope.LLVMSourceLocation;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMControlFlowNode;
@@ -60,9 +65,14 @@ public abstract class LLVMSwitchNode extends LLVMControlFlowNode implements Inst
 
     public abstract Object executeCondition(VirtualFrame frame);
 
-    public abstract int[] getSuccessors();
+    /**
+     * Evaluates the condition and selects the matching case.
+     *
+     * @return the index of the taken successor in {@link #getSuccessors()}
+     */
+    public abstract int executeSuccessorIndex(VirtualFrame frame);
 
-    public abstract LLVMExpressionNode getCase(int i);
+    public abstract int[] getSuccessors();
 
     public static class LLVMSwitchNodeImpl extends LLVMSwitchNode {
         @Children private final LLVMExpressionNode[] phiNodes;
@@ -86,6 +96,20 @@ public abstract class LLVMSwitchNode extends LLVMControlFlowNode implements Inst
             return conditionValueClass.profile(cond.executeGeneric(frame));
         }
 
+        @Override
+        @ExplodeLoop
+        public int executeSuccessorIndex(VirtualFrame frame) {
+            Object condition = executeCondition(frame);
+            for (int i = 0; i < cases.length; i++) {
+                Object caseValue = cases[i].executeGeneric(frame);
+                assert caseValue.getClass() == condition.getClass() : "must be the same type - otherwise equals might wrongly return false";
+                if (condition.equals(caseValue)) {
+                    return i;
+                }
+            }
+            return cases.length;
+        }
+
         @Override
         public int[] getSuccessors() {
             return successors;
@@ -100,10 +124,223 @@ public abstract class LLVMSwitchNode extends LLVMControlFlowNode implements Inst
         public LLVMExpressionNode getPhiNode(int successorIndex) {
             return phiNodes[successorIndex];
         }
+    }
+
+    /**
+     * A switch over an integer condition of at most 64 bits whose case values are constants. The
+     * case values are evaluated once at parse time and looked up depending on their number and
+     * density: small switches compare the cases one after the other, dense switches use a jump
+     * table, and all other switches do a binary search over the sorted case values.
+     */
+    public abstract static class LLVMPrimitiveSwitchNode extends LLVMSwitchNode {
+
+        static final int MAX_LINEAR_SEARCH_CASES = 8;
+        static final int MIN_JUMP_TABLE_DENSITY_PERCENT = 25;
+        static final int MAX_JUMP_TABLE_SIZE = 1 << 16;
+
+        @Children private final LLVMExpressionNode[] phiNodes;
+        @Child protected LLVMExpressionNode cond;
+        @CompilationFinal(dimensions = 1) private final int[] successors;
+        @CompilationFinal(dimensions = 1) private final long[] caseValues;
+
+        @CompilationFinal(dimensions = 1) private final int[] jumpTable;
+        private final long jumpTableOffset;
+
+        @CompilationFinal(dimensions = 1) private final long[] sortedCaseValues;
+        @CompilationFinal(dimensions = 1) private final int[] sortedCaseIndices;
+
+        @CompilationFinal private boolean genericCondition;
+
+        protected LLVMPrimitiveSwitchNode(int[] successors, LLVMExpressionNode[] phiNodes, LLVMExpressionNode cond, long[] caseValues, LLVMSourceLocation sourceSection) {
+            super(sourceSection);
+            assert successors.length == caseValues.length + 1 : "the last entry of the successors array must be the default case";
+            this.successors = successors;
+            this.phiNodes = phiNodes;
+            this.cond = cond;
+            this.caseValues = caseValues;
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long value : caseValues) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            long range = max - min + 1;
+            if (caseValues.length <= MAX_LINEAR_SEARCH_CASES) {
+                this.jumpTable = null;
+                this.jumpTableOffset = 0;
+                this.sortedCaseValues = null;
+                this.sortedCaseIndices = null;
+            } else if (range > 0 && range <= MAX_JUMP_TABLE_SIZE && caseValues.length * 100L >= range * MIN_JUMP_TABLE_DENSITY_PERCENT) {
+                int[] table = new int[(int) range];
+                Arrays.fill(table, caseValues.length);
+                // fill backwards so that the first of several equal cases wins
+                for (int i = caseValues.length - 1; i >= 0; i--) {
+                    table[(int) (caseValues[i] - min)] = i;
+                }
+                this.jumpTable = table;
+                this.jumpTableOffset = min;
+                this.sortedCaseValues = null;
+                this.sortedCaseIndices = null;
+            } else {
+                long[] sorted = new long[caseValues.length];
+                int[] indices = new int[caseValues.length];
+                int count = 0;
+                for (int i = 0; i < caseValues.length; i++) {
+                    // insertion into the sorted prefix; equal values keep the first case
+                    int pos = Arrays.binarySearch(sorted, 0, count, caseValues[i]);
+                    if (pos < 0) {
+                        pos = -pos - 1;
+                        System.arraycopy(sorted, pos, sorted, pos + 1, count - pos);
+                        System.arraycopy(indices, pos, indices, pos + 1, count - pos);
+                        sorted[pos] = caseValues[i];
+                        indices[pos] = i;
+                        count++;
+                    }
+                }
+                this.jumpTable = null;
+                this.jumpTableOffset = 0;
+                this.sortedCaseValues = Arrays.copyOf(sorted, count);
+                this.sortedCaseIndices = Arrays.copyOf(indices, count);
+            }
+        }
+
+        protected abstract long executeConditionValue(VirtualFrame frame) throws UnexpectedResultException;
+
+        @Override
+        public Object executeCondition(VirtualFrame frame) {
+            return cond.executeGeneric(frame);
+        }
+
+        @Override
+        public int executeSuccessorIndex(VirtualFrame frame) {
+            if (genericCondition) {
+                return executeGenericSuccessorIndex(cond.executeGeneric(frame));
+            }
+            long value;
+            try {
+                value = executeConditionValue(frame);
+            } catch (UnexpectedResultException e) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                genericCondition = true;
+                return executeGenericSuccessorIndex(e.getResult());
+            }
+            return lookup(value);
+        }
+
+        /**
+         * The condition did not evaluate to a value of the switch type. Like the boxed comparison
+         * in {@link LLVMSwitchNodeImpl}, a value of a different type does not match any case.
+         */
+        private int executeGenericSuccessorIndex(Object condition) {
+            if (condition instanceof Byte || condition instanceof Short || condition instanceof Integer || condition instanceof Long) {
+                return lookup(((Number) condition).longValue());
+            }
+            return caseValues.length;
+        }
+
+        private int lookup(long value) {
+            if (jumpTable != null) {
+                long tableIndex = value - jumpTableOffset;
+                if (tableIndex >= 0 && tableIndex < jumpTable.length) {
+                    return jumpTable[(int) tableIndex];
+                }
+                return caseValues.length;
+            } else if (sortedCaseValues != null) {
+                return binarySearch(value);
+            } else {
+                return linearSearch(value);
+            }
+        }
+
+        @ExplodeLoop
+        private int linearSearch(long value) {
+            for (int i = 0; i < caseValues.length; i++) {
+                if (caseValues[i] == value) {
+                    return i;
+                }
+            }
+            return caseValues.length;
+        }
+
+        private int binarySearch(long value) {
+            int low = 0;
+            int high = sortedCaseValues.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midValue = sortedCaseValues[mid];
+                if (midValue < value) {
+                    low = mid + 1;
+                } else if (midValue > value) {
+                    high = mid - 1;
+                } else {
+                    return sortedCaseIndices[mid];
+                }
+            }
+            return caseValues.length;
+        }
+
+        @Override
+        public int[] getSuccessors() {
+            return successors;
+        }
+
+        @Override
+        public int getSuccessorCount() {
+            return successors.length;
+        }
+
+        @Override
+        public LLVMExpressionNode getPhiNode(int successorIndex) {
+            return phiNodes[successorIndex];
+        }
+    }
+
+    public static final class LLVMI8SwitchNode extends LLVMPrimitiveSwitchNode {
+
+        public LLVMI8SwitchNode(int[] successors, LLVMExpressionNode[] phiNodes, LLVMExpressionNode cond, long[] caseValues, LLVMSourceLocation sourceSection) {
+            super(successors, phiNodes, cond, caseValues, sourceSection);
+        }
+
+        @Override
+        protected long executeConditionValue(VirtualFrame frame) throws UnexpectedResultException {
+            return cond.executeI8(frame);
+        }
+    }
+
+    public static final class LLVMI16SwitchNode extends LLVMPrimitiveSwitchNode {
+
+        public LLVMI16SwitchNode(int[] successors, LLVMExpressionNode[] phiNodes, LLVMExpressionNode cond, long[] caseValues, LLVMSourceLocation sourceSection) {
+            super(successors, phiNodes, cond, caseValues, sourceSection);
+        }
+
+        @Override
+        protected long executeConditionValue(VirtualFrame frame) throws UnexpectedResultException {
+            return cond.executeI16(frame);
+        }
+    }
+
+    public static final class LLVMI32SwitchNode extends LLVMPrimitiveSwitchNode {
+
+        public LLVMI32SwitchNode(int[] successors, LLVMExpressionNode[] phiNodes, LLVMExpressionNode cond, long[] caseValues, LLVMSourceLocation sourceSection) {
+            super(successors, phiNodes, cond, caseValues, sourceSection);
+        }
+
+        @Override
+        protected long executeConditionValue(VirtualFrame frame) throws UnexpectedResultException {
+            return cond.executeI32(frame);
+        }
+    }
+
+    public static final class LLVMI64SwitchNode extends LLVMPrimitiveSwitchNode {
+
+        public LLVMI64SwitchNode(int[] successors, LLVMExpressionNode[] phiNodes, LLVMExpressionNode cond, long[] caseValues, LLVMSourceLocation sourceSection) {
+            super(successors, phiNodes, cond, caseValues, sourceSection);
+        }
 
         @Override
-        public LLVMExpressionNode getCase(int i) {
-            return cases[i];
+        protected long executeConditionValue(VirtualFrame frame) throws UnexpectedResultException {
+            return cond.executeI64(frame);
         }
     }
 }
@@ -86,6 +86,31 @@ final class LLVMSwitchNodeWrapper extends LLVMSwitchNode implements WrapperNode
         return returnValue;
     }
 
+    @Override
+    public int executeSuccessorIndex(VirtualFrame frame) {
+        int returnValue;
+        for (;;) {
+            boolean wasOnReturnExecuted = false;
+            try {
+                probeNode.onEnter(frame);
+                returnValue = delegateNode.executeSuccessorIndex(frame);
+                wasOnReturnExecuted = true;
+                probeNode.onReturnValue(frame, null);
+                break;
+            } catch (Throwable t) {
+                Object result = probeNode.onReturnExceptionalOrUnwind(frame, t, wasOnReturnExecuted);
+                if (result == ProbeNode.UNWIND_ACTION_REENTER) {
+                    continue;
+                } else if (result != null) {
+                    returnValue = (int) result;
+                    break;
+                }
+                throw t;
+            }
+        }
+        return returnValue;
+    }
+
     @Override
     public int getSuccessorCount() {
         return this.delegateNode.getSuccessorCount();
@@ -101,9 +126,4 @@ final class LLVMSwitchNodeWrapper extends LLVMSwitchNode implements WrapperNode
         return this.delegateNode.getSuccessors();
     }
 
-    @Override
-    public LLVMExpressionNode getCase(int i) {
-        return this.delegateNode.getCase(i);
-    }
-
 }
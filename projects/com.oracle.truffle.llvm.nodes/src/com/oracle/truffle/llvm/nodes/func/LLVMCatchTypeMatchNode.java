@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.nodes.func;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.llvm.runtime.LLVMAddress;
+import com.oracle.truffle.llvm.runtime.LLVMBitcodeLibraryFunctions;
+import com.oracle.truffle.llvm.runtime.LLVMCatchTypeCache;
+import com.oracle.truffle.llvm.runtime.LLVMCatchTypeCache.Match;
+import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.memory.LLVMStack.StackPointer;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMNode;
+
+/**
+ * Decides whether a catch clause matches a thrown C++ exception, and if so, stores the adjusted
+ * pointer to the caught object in the exception. The result of {@code sulong_eh_canCatch} only
+ * depends on the thrown type and the catch type, so it is cached per pair of types: first in the
+ * node, then in the {@link LLVMCatchTypeCache} of the context.
+ */
+public abstract class LLVMCatchTypeMatchNode extends LLVMNode {
+
+    protected static final int INLINE_CACHE_SIZE = 4;
+
+    @Child private LLVMBitcodeLibraryFunctions.SulongCanCatchNode canCatch;
+    @Child private LLVMBitcodeLibraryFunctions.SulongGetAdjustmentNode getAdjustment;
+    @Child private LLVMBitcodeLibraryFunctions.SulongSetAdjustmentNode setAdjustment;
+
+    public abstract boolean execute(StackPointer stack, Object unwindHeader, long thrownType, long catchType);
+
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = {"thrownType == cachedThrownType", "catchType == cachedCatchType"})
+    @SuppressWarnings("unused")
+    protected boolean doCached(StackPointer stack, Object unwindHeader, long thrownType, long catchType,
+                    @Cached("thrownType") long cachedThrownType,
+                    @Cached("catchType") long cachedCatchType,
+                    @Cached("lookup(stack, unwindHeader, thrownType, catchType)") Match match) {
+        return apply(match, stack, unwindHeader, cachedCatchType);
+    }
+
+    @Specialization(replaces = "doCached")
+    protected boolean doMegamorphic(StackPointer stack, Object unwindHeader, long thrownType, long catchType) {
+        return apply(lookup(stack, unwindHeader, thrownType, catchType), stack, unwindHeader, catchType);
+    }
+
+    protected Match lookup(StackPointer stack, Object unwindHeader, long thrownType, long catchType) {
+        LLVMCatchTypeCache cache = getContextReference().get().getCatchTypeCache();
+        Match match = cache.get(thrownType, catchType);
+        if (match == null) {
+            int result = getCanCatch().canCatch(stack, unwindHeader, LLVMAddress.fromLong(catchType));
+            if (result == 0) {
+                match = Match.NONE;
+            } else if (result == 2) {
+                match = Match.fixedOffset(getGetAdjustment().getAdjustment(stack, unwindHeader));
+            } else {
+                match = Match.DYNAMIC;
+            }
+            cache.put(thrownType, catchType, match);
+        }
+        return match;
+    }
+
+    private boolean apply(Match match, StackPointer stack, Object unwindHeader, long catchType) {
+        if (!match.isMatch()) {
+            return false;
+        } else if (match.isFixedOffset()) {
+            getSetAdjustment().setAdjustment(stack, unwindHeader, match.getAdjustment());
+            return true;
+        } else {
+            return getCanCatch().canCatch(stack, unwindHeader, LLVMAddress.fromLong(catchType)) != 0;
+        }
+    }
+
+    private LLVMBitcodeLibraryFunctions.SulongCanCatchNode getCanCatch() {
+        if (canCatch == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            LLVMContext context = getContextReference().get();
+            this.canCatch = insert(new LLVMBitcodeLibraryFunctions.SulongCanCatchNode(context));
+        }
+        return canCatch;
+    }
+
+    private LLVMBitcodeLibraryFunctions.SulongGetAdjustmentNode getGetAdjustment() {
+        if (getAdjustment == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            LLVMContext context = getContextReference().get();
+            this.getAdjustment = insert(new LLVMBitcodeLibraryFunctions.SulongGetAdjustmentNode(context));
+        }
+        return getAdjustment;
+    }
+
+    private LLVMBitcodeLibraryFunctions.SulongSetAdjustmentNode getSetAdjustment() {
+        if (setAdjustment == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            LLVMContext context = getContextReference().get();
+            this.setAdjustment = insert(new LLVMBitcodeLibraryFunctions.SulongSetAdjustmentNode(context));
+        }
+        return setAdjustment;
+    }
+}
@@ -45,6 +45,7 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
 import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor.Intrinsic;
+import com.oracle.truffle.llvm.runtime.LLVMNativeCallStatistics;
 import com.oracle.truffle.llvm.runtime.NFIContextExtension;
 import com.oracle.truffle.llvm.runtime.NFIContextExtension.UnsupportedNativeTypeException;
 import com.oracle.truffle.llvm.runtime.memory.LLVMStack.StackPointer;
@@ -144,12 +145,12 @@ public abstract class LLVMDispatchNode extends LLVMNode {
                     @Cached("createNativeCallNode()") Node nativeCall,
                     @Cached("bindSymbol(cachedDescriptor)") TruffleObject cachedBoundFunction,
                     @Cached("getContextReference()") ContextReference<LLVMContext> context,
-                    @Cached("nativeCallStatisticsEnabled(context)") boolean statistics) {
+                    @Cached("nativeCallCounter(context, cachedDescriptor)") LLVMNativeCallStatistics.Counter counter) {
 
         Object[] nativeArgs = prepareNativeArguments(arguments, toNative);
         Object returnValue;
         try (StackPointer save = ((StackPointer) arguments[0]).newFrame()) {
-            returnValue = LLVMNativeCallUtils.callNativeFunction(statistics, context, nativeCall, cachedBoundFunction, nativeArgs, cachedDescriptor);
+            returnValue = LLVMNativeCallUtils.callNativeFunction(counter, nativeCall, cachedBoundFunction, nativeArgs);
         }
         return fromNative.executeConvert(returnValue);
     }
@@ -157,7 +158,7 @@ public abstract class LLVMDispatchNode extends LLVMNode {
     protected TruffleObject bindSymbol(LLVMFunctionDescriptor descriptor) {
         CompilerAsserts.neverPartOfCompilation();
         assert descriptor.getNativeFunction() != null : descriptor.getName();
-        return LLVMNativeCallUtils.bindNativeSymbol(LLVMNativeCallUtils.getBindNode(), descriptor.getNativeFunction(), getSignature());
+        return descriptor.getBoundNativeFunction(getSignature());
     }
 
     @Specialization(replaces = "doCachedNative", guards = "descriptor.isNativeFunction()")
@@ -165,15 +166,13 @@ public abstract class LLVMDispatchNode extends LLVMNode {
                     @Cached("createToNativeNodes()") LLVMNativeConvertNode[] toNative,
                     @Cached("createFromNativeNode()") LLVMNativeConvertNode fromNative,
                     @Cached("createNativeCallNode()") Node nativeCall,
-                    @Cached("getBindNode()") Node bindNode,
-                    @Cached("getContextReference()") ContextReference<LLVMContext> context,
-                    @Cached("nativeCallStatisticsEnabled(context)") boolean statistics) {
+                    @Cached("getContextReference()") ContextReference<LLVMContext> context) {
 
         Object[] nativeArgs = prepareNativeArguments(arguments, toNative);
-        TruffleObject boundSymbol = LLVMNativeCallUtils.bindNativeSymbol(bindNode, descriptor.getNativeFunction(), getSignature());
+        TruffleObject boundSymbol = descriptor.getBoundNativeFunction(getSignature());
         Object returnValue;
         try (StackPointer save = ((StackPointer) arguments[0]).newFrame()) {
-            returnValue = LLVMNativeCallUtils.callNativeFunction(statistics, context, nativeCall, boundSymbol, nativeArgs, descriptor);
+            returnValue = LLVMNativeCallUtils.callNativeFunction(nativeCallCounter(context, descriptor), nativeCall, boundSymbol, nativeArgs);
         }
         return fromNative.executeConvert(returnValue);
     }
@@ -187,11 +186,6 @@ public abstract class LLVMDispatchNode extends LLVMNode {
         return nativeArgs;
     }
 
-    protected Node getBindNode() {
-        CompilerAsserts.neverPartOfCompilation();
-        return LLVMNativeCallUtils.getBindNode();
-    }
-
     protected Node createNativeCallNode() {
         CompilerAsserts.neverPartOfCompilation();
         int argCount = type.getArgumentTypes().length - LLVMCallNode.USER_ARGUMENT_OFFSET;
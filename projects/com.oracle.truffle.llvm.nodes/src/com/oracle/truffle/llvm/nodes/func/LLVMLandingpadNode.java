@@ -54,6 +54,8 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
     private final boolean cleanup;
 
     @Child private LLVMToNativeNode unwindHeaderToNative;
+    @Child private LLVMToNativeNode thrownTypeToNative;
+    @Child private LLVMBitcodeLibraryFunctions.SulongGetExceptionTypeNode getExceptionType;
 
     public LLVMLandingpadNode(LLVMExpressionNode getStack, LLVMExpressionNode allocateLandingPadValue, FrameSlot exceptionSlot, boolean cleanup,
                     LandingpadEntryNode[] entries) {
@@ -63,6 +65,7 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
         this.cleanup = cleanup;
         this.entries = entries;
         this.unwindHeaderToNative = LLVMToNativeNode.createToNativeWithTarget();
+        this.thrownTypeToNative = LLVMToNativeNode.createToNativeWithTarget();
     }
 
     @CompilationFinal private LLVMMemory memory;
@@ -75,6 +78,15 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
         return memory;
     }
 
+    private LLVMBitcodeLibraryFunctions.SulongGetExceptionTypeNode getGetExceptionType() {
+        if (getExceptionType == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            LLVMContext context = getContextReference().get();
+            this.getExceptionType = insert(new LLVMBitcodeLibraryFunctions.SulongGetExceptionTypeNode(context));
+        }
+        return getExceptionType;
+    }
+
     @Override
     public Object executeGeneric(VirtualFrame frame) {
         try {
@@ -100,8 +112,12 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
 
     @ExplodeLoop
     private int getEntryIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader) {
+        if (entries.length == 0) {
+            return 0;
+        }
+        long thrownType = thrownTypeToNative.executeWithTarget(getGetExceptionType().getType(stack, unwindHeader)).getVal();
         for (int i = 0; i < entries.length; i++) {
-            int clauseId = entries[i].getIdentifier(frame, stack, unwindHeader);
+            int clauseId = entries[i].getIdentifier(frame, stack, unwindHeader, thrownType);
             if (clauseId != 0) {
                 return clauseId;
             }
@@ -111,7 +127,7 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
 
     public abstract static class LandingpadEntryNode extends LLVMExpressionNode {
 
-        public abstract int getIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader);
+        public abstract int getIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader, long thrownType);
 
         @Override
         public final Object executeGeneric(VirtualFrame frame) {
@@ -123,23 +139,14 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
     public static final class LandingpadCatchEntryNode extends LandingpadEntryNode {
 
         @Child private LLVMToNativeNode catchType;
-        @Child private LLVMBitcodeLibraryFunctions.SulongCanCatchNode canCatch;
+        @Child private LLVMCatchTypeMatchNode matchType = LLVMCatchTypeMatchNodeGen.create();
 
         public LandingpadCatchEntryNode(LLVMExpressionNode catchType) {
             this.catchType = LLVMToNativeNodeGen.create(catchType);
         }
 
-        public LLVMBitcodeLibraryFunctions.SulongCanCatchNode getCanCatch() {
-            if (canCatch == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                LLVMContext context = getContextReference().get();
-                this.canCatch = insert(new LLVMBitcodeLibraryFunctions.SulongCanCatchNode(context));
-            }
-            return canCatch;
-        }
-
         @Override
-        public int getIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader) {
+        public int getIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader, long thrownType) {
             LLVMAddress catchAddress = catchType.execute(frame);
             if (catchAddress.getVal() == 0) {
                 /*
@@ -148,7 +155,7 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
                  */
                 return 1;
             }
-            if (getCanCatch().canCatch(stack, unwindHeader, catchAddress) != 0) {
+            if (matchType.execute(stack, unwindHeader, thrownType, catchAddress.getVal())) {
                 return (int) catchAddress.getVal();
             }
             return 0;
@@ -158,24 +165,15 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
     public static final class LandingpadFilterEntryNode extends LandingpadEntryNode {
 
         @Children private final LLVMToNativeNode[] filterTypes;
-        @Child private LLVMBitcodeLibraryFunctions.SulongCanCatchNode canCatch;
+        @Child private LLVMCatchTypeMatchNode matchType = LLVMCatchTypeMatchNodeGen.create();
 
         public LandingpadFilterEntryNode(LLVMToNativeNode[] filterTypes) {
             this.filterTypes = filterTypes;
         }
 
-        public LLVMBitcodeLibraryFunctions.SulongCanCatchNode getCanCatch() {
-            if (canCatch == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                LLVMContext context = getContextReference().get();
-                this.canCatch = insert(new LLVMBitcodeLibraryFunctions.SulongCanCatchNode(context));
-            }
-            return canCatch;
-        }
-
         @Override
-        public int getIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader) {
-            if (!filterMatches(frame, stack, unwindHeader)) {
+        public int getIdentifier(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader, long thrownType) {
+            if (!filterMatches(frame, stack, unwindHeader, thrownType)) {
                 // when this clause is matched, the selector value has to be negative
                 return -1;
             }
@@ -183,7 +181,7 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
         }
 
         @ExplodeLoop
-        private boolean filterMatches(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader) {
+        private boolean filterMatches(VirtualFrame frame, LLVMStack.StackPointer stack, Object unwindHeader, long thrownType) {
             /*
              * Landingpad should be entered if the exception being thrown does not match any of the
              * types in the list
@@ -197,7 +195,7 @@ public final class LLVMLandingpadNode extends LLVMExpressionNode {
                      */
                     return true;
                 }
-                if (getCanCatch().canCatch(stack, unwindHeader, filterAddress) != 0) {
+                if (matchType.execute(stack, unwindHeader, thrownType, filterAddress.getVal())) {
                     return true;
                 }
             }
@@ -31,41 +31,26 @@ package com.oracle.truffle.llvm.nodes.func;
 
 import java.util.StringJoiner;
 
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.interop.ForeignAccess;
-import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.llvm.runtime.LLVMContext;
-import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
+import com.oracle.truffle.llvm.runtime.LLVMNativeCallStatistics;
 
 public final class LLVMNativeCallUtils {
 
-    static Node getBindNode() {
-        CompilerAsserts.neverPartOfCompilation();
-        return Message.createInvoke(1).createNode();
-    }
-
-    static TruffleObject bindNativeSymbol(Node bindNode, TruffleObject symbol, String signature) {
+    /**
+     * @param counter the call counter of the callee, or {@code null} if calls are not counted
+     */
+    static Object callNativeFunction(LLVMNativeCallStatistics.Counter counter, Node nativeCall, TruffleObject function, Object[] nativeArgs) {
         try {
-            return (TruffleObject) ForeignAccess.sendInvoke(bindNode, symbol, "bind", signature);
-        } catch (Throwable ex) {
-            CompilerDirectives.transferToInterpreter();
-            throw new IllegalStateException("Could not bind " + symbol + " " + signature, ex);
-        }
-    }
-
-    static Object callNativeFunction(boolean enabled, ContextReference<LLVMContext> context, Node nativeCall, TruffleObject function, Object[] nativeArgs, LLVMFunctionDescriptor descriptor) {
-        CompilerAsserts.partialEvaluationConstant(enabled);
-        if (enabled) {
-            if (descriptor != null) {
-                traceNativeCall(context.get(), descriptor);
+            if (counter != null && counter.countCall()) {
+                long start = System.nanoTime();
+                Object result = ForeignAccess.sendExecute(nativeCall, function, nativeArgs);
+                counter.recordLatency(System.nanoTime() - start);
+                return result;
             }
-        }
-        try {
             return ForeignAccess.sendExecute(nativeCall, function, nativeArgs);
         } catch (Throwable e) {
             CompilerDirectives.transferToInterpreter();
@@ -81,14 +66,4 @@ public final class LLVMNativeCallUtils {
         }
         return joiner.toString();
     }
-
-    @TruffleBoundary
-    private static void traceNativeCall(LLVMContext context, LLVMFunctionDescriptor descriptor) {
-        context.registerNativeCall(descriptor);
-    }
-
-    public static TruffleObject bindNativeSymbol(TruffleObject symbol, String signature) {
-        CompilerAsserts.neverPartOfCompilation();
-        return bindNativeSymbol(getBindNode(), symbol, signature);
-    }
 }
@@ -32,7 +32,6 @@ package com.oracle.truffle.llvm.nodes.func;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
@@ -113,32 +112,28 @@ public abstract class LLVMNativeDispatchNode extends LLVMNode {
     @Specialization(guards = "function.getVal() == cachedFunction.getVal()")
     @SuppressWarnings("unused")
     protected Object doCached(LLVMAddress function, Object[] arguments,
-                    @Cached("getContextReference()") ContextReference<LLVMContext> context,
                     @Cached("function") LLVMAddress cachedFunction,
                     @Cached("identityFunction()") TruffleObject identity,
                     @Cached("dispatchIdentity(identity, cachedFunction.getVal())") TruffleObject nativeFunctionHandle,
                     @Cached("createToNativeNodes()") LLVMNativeConvertNode[] toNative,
-                    @Cached("createFromNativeNode()") LLVMNativeConvertNode fromNative,
-                    @Cached("nativeCallStatisticsEnabled(context)") boolean statistics) {
+                    @Cached("createFromNativeNode()") LLVMNativeConvertNode fromNative) {
         Object[] nativeArgs = prepareNativeArguments(arguments, toNative);
         Object returnValue;
         try (StackPointer save = ((StackPointer) arguments[0]).newFrame()) {
-            returnValue = LLVMNativeCallUtils.callNativeFunction(statistics, context, nativeCallNode, nativeFunctionHandle, nativeArgs, null);
+            returnValue = LLVMNativeCallUtils.callNativeFunction(null, nativeCallNode, nativeFunctionHandle, nativeArgs);
         }
         return fromNative.executeConvert(returnValue);
     }
 
     @Specialization
     protected Object doGeneric(LLVMAddress function, Object[] arguments,
-                    @Cached("getContextReference()") ContextReference<LLVMContext> context,
                     @Cached("identityFunction()") TruffleObject identity,
                     @Cached("createToNativeNodes()") LLVMNativeConvertNode[] toNative,
-                    @Cached("createFromNativeNode()") LLVMNativeConvertNode fromNative,
-                    @Cached("nativeCallStatisticsEnabled(context)") boolean statistics) {
+                    @Cached("createFromNativeNode()") LLVMNativeConvertNode fromNative) {
         Object[] nativeArgs = prepareNativeArguments(arguments, toNative);
         Object returnValue;
         try (StackPointer save = ((StackPointer) arguments[0]).newFrame()) {
-            returnValue = LLVMNativeCallUtils.callNativeFunction(statistics, context, nativeCallNode, dispatchIdentity(identity, function.getVal()), nativeArgs, null);
+            returnValue = LLVMNativeCallUtils.callNativeFunction(null, nativeCallNode, dispatchIdentity(identity, function.getVal()), nativeArgs);
         }
         return fromNative.executeConvert(returnValue);
     }
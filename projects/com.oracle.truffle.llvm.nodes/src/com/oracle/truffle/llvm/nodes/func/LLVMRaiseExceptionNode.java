@@ -37,12 +37,25 @@ public final class LLVMRaiseExceptionNode extends LLVMExpressionNode {
 
     @Child private LLVMExpressionNode unwindHeader;
 
+    /*
+     * libcxxabi usually allocates consecutive exceptions at the same address (e.g., when an
+     * exception is thrown in a loop), so the last carrier is reused if it wraps the same unwind
+     * header. LLVMException is immutable, so a carrier can be shared by several throws and threads.
+     */
+    private LLVMException lastException;
+
     public LLVMRaiseExceptionNode(LLVMExpressionNode unwindHeader) {
         this.unwindHeader = unwindHeader;
     }
 
     @Override
     public Object executeGeneric(VirtualFrame frame) {
-        throw new LLVMException(unwindHeader.executeGeneric(frame));
+        Object header = unwindHeader.executeGeneric(frame);
+        LLVMException exception = lastException;
+        if (exception == null || !exception.hasUnwindHeader(header)) {
+            exception = new LLVMException(header);
+            lastException = exception;
+        }
+        throw exception;
     }
 }
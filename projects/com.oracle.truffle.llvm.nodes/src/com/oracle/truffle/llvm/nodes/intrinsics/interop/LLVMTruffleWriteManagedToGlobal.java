@@ -59,6 +59,7 @@ public abstract class LLVMTruffleWriteManagedToGlobal extends LLVMIntrinsic {
         LLVMTruffleObject typedValue = (LLVMTruffleObject) attachType.execute(value, address.getInteropType());
         MaterializedFrame globalFrame = getFrameNode.execute(context.get());
         globalFrame.setObject(address.getSlot(), value);
+        address.notifyWrite();
         return typedValue;
     }
 
@@ -74,6 +75,10 @@ public abstract class LLVMTruffleWriteManagedToGlobal extends LLVMIntrinsic {
                 try {
                     if (globalFrame.getObject(slot) == address) {
                         globalFrame.setObject(slot, value);
+                        LLVMGlobal global = context.get().findGlobal(slot);
+                        if (global != null) {
+                            global.notifyWrite();
+                        }
                         return value;
                     }
                 } catch (FrameSlotTypeException e) {
@@ -30,11 +30,13 @@
 package com.oracle.truffle.llvm.nodes.intrinsics.llvm;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.NodeChildren;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
+import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.LLVMTruffleObject;
 import com.oracle.truffle.llvm.runtime.memory.LLVMMemSetNode;
 import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
@@ -47,9 +49,10 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected LLVMAddress doVoid(int size,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
             try {
-                return memory.allocateMemory(size);
+                return memory.allocateMemory(context.get().getSlabAllocator(), size);
             } catch (OutOfMemoryError e) {
                 CompilerDirectives.transferToInterpreter();
                 return LLVMAddress.nullPointer();
@@ -58,9 +61,10 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected LLVMAddress doVoid(long size,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
             try {
-                return memory.allocateMemory(size);
+                return memory.allocateMemory(context.get().getSlabAllocator(), size);
             } catch (OutOfMemoryError e) {
                 CompilerDirectives.transferToInterpreter();
                 return LLVMAddress.nullPointer();
@@ -78,10 +82,11 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected LLVMAddress doVoid(int n, int size,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
             try {
                 long length = Math.multiplyExact(n, size);
-                LLVMAddress address = memory.allocateMemory(length);
+                LLVMAddress address = memory.allocateMemory(context.get().getSlabAllocator(), length);
                 memSet.executeWithTarget(address, (byte) 0, length);
                 return address;
             } catch (OutOfMemoryError | ArithmeticException e) {
@@ -92,10 +97,11 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected LLVMAddress doVoid(long n, long size,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
             try {
                 long length = Math.multiplyExact(n, size);
-                LLVMAddress address = memory.allocateMemory(length);
+                LLVMAddress address = memory.allocateMemory(context.get().getSlabAllocator(), length);
                 memSet.executeWithTarget(address, (byte) 0, length);
                 return address;
             } catch (OutOfMemoryError | ArithmeticException e) {
@@ -112,9 +118,10 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected LLVMAddress doVoid(LLVMAddress addr, int size,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
             try {
-                return memory.reallocateMemory(addr, size);
+                return memory.reallocateMemory(context.get().getSlabAllocator(), addr, size);
             } catch (OutOfMemoryError e) {
                 CompilerDirectives.transferToInterpreter();
                 return LLVMAddress.nullPointer();
@@ -123,9 +130,10 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected LLVMAddress doVoid(LLVMAddress addr, long size,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
             try {
-                return memory.reallocateMemory(addr, size);
+                return memory.reallocateMemory(context.get().getSlabAllocator(), addr, size);
             } catch (OutOfMemoryError e) {
                 CompilerDirectives.transferToInterpreter();
                 return LLVMAddress.nullPointer();
@@ -138,15 +146,17 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
 
         @Specialization
         protected Object doVoid(LLVMAddress address,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
-            memory.free(address);
+            memory.free(context.get().getSlabAllocator(), address.getVal());
             return null;
         }
 
         @Specialization(guards = "object.isNative()")
         protected Object doVoid(LLVMTruffleObject object,
+                        @Cached("getContextReference()") ContextReference<LLVMContext> context,
                         @Cached("getLLVMMemory()") LLVMMemory memory) {
-            memory.free(object.asNative());
+            memory.free(context.get().getSlabAllocator(), object.asNative().getVal());
             return null;
         }
     }
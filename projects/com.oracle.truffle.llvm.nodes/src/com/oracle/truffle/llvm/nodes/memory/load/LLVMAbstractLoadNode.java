@@ -61,6 +61,10 @@ abstract class LLVMAbstractLoadNode extends LLVMLoadNode {
         return getLLVMMemoryCached().isDerefMemory(addr);
     }
 
+    protected boolean isAutoDerefHandle(long addr) {
+        return getLLVMMemoryCached().isDerefMemory(addr);
+    }
+
     abstract LLVMForeignReadNode createForeignRead();
 
     protected LLVMMemory getLLVMMemoryCached() {
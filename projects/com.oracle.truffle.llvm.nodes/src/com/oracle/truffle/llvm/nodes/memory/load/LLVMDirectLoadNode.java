@@ -187,6 +187,16 @@ public abstract class LLVMDirectLoadNode {
             return doIndirectedForeign(getDerefHandleGetReceiverNode().execute(addr));
         }
 
+        @Specialization(guards = "!isAutoDerefHandle(addr)")
+        protected LLVMAddress doAddress(long addr) {
+            return getLLVMMemoryCached().getAddress(addr);
+        }
+
+        @Specialization(guards = "isAutoDerefHandle(addr)")
+        protected Object doAddressDerefHandle(long addr) {
+            return doAddressDerefHandle(LLVMAddress.fromLong(addr));
+        }
+
         @Specialization
         protected LLVMAddress doLLVMByteArrayAddress(LLVMVirtualAllocationAddress address,
                         @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
@@ -68,6 +68,16 @@ public abstract class LLVMDoubleLoadNode extends LLVMAbstractLoadNode {
         return doDoubleManaged(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected double doDouble(long addr) {
+        return profile.profile(getLLVMMemoryCached().getDouble(addr));
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected double doDoubleDerefHandle(long addr) {
+        return doDoubleDerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Override
     LLVMForeignReadNode createForeignRead() {
         return new LLVMForeignReadNode(ForeignToLLVMType.DOUBLE);
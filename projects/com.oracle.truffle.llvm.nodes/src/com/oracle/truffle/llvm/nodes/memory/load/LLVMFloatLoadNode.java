@@ -68,6 +68,16 @@ public abstract class LLVMFloatLoadNode extends LLVMAbstractLoadNode {
         return doFloatManaged(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected float doFloat(long addr) {
+        return profile.profile(getLLVMMemoryCached().getFloat(addr));
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected float doFloatDerefHandle(long addr) {
+        return doFloatDerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Override
     LLVMForeignReadNode createForeignRead() {
         return new LLVMForeignReadNode(ForeignToLLVMType.FLOAT);
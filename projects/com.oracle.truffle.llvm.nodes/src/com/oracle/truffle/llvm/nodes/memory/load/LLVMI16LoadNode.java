@@ -59,6 +59,16 @@ public abstract class LLVMI16LoadNode extends LLVMAbstractLoadNode {
         return doShortManaged(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected short doShort(long addr) {
+        return getLLVMMemoryCached().getI16(addr);
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected short doShortDerefHandle(long addr) {
+        return doShortDerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Override
     LLVMForeignReadNode createForeignRead() {
         return new LLVMForeignReadNode(ForeignToLLVMType.I16);
@@ -65,6 +65,16 @@ public abstract class LLVMI1LoadNode extends LLVMAbstractLoadNode {
         return doI1Managed(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected boolean doI1(long addr) {
+        return getLLVMMemoryCached().getI1(addr);
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected boolean doI1DerefHandle(long addr) {
+        return doI1DerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Override
     LLVMForeignReadNode createForeignRead() {
         return new LLVMForeignReadNode(ForeignToLLVMType.I1);
@@ -56,6 +56,16 @@ public abstract class LLVMI32LoadNode extends LLVMAbstractLoadNode {
         return doI32Managed(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected int doI32(long addr) {
+        return profile.profile(getLLVMMemoryCached().getI32(addr));
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected int doI32DerefHandle(long addr) {
+        return doI32DerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Specialization
     protected int doI32(LLVMVirtualAllocationAddress address,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
@@ -57,6 +57,16 @@ public abstract class LLVMI64LoadNode extends LLVMAbstractLoadNode {
         return doI64Managed(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected long doI64(long addr) {
+        return profile.profile(getLLVMMemoryCached().getI64(addr));
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected long doI64DerefHandle(long addr) {
+        return doI64DerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Specialization
     protected long doI64(LLVMVirtualAllocationAddress address,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
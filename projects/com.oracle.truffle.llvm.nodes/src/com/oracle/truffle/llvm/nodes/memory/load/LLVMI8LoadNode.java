@@ -56,6 +56,16 @@ public abstract class LLVMI8LoadNode extends LLVMAbstractLoadNode {
         return doI8Native(getDerefHandleGetReceiverNode().execute(addr));
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected byte doI8(long addr) {
+        return profile.profile(getLLVMMemoryCached().getI8(addr));
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected byte doI8DerefHandle(long addr) {
+        return doI8DerefHandle(LLVMAddress.fromLong(addr));
+    }
+
     @Specialization
     protected byte doI8(LLVMVirtualAllocationAddress address,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
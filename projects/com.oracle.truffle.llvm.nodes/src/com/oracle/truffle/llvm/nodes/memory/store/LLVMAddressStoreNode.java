@@ -64,6 +64,18 @@ public abstract class LLVMAddressStoreNode extends LLVMStoreNodeCommon {
         return doTruffleObject(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doAddress(long addr, Object value,
+                    @Cached("createToNativeWithTarget()") LLVMToNativeNode toNative) {
+        getLLVMMemoryCached().putAddress(addr, toNative.executeWithTarget(value));
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, Object value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doAddress(LLVMVirtualAllocationAddress address, Object value,
                     @Cached("createToNativeWithTarget()") LLVMToNativeNode toNative,
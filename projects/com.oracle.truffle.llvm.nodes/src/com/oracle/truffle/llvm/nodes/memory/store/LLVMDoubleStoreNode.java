@@ -69,6 +69,17 @@ public abstract class LLVMDoubleStoreNode extends LLVMStoreNodeCommon {
         return doOpManaged(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doOp(long addr, double value) {
+        getLLVMMemoryCached().putDouble(addr, value);
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, double value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doOp(LLVMVirtualAllocationAddress address, double value,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
@@ -69,6 +69,17 @@ public abstract class LLVMFloatStoreNode extends LLVMStoreNodeCommon {
         return doOpManaged(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doOp(long addr, float value) {
+        getLLVMMemoryCached().putFloat(addr, value);
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, float value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doOp(LLVMVirtualAllocationAddress address, float value,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
@@ -87,6 +87,17 @@ public abstract class LLVMI16StoreNode extends LLVMStoreNodeCommon {
         return doOpManaged(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doOp(long addr, short value) {
+        getLLVMMemoryCached().putI16(addr, value);
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, short value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doOp(LLVMBoxedPrimitive address, short value) {
         if (address.getValue() instanceof Long) {
@@ -69,6 +69,17 @@ public abstract class LLVMI1StoreNode extends LLVMStoreNodeCommon {
         return doOpManaged(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doOp(long addr, boolean value) {
+        getLLVMMemoryCached().putI1(addr, value);
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, boolean value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doOp(LLVMVirtualAllocationAddress address, boolean value,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
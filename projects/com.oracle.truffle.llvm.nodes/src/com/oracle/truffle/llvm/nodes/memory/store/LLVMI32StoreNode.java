@@ -69,6 +69,17 @@ public abstract class LLVMI32StoreNode extends LLVMStoreNodeCommon {
         return doOpManaged(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doOp(long addr, int value) {
+        getLLVMMemoryCached().putI32(addr, value);
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, int value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doOp(LLVMVirtualAllocationAddress address, int value,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
@@ -62,6 +62,17 @@ public abstract class LLVMI8StoreNode extends LLVMStoreNodeCommon {
         return doOpManaged(getDerefHandleGetReceiverNode().execute(addr), value);
     }
 
+    @Specialization(guards = "!isAutoDerefHandle(addr)")
+    protected Object doOp(long addr, byte value) {
+        getLLVMMemoryCached().putI8(addr, value);
+        return null;
+    }
+
+    @Specialization(guards = "isAutoDerefHandle(addr)")
+    protected Object doOpDerefHandle(long addr, byte value) {
+        return doOpDerefHandle(LLVMAddress.fromLong(addr), value);
+    }
+
     @Specialization
     protected Object doOp(LLVMVirtualAllocationAddress address, byte value,
                     @Cached("getUnsafeArrayAccess()") UnsafeArrayAccess memory) {
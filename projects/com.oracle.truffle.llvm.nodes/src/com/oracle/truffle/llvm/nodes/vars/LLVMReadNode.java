@@ -40,6 +40,8 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.llvm.nodes.vars.LLVMReadNodeFactory.AttachInteropTypeNodeGen;
 import com.oracle.truffle.llvm.nodes.vars.LLVMReadNodeFactory.ForeignAttachInteropTypeNodeGen;
+import com.oracle.truffle.llvm.nodes.vars.LLVMReadNodeFactory.LLVMRawAddressReadNodeGen;
+import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.LLVMTruffleObject;
 import com.oracle.truffle.llvm.runtime.interop.LLVMTypedForeignObject;
 import com.oracle.truffle.llvm.runtime.interop.access.LLVMInteropType;
@@ -119,21 +121,69 @@ public abstract class LLVMReadNode extends LLVMExpressionNode {
         }
     }
 
-    public abstract static class LLVMAddressReadNode extends LLVMReadNode {
+    abstract static class LLVMAbstractAddressReadNode extends LLVMReadNode {
 
         @Child private AttachInteropTypeNode attach = AttachInteropTypeNodeGen.create();
 
-        @Specialization
-        protected Object readObject(VirtualFrame frame) {
-            return attachType(FrameUtil.getObjectSafe(frame, getSlot()));
+        protected boolean isLongSlot() {
+            return getSlot().getKind() == FrameSlotKind.Long;
         }
 
-        private Object attachType(Object obj) {
+        protected Object attachType(Object obj) {
             Type type = (Type) getSlot().getInfo();
             return attach.execute(obj, type != null ? type.getInteropType() : null);
         }
     }
 
+    public abstract static class LLVMAddressReadNode extends LLVMAbstractAddressReadNode {
+
+        @Specialization
+        protected Object readObject(VirtualFrame frame) {
+            Object value;
+            // a slot that is no longer of kind Long can still hold a raw address in activations
+            // that were running when the slot was generalized
+            if (isLongSlot() || frame.isLong(getSlot())) {
+                value = LLVMAddress.fromLong(FrameUtil.getLongSafe(frame, getSlot()));
+            } else {
+                value = FrameUtil.getObjectSafe(frame, getSlot());
+            }
+            return attachType(value);
+        }
+
+        /**
+         * @return a read of the same slot for a consumer that also accepts native pointers as raw
+         *         {@code long} addresses, or this node if the slot never holds raw addresses
+         */
+        public LLVMExpressionNode forRawAddressConsumer() {
+            if (isLongSlot()) {
+                return LLVMRawAddressReadNodeGen.create(getSlot());
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Reads a pointer for a consumer that accepts native pointers as raw addresses, see
+     * {@link LLVMAddressReadNode#forRawAddressConsumer()}. The value of a {@link FrameSlotKind#Long}
+     * slot is returned as it is, so the consumer can use {@link #executeI64} and no
+     * {@link LLVMAddress} is allocated.
+     */
+    public abstract static class LLVMRawAddressReadNode extends LLVMAbstractAddressReadNode {
+
+        @Specialization(guards = "isLongSlot()")
+        protected long readRaw(VirtualFrame frame) {
+            return FrameUtil.getLongSafe(frame, getSlot());
+        }
+
+        @Specialization(guards = "!isLongSlot()")
+        protected Object readObject(VirtualFrame frame) {
+            if (frame.isLong(getSlot())) {
+                return FrameUtil.getLongSafe(frame, getSlot());
+            }
+            return attachType(FrameUtil.getObjectSafe(frame, getSlot()));
+        }
+    }
+
     public abstract static class AttachInteropTypeNode extends LLVMNode {
 
         public abstract Object execute(Object object, LLVMInteropType type);
@@ -170,21 +170,37 @@ public abstract class LLVMWriteNode extends LLVMExpressionNode {
         }
     }
 
+    /**
+     * Pointer slots of kind {@link FrameSlotKind#Long} hold native pointers as raw addresses. The
+     * slot is generalized to {@link FrameSlotKind#Object} as soon as a managed pointer is written.
+     */
     public abstract static class LLVMWriteAddressNode extends LLVMWriteNode {
         @Specialization
         protected Object writeAddress(VirtualFrame frame, LLVMAddress value) {
-            frame.setObject(getSlot(), value);
+            if (getSlot().getKind() == FrameSlotKind.Long) {
+                frame.setLong(getSlot(), value.getVal());
+            } else {
+                frame.setObject(getSlot(), value);
+            }
             return null;
         }
 
         @Specialization
         protected Object writeAddress(VirtualFrame frame, long value) {
-            frame.setObject(getSlot(), LLVMAddress.fromLong(value));
+            if (getSlot().getKind() == FrameSlotKind.Long) {
+                frame.setLong(getSlot(), value);
+            } else {
+                frame.setObject(getSlot(), LLVMAddress.fromLong(value));
+            }
             return null;
         }
 
         @Fallback
         protected Object writeObject(VirtualFrame frame, Object value) {
+            if (getSlot().getKind() == FrameSlotKind.Long) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getSlot().setKind(FrameSlotKind.Object);
+            }
             frame.setObject(getSlot(), value);
             return null;
         }
@@ -31,7 +31,9 @@ package com.oracle.truffle.llvm.parser.factories;
 
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
@@ -49,6 +51,8 @@ import com.oracle.truffle.llvm.nodes.control.LLVMBrUnconditionalNode;
 import com.oracle.truffle.llvm.nodes.control.LLVMConditionalBranchNode;
 import com.oracle.truffle.llvm.nodes.control.LLVMDispatchBasicBlockNode;
 import com.oracle.truffle.llvm.nodes.control.LLVMIndirectBranchNode;
+import com.oracle.truffle.llvm.nodes.control.LLVMLoopDispatchNode;
+import com.oracle.truffle.llvm.nodes.control.LLVMLoopNode;
 import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVM80BitFloatRetNodeGen;
 import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVMAddressRetNodeGen;
 import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVMDoubleRetNodeGen;
@@ -63,6 +67,10 @@ import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVMIVarBitRetNo
 import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVMStructRetNodeGen;
 import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVMVectorRetNodeGen;
 import com.oracle.truffle.llvm.nodes.control.LLVMRetNodeFactory.LLVMVoidReturnNodeGen;
+import com.oracle.truffle.llvm.nodes.control.LLVMSwitchNode.LLVMI16SwitchNode;
+import com.oracle.truffle.llvm.nodes.control.LLVMSwitchNode.LLVMI32SwitchNode;
+import com.oracle.truffle.llvm.nodes.control.LLVMSwitchNode.LLVMI64SwitchNode;
+import com.oracle.truffle.llvm.nodes.control.LLVMSwitchNode.LLVMI8SwitchNode;
 import com.oracle.truffle.llvm.nodes.control.LLVMSwitchNode.LLVMSwitchNodeImpl;
 import com.oracle.truffle.llvm.nodes.control.LLVMWritePhisNode;
 import com.oracle.truffle.llvm.nodes.func.LLVMArgNodeGen;
@@ -279,6 +287,7 @@ import com.oracle.truffle.llvm.nodes.others.LLVMVectorSelectNodeFactory.LLVMI1Ve
 import com.oracle.truffle.llvm.nodes.others.LLVMVectorSelectNodeFactory.LLVMI32VectorSelectNodeGen;
 import com.oracle.truffle.llvm.nodes.others.LLVMVectorSelectNodeFactory.LLVMI64VectorSelectNodeGen;
 import com.oracle.truffle.llvm.nodes.others.LLVMVectorSelectNodeFactory.LLVMI8VectorSelectNodeGen;
+import com.oracle.truffle.llvm.nodes.vars.LLVMReadNode.LLVMAddressReadNode;
 import com.oracle.truffle.llvm.nodes.vars.LLVMReadNodeFactory;
 import com.oracle.truffle.llvm.nodes.vars.LLVMReadNodeFactory.LLVM80BitFloatReadNodeGen;
 import com.oracle.truffle.llvm.nodes.vars.LLVMReadNodeFactory.LLVMAddressReadNodeGen;
@@ -333,6 +342,7 @@ import com.oracle.truffle.llvm.nodes.vector.LLVMShuffleVectorNodeFactory.LLVMShu
 import com.oracle.truffle.llvm.nodes.vector.LLVMShuffleVectorNodeFactory.LLVMShuffleI32VectorNodeGen;
 import com.oracle.truffle.llvm.nodes.vector.LLVMShuffleVectorNodeFactory.LLVMShuffleI64VectorNodeGen;
 import com.oracle.truffle.llvm.nodes.vector.LLVMShuffleVectorNodeFactory.LLVMShuffleI8VectorNodeGen;
+import com.oracle.truffle.llvm.parser.LLVMLoopAnalysis.Loop;
 import com.oracle.truffle.llvm.parser.LLVMParserRuntime;
 import com.oracle.truffle.llvm.parser.NodeFactory;
 import com.oracle.truffle.llvm.parser.instructions.LLVMArithmeticInstructionType;
@@ -352,6 +362,7 @@ import com.oracle.truffle.llvm.parser.model.symbols.globals.GlobalValueSymbol;
 import com.oracle.truffle.llvm.parser.model.symbols.globals.GlobalVariable;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.LLVMContext.ExternalLibrary;
 import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
 import com.oracle.truffle.llvm.runtime.LLVMIVarBit;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage;
@@ -950,7 +961,7 @@ public class BasicNodeFactory implements NodeFactory {
         } else if (Type.isFunctionOrFunctionPointer(llvmType)) {
             return LLVMWriteFunctionNodeGen.create(result, slot, sourceSection);
         } else if (llvmType instanceof PointerType) {
-            return LLVMWriteAddressNodeGen.create(result, slot, sourceSection);
+            return LLVMWriteAddressNodeGen.create(rawAddress(result), slot, sourceSection);
         } else if (llvmType instanceof StructureType || llvmType instanceof ArrayType) {
             return LLVMWriteAddressNodeGen.create(result, slot, sourceSection);
         }
@@ -1243,6 +1254,34 @@ public class BasicNodeFactory implements NodeFactory {
         return new LLVMSwitchNodeImpl(successors, phiWriteNodes, cond, caseNodes, source);
     }
 
+    @Override
+    public LLVMControlFlowNode createPrimitiveSwitch(LLVMParserRuntime runtime, LLVMExpressionNode cond, int[] successors, long[] caseValues, PrimitiveType llvmType,
+                    LLVMExpressionNode[] phiWriteNodes, LLVMSourceLocation source) {
+        // the case values have to be sign extended in the same way as the condition value
+        long[] values = new long[caseValues.length];
+        switch (llvmType.getPrimitiveKind()) {
+            case I8:
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (byte) caseValues[i];
+                }
+                return new LLVMI8SwitchNode(successors, phiWriteNodes, cond, values, source);
+            case I16:
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (short) caseValues[i];
+                }
+                return new LLVMI16SwitchNode(successors, phiWriteNodes, cond, values, source);
+            case I32:
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (int) caseValues[i];
+                }
+                return new LLVMI32SwitchNode(successors, phiWriteNodes, cond, values, source);
+            case I64:
+                return new LLVMI64SwitchNode(successors, phiWriteNodes, cond, caseValues.clone(), source);
+            default:
+                throw new AssertionError(llvmType);
+        }
+    }
+
     @Override
     public LLVMControlFlowNode createConditionalBranch(LLVMParserRuntime runtime, int trueIndex, int falseIndex, LLVMExpressionNode conditionNode, LLVMExpressionNode truePhiWriteNodes,
                     LLVMExpressionNode falsePhiWriteNodes, LLVMSourceLocation sourceSection) {
@@ -1437,10 +1476,51 @@ public class BasicNodeFactory implements NodeFactory {
     }
 
     @Override
-    public LLVMExpressionNode createFunctionBlockNode(LLVMParserRuntime runtime, FrameSlot exceptionValueSlot, List<? extends LLVMExpressionNode> allFunctionNodes, FrameSlot[][] beforeBlockNuller,
-                    FrameSlot[][] afterBlockNuller, LLVMSourceLocation location, LLVMExpressionNode[] copyArgumentsToFrame) {
-        return new LLVMDispatchBasicBlockNode(exceptionValueSlot, allFunctionNodes.toArray(new LLVMBasicBlockNode[allFunctionNodes.size()]), beforeBlockNuller, afterBlockNuller, location,
-                        copyArgumentsToFrame);
+    public LLVMExpressionNode createFunctionBlockNode(LLVMParserRuntime runtime, FrameSlot exceptionValueSlot, List<? extends LLVMExpressionNode> allFunctionNodes, List<Loop> loops,
+                    FrameSlot loopSuccessorSlot, FrameSlot[][] beforeBlockNuller, FrameSlot[][] afterBlockNuller, LLVMSourceLocation location, LLVMExpressionNode[] copyArgumentsToFrame) {
+        int blockCount = allFunctionNodes.size();
+        LLVMBasicBlockNode[] bodyNodes = allFunctionNodes.toArray(new LLVMBasicBlockNode[blockCount]);
+        LLVMLoopNode[] outermostLoops = new LLVMLoopNode[blockCount];
+
+        // the loops are ordered from inner to outer loops, so a block is owned by the first loop
+        // that contains it and nested loop nodes exist before the loop that contains them
+        Loop[] owners = new Loop[blockCount];
+        for (Loop loop : loops) {
+            for (int block : loop.getBlocks()) {
+                if (owners[block] == null) {
+                    owners[block] = loop;
+                }
+            }
+        }
+
+        Map<Loop, LLVMLoopNode[]> nestedLoops = new HashMap<>();
+        for (Loop loop : loops) {
+            LLVMBasicBlockNode[] loopBodyNodes = new LLVMBasicBlockNode[blockCount];
+            boolean[] inLoop = new boolean[blockCount];
+            for (int block : loop.getBlocks()) {
+                inLoop[block] = true;
+                if (owners[block] == loop) {
+                    loopBodyNodes[block] = bodyNodes[block];
+                }
+            }
+            LLVMLoopNode[] loopNestedLoops = nestedLoops.getOrDefault(loop, new LLVMLoopNode[blockCount]);
+            LLVMLoopDispatchNode dispatchNode = new LLVMLoopDispatchNode(loop.getHeader(), exceptionValueSlot, loopSuccessorSlot, loopBodyNodes, loopNestedLoops, inLoop, beforeBlockNuller,
+                            afterBlockNuller);
+            LLVMLoopNode loopNode = new LLVMLoopNode(dispatchNode, loopSuccessorSlot, loop.getSuccessors());
+
+            if (loop.getParent() == null) {
+                outermostLoops[loop.getHeader()] = loopNode;
+            } else {
+                nestedLoops.computeIfAbsent(loop.getParent(), l -> new LLVMLoopNode[blockCount])[loop.getHeader()] = loopNode;
+            }
+        }
+
+        for (int block = 0; block < blockCount; block++) {
+            if (owners[block] != null) {
+                bodyNodes[block] = null;
+            }
+        }
+        return new LLVMDispatchBasicBlockNode(exceptionValueSlot, bodyNodes, outermostLoops, beforeBlockNuller, afterBlockNuller, location, copyArgumentsToFrame);
     }
 
     @Override
@@ -1454,19 +1534,30 @@ public class BasicNodeFactory implements NodeFactory {
     @Override
     public LLVMExpressionNode createInlineAssemblerExpression(LLVMParserRuntime runtime, String asmExpression, String asmFlags, LLVMExpressionNode[] args, Type[] argTypes, Type retType,
                     LLVMSourceLocation sourceSection) {
-        Type[] retTypes = null;
-        int[] retOffsets = null;
+        final Type[] retTypes;
+        final int[] retOffsets;
         if (retType instanceof StructureType) { // multiple out values
             assert args[1] instanceof LLVMAllocaConstInstruction;
             LLVMAllocaConstInstruction alloca = (LLVMAllocaConstInstruction) args[1];
             retTypes = alloca.getTypes();
             retOffsets = alloca.getOffsets();
+        } else {
+            retTypes = null;
+            retOffsets = null;
         }
 
-        Parser asmParser = new Parser(runtime.getLanguage(), sourceSection, asmExpression, asmFlags, argTypes, retType, retTypes, retOffsets);
-        LLVMInlineAssemblyRootNode assemblyRoot = asmParser.Parse();
-        LLVMFunctionDescriptor asm = LLVMFunctionDescriptor.createDescriptor(runtime.getContext(), runtime.getLibrary(), "<asm>", new FunctionType(MetaType.UNKNOWN, new Type[0], false), -1);
-        asm.declareInSulong(Truffle.getRuntime().createCallTarget(assemblyRoot), false);
+        /*
+         * The parsed function is shared by all call sites with the same assembly and types, so it
+         * must not refer to this call site. Its location is only known to the call node.
+         */
+        LLVMFunctionDescriptor asm = runtime.getContext().getInlineAssemblyCache().get(asmExpression, asmFlags, argTypes, retType, retTypes, retOffsets, () -> {
+            Parser asmParser = new Parser(runtime.getLanguage(), null, asmExpression, asmFlags, argTypes, retType, retTypes, retOffsets);
+            LLVMInlineAssemblyRootNode assemblyRoot = asmParser.Parse();
+            FunctionType asmType = new FunctionType(MetaType.UNKNOWN, new Type[0], false);
+            LLVMFunctionDescriptor descriptor = LLVMFunctionDescriptor.createDescriptor(runtime.getContext(), new ExternalLibrary("<asm>"), "<asm>", asmType, -1);
+            descriptor.declareInSulong(Truffle.getRuntime().createCallTarget(assemblyRoot), false);
+            return descriptor;
+        });
         LLVMFunctionLiteralNode asmFunction = LLVMFunctionLiteralNodeGen.create(asm);
 
         return new LLVMCallNode(new FunctionType(MetaType.UNKNOWN, argTypes, false), asmFunction, args, sourceSection);
@@ -2062,19 +2153,19 @@ public class BasicNodeFactory implements NodeFactory {
         if (resultType instanceof PrimitiveType) {
             switch (((PrimitiveType) resultType).getPrimitiveKind()) {
                 case I1:
-                    return LLVMI1LoadNodeGen.create(loadTarget);
+                    return LLVMI1LoadNodeGen.create(rawAddress(loadTarget));
                 case I8:
-                    return LLVMI8LoadNodeGen.create(loadTarget);
+                    return LLVMI8LoadNodeGen.create(rawAddress(loadTarget));
                 case I16:
-                    return LLVMI16LoadNodeGen.create(loadTarget);
+                    return LLVMI16LoadNodeGen.create(rawAddress(loadTarget));
                 case I32:
-                    return LLVMI32LoadNodeGen.create(loadTarget);
+                    return LLVMI32LoadNodeGen.create(rawAddress(loadTarget));
                 case I64:
-                    return LLVMI64LoadNodeGen.create(loadTarget);
+                    return LLVMI64LoadNodeGen.create(rawAddress(loadTarget));
                 case FLOAT:
-                    return LLVMFloatLoadNodeGen.create(loadTarget);
+                    return LLVMFloatLoadNodeGen.create(rawAddress(loadTarget));
                 case DOUBLE:
-                    return LLVMDoubleLoadNodeGen.create(loadTarget);
+                    return LLVMDoubleLoadNodeGen.create(rawAddress(loadTarget));
                 case X86_FP80:
                     return LLVM80BitFloatDirectLoadNodeGen.create(loadTarget);
                 default:
@@ -2090,7 +2181,7 @@ public class BasicNodeFactory implements NodeFactory {
             if (loadTarget instanceof LLVMAccessGlobalVariableStorageNode) {
                 return new LLVMGlobalDirectLoadNode(((LLVMAccessGlobalVariableStorageNode) loadTarget).getDescriptor());
             } else {
-                return LLVMAddressDirectLoadNodeGen.create(loadTarget);
+                return LLVMAddressDirectLoadNodeGen.create(rawAddress(loadTarget));
             }
         } else {
             throw new AssertionError(resultType);
@@ -2125,19 +2216,19 @@ public class BasicNodeFactory implements NodeFactory {
         if (type instanceof PrimitiveType) {
             switch (((PrimitiveType) type).getPrimitiveKind()) {
                 case I1:
-                    return LLVMI1StoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMI1StoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case I8:
-                    return LLVMI8StoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMI8StoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case I16:
-                    return LLVMI16StoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMI16StoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case I32:
-                    return LLVMI32StoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMI32StoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case I64:
-                    return LLVMI64StoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMI64StoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case FLOAT:
-                    return LLVMFloatStoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMFloatStoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case DOUBLE:
-                    return LLVMDoubleStoreNodeGen.create(source, pointerNode, valueNode);
+                    return LLVMDoubleStoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
                 case X86_FP80:
                     return LLVM80BitFloatStoreNodeGen.create(source, pointerNode, valueNode);
                 default:
@@ -2153,7 +2244,7 @@ public class BasicNodeFactory implements NodeFactory {
             if (pointerNode instanceof LLVMAccessGlobalVariableStorageNode) {
                 return LLVMGlobalVariableStoreNodeGen.create(((LLVMAccessGlobalVariableStorageNode) pointerNode).getDescriptor(), source, valueNode);
             } else {
-                return LLVMAddressStoreNodeGen.create(source, pointerNode, valueNode);
+                return LLVMAddressStoreNodeGen.create(source, rawAddress(pointerNode), valueNode);
             }
         } else if (type instanceof VectorType) {
             VectorType vectorType = (VectorType) type;
@@ -2162,4 +2253,16 @@ public class BasicNodeFactory implements NodeFactory {
             throw new AssertionError(type);
         }
     }
+
+    /**
+     * Loads, stores and pointer writes also accept native pointers as raw addresses, so a pointer
+     * that is read from a local variable does not need to be boxed into an {@link LLVMAddress} for
+     * them.
+     */
+    private static LLVMExpressionNode rawAddress(LLVMExpressionNode pointerNode) {
+        if (pointerNode instanceof LLVMAddressReadNode) {
+            return ((LLVMAddressReadNode) pointerNode).forRawAddressConsumer();
+        }
+        return pointerNode;
+    }
 }
@@ -67,6 +67,7 @@ import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallListenNode;
 import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallLseekNode;
 import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallLstatNodeGen;
 import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallMmapNodeGen;
+import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallMunmapNodeGen;
 import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallOpenNodeGen;
 import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallPipe2NodeGen;
 import com.oracle.truffle.llvm.nodes.asm.syscall.LLVMAMD64SyscallPipeNodeGen;
@@ -124,6 +125,8 @@ public class BasicSystemContextExtension extends SystemContextExtension {
                 return new LLVMAMD64SyscallLseekNode();
             case LLVMAMD64Syscall.SYS_mmap:
                 return LLVMAMD64SyscallMmapNodeGen.create();
+            case LLVMAMD64Syscall.SYS_munmap:
+                return LLVMAMD64SyscallMunmapNodeGen.create();
             case LLVMAMD64Syscall.SYS_brk:
                 return LLVMAMD64SyscallBrkNodeGen.create();
             case LLVMAMD64Syscall.SYS_rt_sigaction:
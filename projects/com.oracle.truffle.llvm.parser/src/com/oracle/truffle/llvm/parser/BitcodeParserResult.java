@@ -34,10 +34,44 @@ import com.oracle.truffle.llvm.parser.model.ModelModule;
 import com.oracle.truffle.llvm.parser.scanner.LLVMScanner;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class BitcodeParserResult {
+
+    /*
+     * Scanned modules of all contexts in this process, keyed by a digest of the bitcode. Function
+     * bodies are still parsed lazily on first use and then stay in the shared model.
+     *
+     * The cache is deliberately process-wide rather than owned by an LLVMContext: its purpose is
+     * to avoid scanning the same bitcode again for the next context, also when that context belongs
+     * to another engine. This is safe because the key is derived from the content of the bitcode
+     * and a cached model is never modified. Entries are soft references, so the modules do not
+     * outlive memory pressure, and entries whose module was collected are removed through
+     * collectedModules.
+     */
+    private static final Map<String, CachedModule> cache = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<BitcodeParserResult> collectedModules = new ReferenceQueue<>();
+    private static final AtomicLong cacheHits = new AtomicLong();
+
+    private static final class CachedModule extends SoftReference<BitcodeParserResult> {
+
+        private final String key;
+
+        CachedModule(String key, BitcodeParserResult result) {
+            super(result, collectedModules);
+            this.key = key;
+        }
+    }
+
     private final ModelModule model;
 
     private BitcodeParserResult(ModelModule model) {
@@ -56,14 +90,80 @@ public final class BitcodeParserResult {
         return model.getLibraryPaths();
     }
 
-    public static BitcodeParserResult getFromSource(Source source, ByteBuffer bytes) throws IOException {
+    /**
+     * @param enableLVI whether the debug information needed to inspect source-level variables
+     *            should be processed. If not, the local variables of functions are skipped and the
+     *            source-level types of functions are decoded on first use.
+     */
+    public static BitcodeParserResult getFromSource(Source source, ByteBuffer bytes, boolean enableLVI) throws IOException {
         assert bytes != null;
         if (!LLVMScanner.isSupportedFile(bytes)) {
             throw new IOException("Unsupported file: " + source.toString());
         }
 
-        final ModelModule model = LLVMScanner.parse(source, bytes);
+        final ModelModule model = LLVMScanner.parse(source, bytes, enableLVI);
 
         return new BitcodeParserResult(model);
     }
+
+    /**
+     * Like {@link #getFromSource}, but returns the result for identical bitcode from an earlier
+     * call if it is still cached. The result is shared between contexts and must not be modified,
+     * so it never contains the debug information for {@code llvm.enableLVI}.
+     */
+    public static BitcodeParserResult getFromSourceCached(Source source, ByteBuffer bytes) throws IOException {
+        removeCollectedModules();
+        final String key = digest(bytes);
+        final CachedModule cached = cache.get(key);
+        BitcodeParserResult result = cached == null ? null : cached.get();
+        if (result != null) {
+            cacheHits.incrementAndGet();
+            return result;
+        }
+        if (cached != null) {
+            cache.remove(key, cached);
+        }
+        result = getFromSource(source, bytes, false);
+        cache.put(key, new CachedModule(key, result));
+        return result;
+    }
+
+    private static void removeCollectedModules() {
+        Reference<? extends BitcodeParserResult> collected;
+        while ((collected = collectedModules.poll()) != null) {
+            final CachedModule module = (CachedModule) collected;
+            // the key may already map to a newer entry for the same bitcode
+            cache.remove(module.key, module);
+        }
+    }
+
+    public static long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    private static final int DIGEST_CHUNK_SIZE = 64 * 1024;
+
+    /*
+     * The bitcode is usually a mapped file. It is streamed through the digest in fixed-size chunks
+     * instead of being copied to the heap as a whole.
+     */
+    private static String digest(ByteBuffer bytes) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            final ByteBuffer input = bytes.duplicate();
+            final byte[] chunk = new byte[Math.min(input.remaining(), DIGEST_CHUNK_SIZE)];
+            while (input.hasRemaining()) {
+                final int length = Math.min(input.remaining(), chunk.length);
+                input.get(chunk, 0, length);
+                md.update(chunk, 0, length);
+            }
+            final StringBuilder key = new StringBuilder();
+            for (byte b : md.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.append(':').append(bytes.remaining()).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
 }
@@ -101,7 +101,6 @@ import com.oracle.truffle.llvm.runtime.types.Type;
 
 final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
 
-    private final FrameDescriptor frame;
     private final List<Phi> blockPhis;
     private final NodeFactory nodeFactory;
     private final int argCount;
@@ -119,7 +118,6 @@ final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
 
     LLVMBitcodeInstructionVisitor(FrameDescriptor frame, List<Phi> blockPhis, NodeFactory nodeFactory, int argCount, LLVMSymbolReadResolver symbols, LLVMParserRuntime runtime,
                     ArrayList<LLVMLivenessAnalysis.NullerInformation> nullerInfos, SourceFunction sourceFunction, List<FrameSlot> notNullable, LLVMRuntimeDebugInformation dbgInfoHandler) {
-        this.frame = frame;
         this.blockPhis = blockPhis;
         this.nodeFactory = nodeFactory;
         this.argCount = argCount;
@@ -294,10 +292,10 @@ final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
     private void visitDebugIntrinsic(SymbolImpl value, SourceVariable variable, MDExpression expression, long index, boolean isDeclaration) {
         FrameSlot valueSlot = null;
         if (value instanceof ValueInstruction) {
-            valueSlot = frame.findFrameSlot(((ValueInstruction) value).getName());
+            valueSlot = symbols.findFrameSlot(((ValueInstruction) value).getName());
 
         } else if (value instanceof FunctionParameter) {
-            valueSlot = frame.findFrameSlot(((FunctionParameter) value).getName());
+            valueSlot = symbols.findFrameSlot(((FunctionParameter) value).getName());
         }
 
         if (valueSlot != null) {
@@ -732,6 +730,25 @@ final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
         successors[successors.length - 1] = zwitch.getDefaultBlock().getBlockIndex();
 
         Type llvmType = zwitch.getCondition().getType();
+        if (isPrimitiveSwitch(llvmType)) {
+            long[] caseValues = new long[zwitch.getCaseCount()];
+            boolean constantCases = true;
+            for (int i = 0; i < caseValues.length && constantCases; i++) {
+                SymbolImpl caseValue = zwitch.getCaseValue(i);
+                if (caseValue instanceof IntegerConstant) {
+                    caseValues[i] = ((IntegerConstant) caseValue).getValue();
+                } else {
+                    constantCases = false;
+                }
+            }
+            if (constantCases) {
+                LLVMControlFlowNode node = nodeFactory.createPrimitiveSwitch(runtime, cond, successors, caseValues, (PrimitiveType) llvmType, getPhiWriteNodes(zwitch),
+                                sourceFunction.getSourceLocation(zwitch));
+                setControlFlowNode(node);
+                return;
+            }
+        }
+
         LLVMExpressionNode[] cases = new LLVMExpressionNode[zwitch.getCaseCount()];
         for (int i = 0; i < cases.length; i++) {
             cases[i] = symbols.resolve(zwitch.getCaseValue(i));
@@ -741,6 +758,21 @@ final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
         setControlFlowNode(node);
     }
 
+    private static boolean isPrimitiveSwitch(Type conditionType) {
+        if (conditionType instanceof PrimitiveType) {
+            switch (((PrimitiveType) conditionType).getPrimitiveKind()) {
+                case I8:
+                case I16:
+                case I32:
+                case I64:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
     private LLVMExpressionNode[] getPhiWriteNodes(TerminatingInstruction terminatingInstruction) {
         if (blockPhis != null) {
             ArrayList<Phi>[] phisPerSuccessor = LLVMPhiManager.getPhisForSuccessors(terminatingInstruction, blockPhis);
@@ -781,6 +813,16 @@ final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
         successors[successors.length - 1] = zwitch.getDefaultBlock().getBlockIndex();
 
         final PrimitiveType llvmType = (PrimitiveType) zwitch.getCondition().getType();
+        if (isPrimitiveSwitch(llvmType)) {
+            long[] caseValues = new long[zwitch.getCaseCount()];
+            for (int i = 0; i < caseValues.length; i++) {
+                caseValues[i] = zwitch.getCaseValue(i);
+            }
+            LLVMControlFlowNode node = nodeFactory.createPrimitiveSwitch(runtime, cond, successors, caseValues, llvmType, getPhiWriteNodes(zwitch), sourceFunction.getSourceLocation(zwitch));
+            setControlFlowNode(node);
+            return;
+        }
+
         final LLVMExpressionNode[] cases = new LLVMExpressionNode[zwitch.getCaseCount()];
         for (int i = 0; i < cases.length; i++) {
             // the case value is always a long here regardless of the values actual type, implicit
@@ -829,7 +871,7 @@ final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
     }
 
     private FrameSlot getSlot(String name) {
-        return frame.findFrameSlot(name);
+        return symbols.findFrameSlot(name);
     }
 
     private FrameSlot getExceptionSlot() {
@@ -70,6 +70,7 @@ import com.oracle.truffle.llvm.parser.model.symbols.instructions.SwitchInstructi
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.SwitchOldInstruction;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.TerminatingInstruction;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.UnreachableInstruction;
+import com.oracle.truffle.llvm.parser.model.symbols.instructions.ValueInstruction;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.VoidCallInstruction;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.VoidInvokeInstruction;
 import com.oracle.truffle.llvm.parser.model.visitors.SymbolVisitor;
@@ -81,6 +82,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -89,7 +91,12 @@ public final class LLVMLivenessAnalysis {
     private LLVMLivenessAnalysis() {
     }
 
-    public static LLVMLivenessAnalysisResult computeLiveness(FrameDescriptor frame, LLVMContext context, Map<InstructionBlock, List<LLVMPhiManager.Phi>> phis, FunctionDefinition functionDefinition) {
+    /**
+     * @param coalesceFrameSlots whether values of the same type whose live ranges do not overlap
+     *            should share a frame slot (see {@link LLVMLivenessAnalysisResult#getFrameSlotMapping})
+     */
+    public static LLVMLivenessAnalysisResult computeLiveness(FrameDescriptor frame, LLVMContext context, Map<InstructionBlock, List<LLVMPhiManager.Phi>> phis, FunctionDefinition functionDefinition,
+                    boolean coalesceFrameSlots) {
         List<InstructionBlock> blocks = functionDefinition.getBlocks();
         BlockInfo[] blockInfos = initializeGenKill(frame, phis, functionDefinition, blocks);
         ArrayList<InstructionBlock>[] predecessors = computePredecessors(blocks);
@@ -103,6 +110,13 @@ public final class LLVMLivenessAnalysis {
         if (printStatistics) {
             printResult(context, frame, blocks, result);
         }
+        if (coalesceFrameSlots) {
+            int[] frameSlotMapping = computeFrameSlotMapping(frame, phis, functionDefinition, blocks, blockInfos);
+            result = coalesce(result, frameSlotMapping);
+            if (printStatistics) {
+                printCoalescingResult(context, functionDefinition, frame, result);
+            }
+        }
         return result;
     }
 
@@ -261,6 +275,245 @@ public final class LLVMLivenessAnalysis {
         return new LLVMLivenessAnalysisResult(nullableWithinBlock, nullableBeforeBlock, nullableAfterBlock);
     }
 
+    /**
+     * Assigns the values of a function to frame slots so that values of the same type share a
+     * slot if they do not interfere. As the function is in SSA form, two values interfere if one
+     * of them is live after the definition of the other. In addition, a value interferes with the
+     * operands of its defining instruction (their nullers run after this instruction), and a phi
+     * value interferes with everything that is live at the end of the predecessor block that
+     * writes it. Values are colored greedily in the order of their slots, which roughly follows
+     * the order of their definitions.
+     *
+     * Source variables keep their own slots, as their slot type is updated at runtime.
+     *
+     * @return the index of the coalesced slot for every slot of {@code frame}
+     */
+    private static int[] computeFrameSlotMapping(FrameDescriptor frame, Map<InstructionBlock, List<LLVMPhiManager.Phi>> phis, FunctionDefinition functionDefinition,
+                    List<InstructionBlock> blocks, BlockInfo[] blockInfos) {
+        InterferenceGraph graph = new InterferenceGraph(frame, functionDefinition, blocks);
+
+        BitSet live = new BitSet(frame.getSize());
+        BitSet uses = new BitSet(frame.getSize());
+        LLVMUsesReadVisitor usesVisitor = new LLVMUsesReadVisitor(frame, uses);
+        for (int i = 0; i < blocks.size(); i++) {
+            InstructionBlock block = blocks.get(i);
+            BlockInfo blockInfo = blockInfos[i];
+            live.clear();
+            live.or(blockInfo.out);
+            live.or(blockInfo.phiUses);
+
+            List<LLVMPhiManager.Phi> bbPhis = phis.get(block);
+            if (bbPhis != null) {
+                // the phi values of the successors are written after the terminating instruction
+                BitSet liveAtPhiWrite = (BitSet) live.clone();
+                TerminatingInstruction terminatingInstruction = block.getTerminatingInstruction();
+                uses.clear();
+                terminatingInstruction.accept(usesVisitor);
+                liveAtPhiWrite.or(uses);
+                int terminatingInstructionSlot = resolve(frame, terminatingInstruction);
+                if (terminatingInstructionSlot >= 0) {
+                    liveAtPhiWrite.set(terminatingInstructionSlot);
+                }
+                for (LLVMPhiManager.Phi phi : bbPhis) {
+                    liveAtPhiWrite.set(frame.findFrameSlot(phi.getPhiValue().getName()).getIndex());
+                }
+                for (LLVMPhiManager.Phi phi : bbPhis) {
+                    graph.addInterferences(frame.findFrameSlot(phi.getPhiValue().getName()).getIndex(), liveAtPhiWrite);
+                }
+            }
+
+            for (int j = block.getInstructionCount() - 1; j >= 0; j--) {
+                Instruction instruction = block.getInstruction(j);
+                if (instruction instanceof PhiInstruction) {
+                    // written by the predecessors
+                    continue;
+                }
+                uses.clear();
+                instruction.accept(usesVisitor);
+                if (i == 0 && j == 0) {
+                    // like the nullers, we claim that the arguments are used by the first
+                    // instruction
+                    for (FunctionParameter param : functionDefinition.getParameters()) {
+                        uses.set(frame.findFrameSlot(param.getName()).getIndex());
+                    }
+                }
+                int frameSlotIndex = resolve(frame, instruction);
+                if (frameSlotIndex >= 0) {
+                    graph.addInterferences(frameSlotIndex, live);
+                    graph.addInterferences(frameSlotIndex, uses);
+                    live.clear(frameSlotIndex);
+                }
+                live.or(uses);
+            }
+
+            if (i == 0) {
+                // the arguments are written together when the function is entered
+                for (FunctionParameter param : functionDefinition.getParameters()) {
+                    live.set(frame.findFrameSlot(param.getName()).getIndex());
+                }
+                for (FunctionParameter param : functionDefinition.getParameters()) {
+                    graph.addInterferences(frame.findFrameSlot(param.getName()).getIndex(), live);
+                }
+            }
+        }
+        return graph.color();
+    }
+
+    private static final class InterferenceGraph {
+        private static final int[] NO_NEIGHBORS = new int[0];
+
+        /* values can only share a slot with values of the same group, -1 for fixed slots */
+        private final int[] groups;
+        private final int groupCount;
+        private final int[][] neighbors;
+        private final int[] neighborCounts;
+
+        InterferenceGraph(FrameDescriptor frame, FunctionDefinition functionDefinition, List<InstructionBlock> blocks) {
+            int size = frame.getSize();
+            this.groups = new int[size];
+            this.neighbors = new int[size][];
+            this.neighborCounts = new int[size];
+            Arrays.fill(groups, -1);
+            Arrays.fill(neighbors, NO_NEIGHBORS);
+
+            // slots can only be shared by values whose slots have the same type
+            Map<Object, Integer> groupIds = new IdentityHashMap<>();
+            List<? extends FrameSlot> slots = frame.getSlots();
+            for (FunctionParameter param : functionDefinition.getParameters()) {
+                if (!param.isSourceVariable()) {
+                    assignGroup(groupIds, slots.get(frame.findFrameSlot(param.getName()).getIndex()));
+                }
+            }
+            for (InstructionBlock block : blocks) {
+                for (int i = 0; i < block.getInstructionCount(); i++) {
+                    Instruction instruction = block.getInstruction(i);
+                    if (instruction instanceof ValueInstruction && !((ValueInstruction) instruction).isSourceVariable()) {
+                        assignGroup(groupIds, slots.get(resolve(frame, instruction)));
+                    }
+                }
+            }
+            this.groupCount = groupIds.size();
+        }
+
+        private void assignGroup(Map<Object, Integer> groupIds, FrameSlot slot) {
+            Integer group = groupIds.get(slot.getInfo());
+            if (group == null) {
+                group = groupIds.size();
+                groupIds.put(slot.getInfo(), group);
+            }
+            groups[slot.getIndex()] = group;
+        }
+
+        void addInterferences(int frameSlotIndex, BitSet others) {
+            int group = groups[frameSlotIndex];
+            if (group < 0) {
+                return;
+            }
+            int bitIndex = -1;
+            while ((bitIndex = others.nextSetBit(bitIndex + 1)) >= 0) {
+                if (bitIndex != frameSlotIndex && groups[bitIndex] == group) {
+                    addNeighbor(frameSlotIndex, bitIndex);
+                    addNeighbor(bitIndex, frameSlotIndex);
+                }
+            }
+        }
+
+        private void addNeighbor(int frameSlotIndex, int neighbor) {
+            int count = neighborCounts[frameSlotIndex];
+            if (count == neighbors[frameSlotIndex].length) {
+                neighbors[frameSlotIndex] = Arrays.copyOf(neighbors[frameSlotIndex], Math.max(4, count * 2));
+            }
+            neighbors[frameSlotIndex][count] = neighbor;
+            neighborCounts[frameSlotIndex] = count + 1;
+        }
+
+        int[] color() {
+            int[] mapping = new int[groups.length];
+            int[][] groupSlots = new int[groupCount][];
+            int[] groupSlotCounts = new int[groupCount];
+            Arrays.fill(groupSlots, NO_NEIGHBORS);
+            BitSet taken = new BitSet();
+
+            int slotCount = 0;
+            for (int i = 0; i < groups.length; i++) {
+                int group = groups[i];
+                if (group < 0) {
+                    mapping[i] = slotCount++;
+                    continue;
+                }
+
+                for (int j = 0; j < neighborCounts[i]; j++) {
+                    int neighbor = neighbors[i][j];
+                    if (neighbor < i) {
+                        taken.set(mapping[neighbor]);
+                    }
+                }
+                int slot = -1;
+                for (int j = 0; j < groupSlotCounts[group]; j++) {
+                    if (!taken.get(groupSlots[group][j])) {
+                        slot = groupSlots[group][j];
+                        break;
+                    }
+                }
+                if (slot < 0) {
+                    slot = slotCount++;
+                    if (groupSlotCounts[group] == groupSlots[group].length) {
+                        groupSlots[group] = Arrays.copyOf(groupSlots[group], Math.max(4, groupSlotCounts[group] * 2));
+                    }
+                    groupSlots[group][groupSlotCounts[group]++] = slot;
+                }
+                mapping[i] = slot;
+
+                for (int j = 0; j < neighborCounts[i]; j++) {
+                    int neighbor = neighbors[i][j];
+                    if (neighbor < i) {
+                        taken.clear(mapping[neighbor]);
+                    }
+                }
+            }
+            return mapping;
+        }
+    }
+
+    private static LLVMLivenessAnalysisResult coalesce(LLVMLivenessAnalysisResult result, int[] frameSlotMapping) {
+        int blockCount = result.nullableWithinBlock.length;
+        @SuppressWarnings("unchecked")
+        ArrayList<NullerInformation>[] nullableWithinBlock = new ArrayList[blockCount];
+        BitSet[] nullableBeforeBlock = new BitSet[blockCount];
+        BitSet[] nullableAfterBlock = new BitSet[blockCount];
+
+        BitSet nulledSlots = new BitSet();
+        for (int i = 0; i < blockCount; i++) {
+            // values that share a slot and die at the same instruction only need one nuller
+            ArrayList<NullerInformation> blockNullers = new ArrayList<>();
+            int instructionIndex = -1;
+            for (NullerInformation nuller : result.nullableWithinBlock[i]) {
+                if (nuller.instructionIndex != instructionIndex) {
+                    instructionIndex = nuller.instructionIndex;
+                    nulledSlots.clear();
+                }
+                int frameSlotIndex = frameSlotMapping[nuller.frameSlotIndex];
+                if (!nulledSlots.get(frameSlotIndex)) {
+                    nulledSlots.set(frameSlotIndex);
+                    blockNullers.add(new NullerInformation(frameSlotIndex, instructionIndex));
+                }
+            }
+            nullableWithinBlock[i] = blockNullers;
+            nullableBeforeBlock[i] = coalesce(result.nullableBeforeBlock[i], frameSlotMapping);
+            nullableAfterBlock[i] = coalesce(result.nullableAfterBlock[i], frameSlotMapping);
+        }
+        return new LLVMLivenessAnalysisResult(nullableWithinBlock, nullableBeforeBlock, nullableAfterBlock, frameSlotMapping);
+    }
+
+    private static BitSet coalesce(BitSet frameSlots, int[] frameSlotMapping) {
+        BitSet result = new BitSet(frameSlots.size());
+        int bitIndex = -1;
+        while ((bitIndex = frameSlots.nextSetBit(bitIndex + 1)) >= 0) {
+            result.set(frameSlotMapping[bitIndex]);
+        }
+        return result;
+    }
+
     public static class NullerInformation implements Comparable<NullerInformation> {
         private final int frameSlotIndex;
         private final int instructionIndex;
@@ -461,6 +714,19 @@ public final class LLVMLivenessAnalysis {
         SulongEngineOption.getStream(context.getEnv().getOptions().get(SulongEngineOption.PRINT_LIFE_TIME_ANALYSIS_STATS)).println(builder.toString());
     }
 
+    private static void printCoalescingResult(LLVMContext context, FunctionDefinition functionDefinition, FrameDescriptor frame, LLVMLivenessAnalysisResult result) {
+        int coalescedSize = 0;
+        for (int frameSlotIndex : result.frameSlotMapping) {
+            coalescedSize = Math.max(coalescedSize, frameSlotIndex + 1);
+        }
+        int nullers = 0;
+        for (int i = 0; i < result.nullableWithinBlock.length; i++) {
+            nullers += result.nullableWithinBlock[i].size() + result.nullableBeforeBlock[i].cardinality() + result.nullableAfterBlock[i].cardinality();
+        }
+        String message = String.format("%s: coalesced %d frame slots into %d, %d nullers", functionDefinition.getName(), frame.getSize(), coalescedSize, nullers);
+        SulongEngineOption.getStream(context.getEnv().getOptions().get(SulongEngineOption.PRINT_LIFE_TIME_ANALYSIS_STATS)).println(message);
+    }
+
     private static String formatLocals(FrameDescriptor frame, BitSet bitSet) {
         StringBuilder result = new StringBuilder();
         int bitIndex = -1;
@@ -522,6 +788,24 @@ public final class LLVMLivenessAnalysis {
         }
     }
 
+    private static class LLVMUsesReadVisitor extends LLVMLocalReadVisitor {
+        private final FrameDescriptor frame;
+        private final BitSet uses;
+
+        LLVMUsesReadVisitor(FrameDescriptor frame, BitSet uses) {
+            this.frame = frame;
+            this.uses = uses;
+        }
+
+        @Override
+        public void visitLocalRead(SymbolImpl symbol) {
+            int frameSlotIndex = resolve(frame, symbol);
+            if (frameSlotIndex >= 0) {
+                uses.set(frameSlotIndex);
+            }
+        }
+    }
+
     private abstract static class LLVMLocalReadVisitor implements SymbolVisitor {
 
         @Override
@@ -746,17 +1030,33 @@ public final class LLVMLivenessAnalysis {
     /**
      * Holds the information when a certain value can be invalidated. The nullableWithinBlock
      * information is sorted descending by the instructionIndex (i.e., the first instructions are
-     * the last in the list).
+     * the last in the list). If the frame slots were coalesced, all frame slot indices refer to the
+     * coalesced frame.
      */
     public static class LLVMLivenessAnalysisResult {
         private final ArrayList<NullerInformation>[] nullableWithinBlock;
         private final BitSet[] nullableBeforeBlock;
         private final BitSet[] nullableAfterBlock;
+        private final int[] frameSlotMapping;
 
         public LLVMLivenessAnalysisResult(ArrayList<NullerInformation>[] nullableWithinBlock, BitSet[] nullableBeforeBlock, BitSet[] nullableAfterBlock) {
+            this(nullableWithinBlock, nullableBeforeBlock, nullableAfterBlock, null);
+        }
+
+        LLVMLivenessAnalysisResult(ArrayList<NullerInformation>[] nullableWithinBlock, BitSet[] nullableBeforeBlock, BitSet[] nullableAfterBlock, int[] frameSlotMapping) {
             this.nullableWithinBlock = nullableWithinBlock;
             this.nullableBeforeBlock = nullableBeforeBlock;
             this.nullableAfterBlock = nullableAfterBlock;
+            this.frameSlotMapping = frameSlotMapping;
+        }
+
+        /**
+         * @return the index of the coalesced frame slot for every slot of the analyzed frame (see
+         *         {@link StackManager#createCoalescedFrame}), or {@code null} if the frame slots
+         *         were not coalesced
+         */
+        public int[] getFrameSlotMapping() {
+            return frameSlotMapping;
         }
 
         public ArrayList<NullerInformation>[] getNullableWithinBlock() {
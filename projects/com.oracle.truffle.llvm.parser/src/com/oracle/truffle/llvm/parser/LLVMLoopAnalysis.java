@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.oracle.truffle.llvm.parser.model.blocks.InstructionBlock;
+import com.oracle.truffle.llvm.parser.model.functions.FunctionDefinition;
+import com.oracle.truffle.llvm.parser.model.symbols.instructions.TerminatingInstruction;
+
+/**
+ * Finds the natural loops of a function. A natural loop is defined by a back edge, i.e., an edge
+ * whose target (the loop header) dominates its source. Loops with the same header are merged, so
+ * that any two loops are either disjoint or nested. Control flow that is not reducible does not
+ * form natural loops and stays in the dispatch loop of the function.
+ */
+public final class LLVMLoopAnalysis {
+
+    /**
+     * Identifier of the frame slot through which a loop node passes the block that follows the
+     * loop back to its parent.
+     */
+    public static final String SUCCESSOR_FRAME_SLOT_ID = "<loop successor>";
+
+    public static final class Loop {
+
+        private final int header;
+        private final BitSet body;
+        private Loop parent;
+        private int[] successors;
+
+        private Loop(int header, BitSet body) {
+            this.header = header;
+            this.body = body;
+        }
+
+        public int getHeader() {
+            return header;
+        }
+
+        public boolean contains(int block) {
+            return body.get(block);
+        }
+
+        public int[] getBlocks() {
+            return body.stream().toArray();
+        }
+
+        public int getSize() {
+            return body.cardinality();
+        }
+
+        /**
+         * @return the innermost loop that contains this loop, or {@code null}
+         */
+        public Loop getParent() {
+            return parent;
+        }
+
+        /**
+         * @return the blocks outside of the loop that are successors of blocks inside the loop
+         */
+        public int[] getSuccessors() {
+            return successors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Loop (header %d) %s", header, body);
+        }
+    }
+
+    private LLVMLoopAnalysis() {
+    }
+
+    /**
+     * @return the natural loops of {@code function}, inner loops before the loops that contain them
+     */
+    public static List<Loop> findLoops(FunctionDefinition function) {
+        List<InstructionBlock> blocks = function.getBlocks();
+        int[][] successors = new int[blocks.size()][];
+        for (InstructionBlock block : blocks) {
+            TerminatingInstruction terminatingInstruction = block.getTerminatingInstruction();
+            int[] blockSuccessors = new int[terminatingInstruction.getSuccessorCount()];
+            for (int i = 0; i < blockSuccessors.length; i++) {
+                blockSuccessors[i] = terminatingInstruction.getSuccessor(i).getBlockIndex();
+            }
+            successors[block.getBlockIndex()] = blockSuccessors;
+        }
+        return findLoops(successors);
+    }
+
+    /**
+     * @param successors the successor block indices of each block, block {@code 0} is the entry
+     */
+    public static List<Loop> findLoops(int[][] successors) {
+        int blockCount = successors.length;
+        int[] order = reversePostOrder(successors);
+        int[] orderIndex = new int[blockCount];
+        Arrays.fill(orderIndex, -1);
+        for (int i = 0; i < order.length; i++) {
+            orderIndex[order[i]] = i;
+        }
+        List<Integer>[] predecessors = computePredecessors(successors, orderIndex);
+        int[] dominators = computeDominators(order, orderIndex, predecessors);
+
+        Loop[] loopOfHeader = new Loop[blockCount];
+        List<Loop> loops = new ArrayList<>();
+        for (int block : order) {
+            for (int successor : successors[block]) {
+                if (dominates(successor, block, dominators)) {
+                    Loop loop = loopOfHeader[successor];
+                    if (loop == null) {
+                        loop = new Loop(successor, new BitSet(blockCount));
+                        loop.body.set(successor);
+                        loopOfHeader[successor] = loop;
+                        loops.add(loop);
+                    }
+                    addBody(loop, block, predecessors);
+                }
+            }
+        }
+
+        // inner loops are strictly smaller than the loops that contain them
+        loops.sort((l1, l2) -> Integer.compare(l1.getSize(), l2.getSize()));
+        for (int i = 0; i < loops.size(); i++) {
+            Loop loop = loops.get(i);
+            for (int j = i + 1; j < loops.size(); j++) {
+                if (loops.get(j).contains(loop.header)) {
+                    loop.parent = loops.get(j);
+                    break;
+                }
+            }
+            BitSet loopSuccessors = new BitSet(blockCount);
+            for (int block = loop.body.nextSetBit(0); block >= 0; block = loop.body.nextSetBit(block + 1)) {
+                for (int successor : successors[block]) {
+                    if (!loop.contains(successor)) {
+                        loopSuccessors.set(successor);
+                    }
+                }
+            }
+            loop.successors = loopSuccessors.stream().toArray();
+        }
+        return loops;
+    }
+
+    private static void addBody(Loop loop, int backEdgeSource, List<Integer>[] predecessors) {
+        ArrayList<Integer> workList = new ArrayList<>();
+        if (!loop.body.get(backEdgeSource)) {
+            loop.body.set(backEdgeSource);
+            workList.add(backEdgeSource);
+        }
+        while (!workList.isEmpty()) {
+            int block = workList.remove(workList.size() - 1);
+            for (int predecessor : predecessors[block]) {
+                if (!loop.body.get(predecessor)) {
+                    loop.body.set(predecessor);
+                    workList.add(predecessor);
+                }
+            }
+        }
+    }
+
+    private static int[] reversePostOrder(int[][] successors) {
+        int blockCount = successors.length;
+        int[] postOrder = new int[blockCount];
+        int postOrderCount = 0;
+        boolean[] visited = new boolean[blockCount];
+        int[] stack = new int[blockCount];
+        int[] nextSuccessor = new int[blockCount];
+        int stackSize = 0;
+        if (blockCount > 0) {
+            stack[stackSize++] = 0;
+            visited[0] = true;
+        }
+        while (stackSize > 0) {
+            int block = stack[stackSize - 1];
+            if (nextSuccessor[block] < successors[block].length) {
+                int successor = successors[block][nextSuccessor[block]++];
+                if (!visited[successor]) {
+                    visited[successor] = true;
+                    stack[stackSize++] = successor;
+                }
+            } else {
+                stackSize--;
+                postOrder[postOrderCount++] = block;
+            }
+        }
+        int[] order = new int[postOrderCount];
+        for (int i = 0; i < postOrderCount; i++) {
+            order[i] = postOrder[postOrderCount - 1 - i];
+        }
+        return order;
+    }
+
+    /**
+     * Only considers blocks that are reachable from the entry.
+     */
+    private static List<Integer>[] computePredecessors(int[][] successors, int[] orderIndex) {
+        @SuppressWarnings("unchecked")
+        List<Integer>[] predecessors = new List[successors.length];
+        for (int i = 0; i < predecessors.length; i++) {
+            predecessors[i] = new ArrayList<>();
+        }
+        for (int block = 0; block < successors.length; block++) {
+            if (orderIndex[block] >= 0) {
+                for (int successor : successors[block]) {
+                    predecessors[successor].add(block);
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * Computes the immediate dominators with the iterative algorithm of Cooper, Harvey and
+     * Kennedy.
+     */
+    private static int[] computeDominators(int[] order, int[] orderIndex, List<Integer>[] predecessors) {
+        int[] dominators = new int[orderIndex.length];
+        Arrays.fill(dominators, -1);
+        if (order.length == 0) {
+            return dominators;
+        }
+        dominators[order[0]] = order[0];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < order.length; i++) {
+                int block = order[i];
+                int newDominator = -1;
+                for (int predecessor : predecessors[block]) {
+                    if (dominators[predecessor] != -1) {
+                        newDominator = newDominator == -1 ? predecessor : intersect(predecessor, newDominator, dominators, orderIndex);
+                    }
+                }
+                if (dominators[block] != newDominator) {
+                    dominators[block] = newDominator;
+                    changed = true;
+                }
+            }
+        }
+        return dominators;
+    }
+
+    private static int intersect(int block1, int block2, int[] dominators, int[] orderIndex) {
+        int finger1 = block1;
+        int finger2 = block2;
+        while (finger1 != finger2) {
+            while (orderIndex[finger1] > orderIndex[finger2]) {
+                finger1 = dominators[finger1];
+            }
+            while (orderIndex[finger2] > orderIndex[finger1]) {
+                finger2 = dominators[finger2];
+            }
+        }
+        return finger1;
+    }
+
+    private static boolean dominates(int dominator, int block, int[] dominators) {
+        int current = block;
+        while (true) {
+            if (current == dominator) {
+                return true;
+            }
+            int next = dominators[current];
+            if (next == current || next == -1) {
+                return false;
+            }
+            current = next;
+        }
+    }
+}
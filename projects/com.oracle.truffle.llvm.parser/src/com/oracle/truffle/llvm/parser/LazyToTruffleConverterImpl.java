@@ -31,19 +31,23 @@ package com.oracle.truffle.llvm.parser;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.llvm.parser.LLVMLivenessAnalysis.LLVMLivenessAnalysisResult;
 import com.oracle.truffle.llvm.parser.LLVMPhiManager.Phi;
 import com.oracle.truffle.llvm.parser.metadata.debuginfo.DebugInfoFunctionProcessor;
+import com.oracle.truffle.llvm.parser.metadata.debuginfo.SourceFunction;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute.Kind;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute.KnownAttribute;
@@ -58,6 +62,7 @@ import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor.LazyToTruffleConve
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceFunctionType;
 import com.oracle.truffle.llvm.runtime.debug.scope.LLVMSourceLocation;
 import com.oracle.truffle.llvm.runtime.memory.LLVMStack;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
 import com.oracle.truffle.llvm.runtime.types.PointerType;
 import com.oracle.truffle.llvm.runtime.types.PrimitiveType;
@@ -95,10 +100,33 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         final Map<InstructionBlock, List<Phi>> phis = LLVMPhiManager.getPhis(method);
 
         // setup the frameDescriptor
-        final FrameDescriptor frame = StackManager.createFrame(method);
+        final boolean enableLVI = context.getEnv().getOptions().get(SulongEngineOption.ENABLE_LVI);
+        final boolean unboxPointers = context.getEnv().getOptions().get(SulongEngineOption.UNBOXED_POINTERS) && !enableLVI;
+        final boolean coalesceFrameSlots = context.getEnv().getOptions().get(SulongEngineOption.COALESCE_FRAME_SLOTS) && !enableLVI;
+        final FrameDescriptor valueFrame = StackManager.createFrame(method, unboxPointers);
+
+        LLVMLivenessAnalysisResult liveness = LLVMLivenessAnalysis.computeLiveness(valueFrame, context, phis, method, coalesceFrameSlots);
+
+        final FrameDescriptor frame;
+        final Map<Object, FrameSlot> coalescedSlots;
+        if (liveness.getFrameSlotMapping() != null) {
+            frame = StackManager.createCoalescedFrame(valueFrame, liveness.getFrameSlotMapping());
+            coalescedSlots = StackManager.getCoalescedFrameSlots(valueFrame, frame, liveness.getFrameSlotMapping());
+        } else {
+            frame = valueFrame;
+            coalescedSlots = null;
+        }
 
-        LLVMLivenessAnalysisResult liveness = LLVMLivenessAnalysis.computeLiveness(frame, context, phis, method);
-        LLVMSymbolReadResolver symbols = new LLVMSymbolReadResolver(runtime, frame);
+        List<LLVMLoopAnalysis.Loop> loops = Collections.emptyList();
+        FrameSlot loopSuccessorSlot = null;
+        if (context.getEnv().getOptions().get(SulongEngineOption.LOOP_OSR)) {
+            loops = LLVMLoopAnalysis.findLoops(method);
+            if (!loops.isEmpty()) {
+                // added after the liveness analysis, the slot is never nulled
+                loopSuccessorSlot = frame.addFrameSlot(LLVMLoopAnalysis.SUCCESSOR_FRAME_SLOT_ID, null, FrameSlotKind.Int);
+            }
+        }
+        LLVMSymbolReadResolver symbols = new LLVMSymbolReadResolver(runtime, frame, coalescedSlots);
         List<FrameSlot> notNullable = new ArrayList<>();
 
         LLVMRuntimeDebugInformation dbgInfoHandler = new LLVMRuntimeDebugInformation(frame, nodeFactory, context, notNullable, symbols, runtime);
@@ -110,10 +138,10 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         FrameSlot[][] nullableAfterBlock = getNullableFrameSlots(frame, liveness.getNullableAfterBlock(), notNullable);
         LLVMSourceLocation location = method.getLexicalScope();
 
-        List<LLVMExpressionNode> copyArgumentsToFrame = copyArgumentsToFrame(frame);
+        List<LLVMExpressionNode> copyArgumentsToFrame = copyArgumentsToFrame(frame, symbols);
         LLVMExpressionNode[] copyArgumentsToFrameArray = copyArgumentsToFrame.toArray(new LLVMExpressionNode[copyArgumentsToFrame.size()]);
-        LLVMExpressionNode body = nodeFactory.createFunctionBlockNode(runtime, frame.findFrameSlot(LLVMException.FRAME_SLOT_ID), visitor.getBlocks(), nullableBeforeBlock, nullableAfterBlock,
-                        location, copyArgumentsToFrameArray);
+        LLVMExpressionNode body = nodeFactory.createFunctionBlockNode(runtime, frame.findFrameSlot(LLVMException.FRAME_SLOT_ID), visitor.getBlocks(), loops, loopSuccessorSlot,
+                        nullableBeforeBlock, nullableAfterBlock, location, copyArgumentsToFrameArray);
 
         RootNode rootNode = nodeFactory.createFunctionStartNode(runtime, body, method.getSourceSection(), frame, method, source, location);
 
@@ -121,8 +149,10 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
     }
 
     @Override
-    public LLVMSourceFunctionType getSourceType() {
-        return method.getSourceFunction().getSourceType();
+    public Supplier<LLVMSourceFunctionType> getSourceTypeProvider() {
+        // only keep the source function alive, not this converter
+        final SourceFunction sourceFunction = method.getSourceFunction();
+        return sourceFunction::getSourceType;
     }
 
     private static FrameSlot[][] getNullableFrameSlots(FrameDescriptor frame, BitSet[] nullablePerBlock, List<FrameSlot> notNullable) {
@@ -149,7 +179,7 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         return result;
     }
 
-    private List<LLVMExpressionNode> copyArgumentsToFrame(FrameDescriptor frame) {
+    private List<LLVMExpressionNode> copyArgumentsToFrame(FrameDescriptor frame, LLVMSymbolReadResolver symbols) {
         List<FunctionParameter> parameters = method.getParameters();
         List<LLVMExpressionNode> formalParamInits = new ArrayList<>();
         LLVMExpressionNode stackPointerNode = nodeFactory.createFunctionArgNode(0, PrimitiveType.I64);
@@ -161,7 +191,7 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         }
         for (FunctionParameter parameter : parameters) {
             LLVMExpressionNode parameterNode = nodeFactory.createFunctionArgNode(argIndex++, parameter.getType());
-            FrameSlot slot = frame.findFrameSlot(parameter.getName());
+            FrameSlot slot = symbols.findFrameSlot(parameter.getName());
             if (isStructByValue(parameter)) {
                 Type type = ((PointerType) parameter.getType()).getPointeeType();
                 formalParamInits.add(nodeFactory.createFrameWrite(runtime, parameter.getType(), nodeFactory.createCopyStructByValue(runtime, type, parameterNode), slot, null));
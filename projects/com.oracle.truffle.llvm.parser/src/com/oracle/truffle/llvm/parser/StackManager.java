@@ -29,7 +29,12 @@
  */
 package com.oracle.truffle.llvm.parser;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.llvm.parser.model.blocks.InstructionBlock;
 import com.oracle.truffle.llvm.parser.model.functions.FunctionDefinition;
@@ -53,7 +58,11 @@ public final class StackManager {
         return rootFrame;
     }
 
-    public static FrameDescriptor createFrame(FunctionDefinition function) {
+    /**
+     * @param unboxPointers whether slots of pointer values start out as {@link FrameSlotKind#Long}
+     *            slots that hold native pointers as raw addresses
+     */
+    public static FrameDescriptor createFrame(FunctionDefinition function, boolean unboxPointers) {
         final FrameDescriptor frame = new FrameDescriptor();
 
         frame.addFrameSlot(LLVMException.FRAME_SLOT_ID, null, FrameSlotKind.Object);
@@ -64,21 +73,62 @@ public final class StackManager {
             if (parameter.isSourceVariable()) {
                 type = type.shallowCopy();
             }
-            frame.addFrameSlot(parameter.getName(), type, Type.getFrameSlotKind(type));
+            frame.addFrameSlot(parameter.getName(), type, getFrameSlotKind(type, unboxPointers));
         }
 
-        final StackAllocationFunctionVisitor functionVisitor = new StackAllocationFunctionVisitor(frame);
+        final StackAllocationFunctionVisitor functionVisitor = new StackAllocationFunctionVisitor(frame, unboxPointers);
         function.accept((FunctionVisitor) functionVisitor);
 
         return frame;
     }
 
+    /**
+     * Creates a frame in which all slots of {@code frame} that {@code frameSlotMapping} maps to the
+     * same index share one slot. The shared slot has the identifier, type and kind of the first of
+     * these slots.
+     */
+    public static FrameDescriptor createCoalescedFrame(FrameDescriptor frame, int[] frameSlotMapping) {
+        assert frameSlotMapping.length == frame.getSize();
+        final FrameDescriptor coalescedFrame = new FrameDescriptor();
+        final List<? extends FrameSlot> slots = frame.getSlots();
+        for (int i = 0; i < frameSlotMapping.length; i++) {
+            if (frameSlotMapping[i] == coalescedFrame.getSize()) {
+                final FrameSlot slot = slots.get(i);
+                coalescedFrame.addFrameSlot(slot.getIdentifier(), slot.getInfo(), slot.getKind());
+            }
+            assert frameSlotMapping[i] < coalescedFrame.getSize();
+        }
+        return coalescedFrame;
+    }
+
+    /**
+     * @return the slot of the coalesced frame for the identifier of every slot of {@code frame}
+     */
+    public static Map<Object, FrameSlot> getCoalescedFrameSlots(FrameDescriptor frame, FrameDescriptor coalescedFrame, int[] frameSlotMapping) {
+        final Map<Object, FrameSlot> coalescedSlots = new HashMap<>();
+        final List<? extends FrameSlot> slots = frame.getSlots();
+        final List<? extends FrameSlot> sharedSlots = coalescedFrame.getSlots();
+        for (int i = 0; i < frameSlotMapping.length; i++) {
+            coalescedSlots.put(slots.get(i).getIdentifier(), sharedSlots.get(frameSlotMapping[i]));
+        }
+        return coalescedSlots;
+    }
+
+    private static FrameSlotKind getFrameSlotKind(Type type, boolean unboxPointers) {
+        if (unboxPointers && type instanceof PointerType && !Type.isFunctionOrFunctionPointer(type)) {
+            return FrameSlotKind.Long;
+        }
+        return Type.getFrameSlotKind(type);
+    }
+
     private static final class StackAllocationFunctionVisitor extends ValueInstructionVisitor implements FunctionVisitor {
 
         private final FrameDescriptor frame;
+        private final boolean unboxPointers;
 
-        private StackAllocationFunctionVisitor(FrameDescriptor frame) {
+        private StackAllocationFunctionVisitor(FrameDescriptor frame, boolean unboxPointers) {
             this.frame = frame;
+            this.unboxPointers = unboxPointers;
         }
 
         @Override
@@ -86,7 +136,7 @@ public final class StackManager {
             final String slotName = valueInstruction.getName();
 
             Type type = valueInstruction.getType();
-            final FrameSlotKind slotKind = Type.getFrameSlotKind(type);
+            final FrameSlotKind slotKind = getFrameSlotKind(type, unboxPointers);
 
             if (valueInstruction.isSourceVariable()) {
                 // when we set the sourcetype at runtime this type needs to be distinct
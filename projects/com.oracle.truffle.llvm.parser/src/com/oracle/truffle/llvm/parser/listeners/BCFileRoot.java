@@ -44,12 +44,14 @@ public final class BCFileRoot implements ParserListener {
     private final ModelModule module;
     private final StringTable stringTable;
     private final IRScope scope;
+    private final boolean enableLVI;
 
-    public BCFileRoot(Source source, ModelModule module) {
+    public BCFileRoot(Source source, ModelModule module, boolean enableLVI) {
         this.source = source;
         this.module = module;
         this.stringTable = new StringTable();
         this.scope = new IRScope();
+        this.enableLVI = enableLVI;
     }
 
     @Override
@@ -75,7 +77,7 @@ public final class BCFileRoot implements ParserListener {
             }
         }
         SymbolNameMangling.demangleGlobals(module);
-        DebugInfoModuleProcessor.processModule(module, source, scope.getMetadata());
+        DebugInfoModuleProcessor.processModule(module, source, scope.getMetadata(), enableLVI);
     }
 
     @Override
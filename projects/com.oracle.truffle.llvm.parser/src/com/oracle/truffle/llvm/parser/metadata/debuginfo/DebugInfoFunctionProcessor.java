@@ -81,28 +81,25 @@ public final class DebugInfoFunctionProcessor {
     private static final int LLVM_DBG_VALUE_LOCALREF_ARGSIZE_NEW = 3;
 
     private final DebugInfoCache cache;
+    private final boolean enableLVI;
 
-    DebugInfoFunctionProcessor(DebugInfoCache cache) {
+    DebugInfoFunctionProcessor(DebugInfoCache cache, boolean enableLVI) {
         this.cache = cache;
+        this.enableLVI = enableLVI;
     }
 
     public void process(FunctionDefinition function, IRScope scope, Source bitcodeSource) {
         initSourceFunction(function, bitcodeSource);
         function.accept((FunctionVisitor) new SymbolProcessor(function.getSourceFunction()));
-        scope.getMetadata().consumeLocals(new MetadataProcessor());
+        scope.getMetadata().consumeLocals(enableLVI ? new MetadataProcessor() : IGNORE_LOCALS);
         cache.endLocalScope();
     }
 
-    private void initSourceFunction(FunctionDefinition function, Source bitcodeSource) {
+    void initSourceFunction(FunctionDefinition function, Source bitcodeSource) {
         final MDBaseNode debugInfo = getDebugInfo(function);
         LLVMSourceLocation scope = null;
-        LLVMSourceFunctionType type = null;
         if (debugInfo != null) {
             scope = cache.buildLocation(debugInfo);
-            LLVMSourceType actualType = cache.parseType(debugInfo);
-            if (actualType instanceof LLVMSourceFunctionType) {
-                type = (LLVMSourceFunctionType) actualType;
-            }
         }
 
         if (scope == null) {
@@ -112,13 +109,32 @@ public final class DebugInfoFunctionProcessor {
             scope = LLVMSourceLocation.createBitcodeFunction(function.getName(), simpleSection);
         }
 
-        final SourceFunction sourceFunction = new SourceFunction(scope, type);
+        final SourceFunction sourceFunction;
+        if (enableLVI) {
+            sourceFunction = new SourceFunction(scope, parseFunctionType(debugInfo));
+        } else {
+            sourceFunction = new SourceFunction(scope, this, debugInfo);
+        }
         function.setSourceFunction(sourceFunction);
         for (SourceVariable local : sourceFunction.getVariables()) {
             local.processFragments();
         }
     }
 
+    /**
+     * Decodes the source-level type of a function. The debug information cache is shared by all
+     * functions of the module, so this must not run concurrently with {@link #process}.
+     */
+    synchronized LLVMSourceFunctionType parseFunctionType(MDBaseNode debugInfo) {
+        if (debugInfo != null) {
+            final LLVMSourceType type = cache.parseType(debugInfo);
+            if (type instanceof LLVMSourceFunctionType) {
+                return (LLVMSourceFunctionType) type;
+            }
+        }
+        return null;
+    }
+
     private static SymbolImpl getArg(VoidCallInstruction call, int index) {
         return index < call.getArgumentCount() ? call.getArgument(index) : null;
     }
@@ -204,6 +220,12 @@ public final class DebugInfoFunctionProcessor {
         }
 
         private void handleDebugIntrinsic(VoidCallInstruction call, boolean isDeclaration) {
+            if (!enableLVI) {
+                // without LVI, the variable would be ignored anyway, so we do not decode it
+                removeFromBlock.addFirst(blockInstIndex);
+                return;
+            }
+
             SymbolImpl value = getArg(call, LLVM_DBG_INTRINSICS_VALUE_ARGINDEX);
             if (value instanceof MetadataSymbol) {
                 value = MDSymbolExtractor.getSymbol(((MetadataSymbol) value).getNode());
@@ -283,6 +305,9 @@ public final class DebugInfoFunctionProcessor {
         }
     }
 
+    private static final MetadataVisitor IGNORE_LOCALS = new MetadataVisitor() {
+    };
+
     private final class MetadataProcessor implements MetadataVisitor {
 
         @Override
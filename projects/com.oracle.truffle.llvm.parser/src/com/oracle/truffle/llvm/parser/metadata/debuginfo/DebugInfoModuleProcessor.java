@@ -33,7 +33,6 @@ import java.math.BigInteger;
 import java.util.Map;
 
 import com.oracle.truffle.api.source.Source;
-import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.llvm.parser.metadata.DwarfOpcode;
 import com.oracle.truffle.llvm.parser.metadata.MDBaseNode;
 import com.oracle.truffle.llvm.parser.metadata.MDCompileUnit;
@@ -56,7 +55,6 @@ import com.oracle.truffle.llvm.parser.model.symbols.globals.GlobalConstant;
 import com.oracle.truffle.llvm.parser.model.symbols.globals.GlobalValueSymbol;
 import com.oracle.truffle.llvm.parser.model.symbols.globals.GlobalVariable;
 import com.oracle.truffle.llvm.parser.model.visitors.ModelVisitor;
-import com.oracle.truffle.llvm.runtime.debug.LLVMSourceFunctionType;
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceStaticMemberType;
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceSymbol;
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceType;
@@ -71,34 +69,42 @@ public final class DebugInfoModuleProcessor {
     private DebugInfoModuleProcessor() {
     }
 
-    public static void processModule(ModelModule irModel, Source bitcodeSource, MetadataValueList metadata) {
+    /**
+     * @param enableLVI whether the values of source-level variables need to be available. If not,
+     *            the variables listed by the compile unit are not processed, and the source-level
+     *            types of functions are only decoded on first use.
+     */
+    public static void processModule(ModelModule irModel, Source bitcodeSource, MetadataValueList metadata, boolean enableLVI) {
         MDUpgrade.perform(metadata);
 
         final DebugInfoCache cache = new DebugInfoCache(metadata, irModel.getSourceStaticMembers());
+        final DebugInfoFunctionProcessor functionProcessor = new DebugInfoFunctionProcessor(cache, enableLVI);
 
         final Map<LLVMSourceSymbol, SymbolImpl> globals = irModel.getSourceGlobals();
         final Map<LLVMSourceStaticMemberType, SymbolImpl> staticMembers = irModel.getSourceStaticMembers();
 
-        irModel.accept(new SymbolProcessor(cache, bitcodeSource, globals, staticMembers));
+        irModel.accept(new SymbolProcessor(cache, functionProcessor, bitcodeSource, globals, staticMembers));
 
         final MDBaseNode cuNode = metadata.getNamedNode(MDNamedNode.COMPILEUNIT_NAME);
-        final MetadataProcessor mdParser = new MetadataProcessor(cache, globals, staticMembers);
-        if (cuNode != null) {
-            cuNode.accept(mdParser);
+        if (enableLVI && cuNode != null) {
+            cuNode.accept(new MetadataProcessor(cache, globals, staticMembers));
         }
 
-        irModel.setFunctionProcessor(new DebugInfoFunctionProcessor(cache));
+        irModel.setFunctionProcessor(functionProcessor);
     }
 
     private static final class SymbolProcessor implements ModelVisitor {
 
         private final DebugInfoCache cache;
+        private final DebugInfoFunctionProcessor functionProcessor;
         private final Source bitcodeSource;
         private final Map<LLVMSourceSymbol, SymbolImpl> sourceGlobals;
         private final Map<LLVMSourceStaticMemberType, SymbolImpl> sourceStaticMembers;
 
-        SymbolProcessor(DebugInfoCache cache, Source bitcodeSource, Map<LLVMSourceSymbol, SymbolImpl> sourceGlobals, Map<LLVMSourceStaticMemberType, SymbolImpl> sourceStaticMembers) {
+        SymbolProcessor(DebugInfoCache cache, DebugInfoFunctionProcessor functionProcessor, Source bitcodeSource, Map<LLVMSourceSymbol, SymbolImpl> sourceGlobals,
+                        Map<LLVMSourceStaticMemberType, SymbolImpl> sourceStaticMembers) {
             this.cache = cache;
+            this.functionProcessor = functionProcessor;
             this.bitcodeSource = bitcodeSource;
             this.sourceGlobals = sourceGlobals;
             this.sourceStaticMembers = sourceStaticMembers;
@@ -110,30 +116,7 @@ public final class DebugInfoModuleProcessor {
 
         @Override
         public void visit(FunctionDefinition function) {
-            final MDBaseNode debugInfo = getDebugInfo(function);
-            LLVMSourceLocation scope = null;
-            LLVMSourceFunctionType type = null;
-            if (debugInfo != null) {
-                scope = cache.buildLocation(debugInfo);
-
-                final LLVMSourceType parsedType = cache.parseType(debugInfo);
-                if (parsedType instanceof LLVMSourceFunctionType) {
-                    type = (LLVMSourceFunctionType) parsedType;
-                }
-            }
-
-            if (scope == null) {
-                final String sourceText = String.format("%s:%s", bitcodeSource.getName(), function.getName());
-                final Source irSource = Source.newBuilder(sourceText).mimeType(DIScopeBuilder.getMimeType(null)).name(sourceText).build();
-                final SourceSection simpleSection = irSource.createSection(1);
-                scope = LLVMSourceLocation.createBitcodeFunction(function.getName(), simpleSection);
-            }
-
-            final SourceFunction sourceFunction = new SourceFunction(scope, type);
-            function.setSourceFunction(sourceFunction);
-            for (SourceVariable local : sourceFunction.getVariables()) {
-                local.processFragments();
-            }
+            functionProcessor.initSourceFunction(function, bitcodeSource);
         }
 
         private void visitGlobal(GlobalValueSymbol global) {
@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.llvm.parser.metadata.MDBaseNode;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.Instruction;
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceFunctionType;
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceSymbol;
@@ -48,13 +49,23 @@ public final class SourceFunction {
 
     private final LLVMSourceLocation lexicalScope;
 
-    private final LLVMSourceFunctionType sourceType;
+    private LLVMSourceFunctionType sourceType;
+
+    /* set until the source type is decoded on first use */
+    private DebugInfoFunctionProcessor typeProcessor;
+    private MDBaseNode typeNode;
 
     SourceFunction(LLVMSourceLocation lexicalScope, LLVMSourceFunctionType sourceType) {
         this.lexicalScope = lexicalScope;
         this.sourceType = sourceType;
     }
 
+    SourceFunction(LLVMSourceLocation lexicalScope, DebugInfoFunctionProcessor typeProcessor, MDBaseNode typeNode) {
+        this.lexicalScope = lexicalScope;
+        this.typeProcessor = typeProcessor;
+        this.typeNode = typeNode;
+    }
+
     public SourceSection getSourceSection() {
         return lexicalScope.getSourceSection();
     }
@@ -67,7 +78,12 @@ public final class SourceFunction {
         return lexicalScope;
     }
 
-    public LLVMSourceFunctionType getSourceType() {
+    public synchronized LLVMSourceFunctionType getSourceType() {
+        if (typeProcessor != null) {
+            sourceType = typeProcessor.parseFunctionType(typeNode);
+            typeProcessor = null;
+            typeNode = null;
+        }
         return sourceType;
     }
 
@@ -48,11 +48,17 @@ public final class LazyFunctionParser {
     }
 
     public void parse(DebugInfoFunctionProcessor diProcessor, Source bitcodeSource) {
-        if (!isParsed) {
-            parser.setupScope();
-            scanner.scanBlock(parser);
-            diProcessor.process(parser.getFunction(), parser.getScope(), bitcodeSource);
-            isParsed = true;
+        /*
+         * All functions of a module share the scanner and the debug information processor, and the
+         * module can be shared between contexts.
+         */
+        synchronized (diProcessor) {
+            if (!isParsed) {
+                parser.setupScope();
+                scanner.scanBlock(parser);
+                diProcessor.process(parser.getFunction(), parser.getScope(), bitcodeSource);
+                isParsed = true;
+            }
         }
     }
 }
@@ -86,11 +86,13 @@ import com.oracle.truffle.llvm.runtime.types.visitors.TypeVisitor;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public final class LLVMSymbolReadResolver {
 
     private final LLVMParserRuntime runtime;
     private final FrameDescriptor frame;
+    private final Map<Object, FrameSlot> coalescedSlots;
 
     private final InternalVisitor visitor = new InternalVisitor();
     private LLVMExpressionNode resolvedNode = null;
@@ -410,20 +412,39 @@ public final class LLVMSymbolReadResolver {
 
         @Override
         public void visit(FunctionParameter param) {
-            final FrameSlot slot = frame.findFrameSlot(param.getName());
+            final FrameSlot slot = findFrameSlot(param.getName());
             resolvedNode = runtime.getNodeFactory().createFrameRead(runtime, param.getType(), slot);
         }
 
         @Override
         public void visitValueInstruction(ValueInstruction value) {
-            final FrameSlot slot = frame.findFrameSlot(value.getName());
+            final FrameSlot slot = findFrameSlot(value.getName());
             resolvedNode = runtime.getNodeFactory().createFrameRead(runtime, value.getType(), slot);
         }
     }
 
     public LLVMSymbolReadResolver(LLVMParserRuntime runtime, FrameDescriptor frame) {
+        this(runtime, frame, null);
+    }
+
+    /**
+     * @param coalescedSlots the slot of each value if several values share a slot of
+     *            {@code frame}, or {@code null}
+     */
+    public LLVMSymbolReadResolver(LLVMParserRuntime runtime, FrameDescriptor frame, Map<Object, FrameSlot> coalescedSlots) {
         this.runtime = runtime;
         this.frame = frame;
+        this.coalescedSlots = coalescedSlots;
+    }
+
+    public FrameSlot findFrameSlot(Object identifier) {
+        if (coalescedSlots != null) {
+            final FrameSlot slot = coalescedSlots.get(identifier);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return frame.findFrameSlot(identifier);
     }
 
     public static Integer evaluateIntegerConstant(SymbolImpl constant) {
@@ -30,14 +30,37 @@
 package com.oracle.truffle.llvm.parser.scanner;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+/**
+ * Random access to the bits of a bitcode file.
+ *
+ * Reads are served from a buffered pair of consecutive 64-bit words, which are refilled with a
+ * single {@link ByteBuffer#getLong} each. The scanner mostly reads sequentially, so almost every
+ * read is just a shift and a mask of the buffered words. Instances are not thread safe.
+ */
 public final class BitStream {
 
     private static final long BYTE_MASK = 0xffL;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = Long.SIZE - 1;
+
     private final ByteBuffer bitstream;
+    private final ByteBuffer words;
+    private final long limit;
+
+    // the words at bit offsets currentWordIndex * 64 and (currentWordIndex + 1) * 64
+    private long currentWordIndex;
+    private long currentWord;
+    private long nextWord;
 
     private BitStream(ByteBuffer bitstream) {
         this.bitstream = bitstream;
+        this.words = bitstream.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.limit = bitstream.limit();
+        this.currentWordIndex = 0;
+        this.currentWord = loadWord(0);
+        this.nextWord = loadWord(1);
     }
 
     public static BitStream create(ByteBuffer bytes) {
@@ -82,9 +105,19 @@ public final class BitStream {
         long shift = 0;
         long datum;
         long o = offset;
-        long dmask = 1 << (width - 1);
+        final long dmask = 1L << (width - 1);
+        final long chunkMask = (1L << width) - 1L;
+        // decode as many chunks as possible from one 64-bit window
+        long window = read(o);
+        long available = Long.SIZE;
         do {
-            datum = read(o, width);
+            if (available < width) {
+                window = read(o);
+                available = Long.SIZE;
+            }
+            datum = window & chunkMask;
+            window >>>= width;
+            available -= width;
             o += width;
             value += (datum & (dmask - 1)) << shift;
             shift += width - 1;
@@ -96,22 +129,46 @@ public final class BitStream {
         return bitstream.limit() * Byte.SIZE;
     }
 
+    /**
+     * Returns the 64 bits starting at {@code offset}, padded with zeros beyond the end of the
+     * stream.
+     */
     private long read(long offset) {
-        long div = offset / Byte.SIZE;
-        long value = 0;
-        for (int i = 0; i < Byte.SIZE; i++) {
-            value += readAlignedByte(div + i) << (i * Byte.SIZE);
+        final long wordIndex = offset >>> WORD_SHIFT;
+        if (wordIndex != currentWordIndex) {
+            fill(wordIndex);
         }
-        long mod = offset & (Byte.SIZE - 1L);
-        if (mod != 0) {
-            value >>>= mod;
-            value += readAlignedByte(div + Byte.SIZE) << (Long.SIZE - mod);
+        final int bit = (int) (offset & WORD_MASK);
+        if (bit == 0) {
+            return currentWord;
+        }
+        return (currentWord >>> bit) | (nextWord << (Long.SIZE - bit));
+    }
+
+    private void fill(long wordIndex) {
+        if (wordIndex == currentWordIndex + 1) {
+            currentWord = nextWord;
+        } else {
+            currentWord = loadWord(wordIndex);
+        }
+        nextWord = loadWord(wordIndex + 1);
+        currentWordIndex = wordIndex;
+    }
+
+    private long loadWord(long wordIndex) {
+        final long byteIndex = wordIndex * Long.BYTES;
+        if (byteIndex + Long.BYTES <= limit) {
+            return words.getLong((int) byteIndex);
+        }
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value |= readAlignedByte(byteIndex + i) << (i * Byte.SIZE);
         }
         return value;
     }
 
     private long readAlignedByte(long i) {
-        return i < bitstream.capacity() ? bitstream.get((int) i) & BYTE_MASK : 0;
+        return i < limit ? words.get((int) i) & BYTE_MASK : 0;
     }
 
     public ByteBuffer getBitstream() {
@@ -86,7 +86,7 @@ public final class LLVMScanner {
         this.offset = 0;
     }
 
-    public static ModelModule parse(Source source, ByteBuffer bytes) {
+    public static ModelModule parse(Source source, ByteBuffer bytes, boolean enableLVI) {
         final ModelModule model = new ModelModule();
 
         ByteBuffer b = bytes.duplicate();
@@ -127,7 +127,7 @@ public final class LLVMScanner {
             throw new RuntimeException("Not a valid input file!");
         }
 
-        parseBitcodeBlock(source, bitcode, model);
+        parseBitcodeBlock(source, bitcode, model, enableLVI);
 
         return model;
     }
@@ -139,9 +139,9 @@ public final class LLVMScanner {
         return magicWord == BC_MAGIC_WORD || magicWord == WRAPPER_MAGIC_WORD || magicWord == ELF_MAGIC_WORD;
     }
 
-    private static void parseBitcodeBlock(Source source, ByteBuffer bitcode, ModelModule model) {
+    private static void parseBitcodeBlock(Source source, ByteBuffer bitcode, ModelModule model, boolean enableLVI) {
         final BitStream bitstream = BitStream.create(bitcode);
-        final BCFileRoot fileParser = new BCFileRoot(source, model);
+        final BCFileRoot fileParser = new BCFileRoot(source, model, enableLVI);
         final LLVMScanner scanner = new LLVMScanner(bitstream, fileParser);
         final long actualMagicWord = scanner.read(Integer.SIZE);
         if (actualMagicWord != BC_MAGIC_WORD) {
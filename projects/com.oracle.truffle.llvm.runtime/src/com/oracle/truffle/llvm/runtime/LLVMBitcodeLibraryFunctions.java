@@ -59,4 +59,37 @@ public final class LLVMBitcodeLibraryFunctions {
             return (int) execute(stack, unwindHeader, catchType.copy());
         }
     }
+
+    public static final class SulongGetExceptionTypeNode extends LibraryFunctionNode {
+
+        public SulongGetExceptionTypeNode(LLVMContext context) {
+            super(context, "@sulong_eh_getType");
+        }
+
+        public Object getType(LLVMStack.StackPointer stack, Object unwindHeader) {
+            return execute(stack, unwindHeader);
+        }
+    }
+
+    public static final class SulongGetAdjustmentNode extends LibraryFunctionNode {
+
+        public SulongGetAdjustmentNode(LLVMContext context) {
+            super(context, "@sulong_eh_getAdjustment");
+        }
+
+        public long getAdjustment(LLVMStack.StackPointer stack, Object unwindHeader) {
+            return (long) execute(stack, unwindHeader);
+        }
+    }
+
+    public static final class SulongSetAdjustmentNode extends LibraryFunctionNode {
+
+        public SulongSetAdjustmentNode(LLVMContext context) {
+            super(context, "@sulong_eh_setAdjustment");
+        }
+
+        public void setAdjustment(LLVMStack.StackPointer stack, Object unwindHeader, long adjustment) {
+            execute(stack, unwindHeader, adjustment);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Remembers whether a C++ catch clause matches a thrown type, keyed by the addresses of the two
+ * {@code std::type_info} objects. Landing pads consult this table once their inline caches are
+ * exhausted, so the type hierarchy is only walked once per pair of types in a context.
+ */
+public final class LLVMCatchTypeCache {
+
+    public static final class Match {
+
+        public static final Match NONE = new Match(false, false, 0);
+        /**
+         * The clause matches, but the adjusted pointer depends on the thrown value (e.g., when a
+         * pointer is caught), so every catch has to go through {@code sulong_eh_canCatch}.
+         */
+        public static final Match DYNAMIC = new Match(true, false, 0);
+
+        private final boolean match;
+        private final boolean fixedOffset;
+        private final long adjustment;
+
+        private Match(boolean match, boolean fixedOffset, long adjustment) {
+            this.match = match;
+            this.fixedOffset = fixedOffset;
+            this.adjustment = adjustment;
+        }
+
+        /**
+         * The clause matches and catches the thrown object at {@code adjustment} bytes from its
+         * start (e.g., a base class of the thrown class).
+         */
+        public static Match fixedOffset(long adjustment) {
+            return new Match(true, true, adjustment);
+        }
+
+        public boolean isMatch() {
+            return match;
+        }
+
+        public boolean isFixedOffset() {
+            return fixedOffset;
+        }
+
+        public long getAdjustment() {
+            assert fixedOffset;
+            return adjustment;
+        }
+    }
+
+    private static final class Key {
+        private final long thrownType;
+        private final long catchType;
+
+        Key(long thrownType, long catchType) {
+            this.thrownType = thrownType;
+            this.catchType = catchType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return thrownType == other.thrownType && catchType == other.catchType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(thrownType * 31 + catchType);
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Match> matches = new ConcurrentHashMap<>();
+
+    /**
+     * @return the cached match, or {@code null} if the pair of types has not been looked up yet
+     */
+    @TruffleBoundary
+    public Match get(long thrownType, long catchType) {
+        return matches.get(new Key(thrownType, catchType));
+    }
+
+    @TruffleBoundary
+    public void put(long thrownType, long catchType, Match match) {
+        matches.put(new Key(thrownType, catchType), match);
+    }
+}
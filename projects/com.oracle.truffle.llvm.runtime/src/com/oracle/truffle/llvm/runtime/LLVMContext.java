@@ -34,8 +34,6 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.IdentityHashMap;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +42,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
@@ -52,15 +51,26 @@ import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.ControlFlowException;
+import com.oracle.truffle.llvm.runtime.LLVMNativeFunctions.PosixMunmapNode;
+import com.oracle.truffle.llvm.runtime.LLVMNativeFunctions.ReleaseStackNode;
+import com.oracle.truffle.llvm.runtime.LLVMNativeFunctions.ReserveStackNode;
 import com.oracle.truffle.llvm.runtime.datalayout.DataLayoutConverter.DataSpecConverterImpl;
 import com.oracle.truffle.llvm.runtime.debug.LLVMSourceContext;
+import com.oracle.truffle.llvm.runtime.global.LLVMGlobal;
 import com.oracle.truffle.llvm.runtime.interop.LLVMTypedForeignObject;
 import com.oracle.truffle.llvm.runtime.interop.export.InteropNodeFactory;
 import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemoryMappings;
+import com.oracle.truffle.llvm.runtime.memory.LLVMSlabAllocator;
 import com.oracle.truffle.llvm.runtime.memory.LLVMStack.StackPointer;
+import com.oracle.truffle.llvm.runtime.memory.LLVMStackOverflowError;
 import com.oracle.truffle.llvm.runtime.memory.LLVMThreadingStack;
+import com.oracle.truffle.llvm.runtime.memory.LLVMThreadingStack.StackAllocator;
 import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 import com.oracle.truffle.llvm.runtime.types.AggregateType;
 import com.oracle.truffle.llvm.runtime.types.DataSpecConverter;
@@ -68,6 +78,8 @@ import com.oracle.truffle.llvm.runtime.types.PrimitiveType;
 import com.oracle.truffle.llvm.runtime.types.Type;
 
 public final class LLVMContext {
+    private static final long SLAB_ARENA_SIZE = 1L << 30;
+
     private final List<Path> libraryPaths = new ArrayList<>();
     private final List<ExternalLibrary> externalLibraries = new ArrayList<>();
 
@@ -79,10 +91,13 @@ public final class LLVMContext {
     private final Object[] mainArguments;
     private final Map<String, String> environment;
     private final LinkedList<LLVMAddress> caughtExceptionStack = new LinkedList<>();
-    private final HashMap<String, Integer> nativeCallStatistics;
-    private final Object handlesLock;
-    private final IdentityHashMap<TruffleObject, LLVMAddress> toNative;
-    private final HashMap<LLVMAddress, TruffleObject> toManaged;
+    private final LLVMNativeCallStatistics nativeCallStatistics;
+    private final LLVMSlabAllocator slabAllocator;
+    private final LLVMHandleTable handles;
+    private final LLVMCatchTypeCache catchTypeCache;
+    private final LLVMInlineAssemblyCache inlineAssemblyCache;
+    private final LLVMStdioBuffer stdioBuffer;
+    private final LLVMMemoryMappings memoryMappings;
     private final LLVMSourceContext sourceContext;
     private final LLVMGlobalsStack globalStack;
 
@@ -94,6 +109,7 @@ public final class LLVMContext {
 
     private final MaterializedFrame globalFrame = Truffle.getRuntime().createMaterializedFrame(new Object[0]);
     private final FrameDescriptor globalFrameDescriptor = globalFrame.getFrameDescriptor();
+    private final Map<FrameSlot, LLVMGlobal> globalsBySlot = new HashMap<>();
 
     // we are not able to clean up a thread local properly, so we are using a map instead
     private final Map<Thread, Object> tls = new HashMap<>();
@@ -137,6 +153,10 @@ public final class LLVMContext {
         public long allocateStackMemory(final long size) {
             assert size >= 0;
             final long alignedAllocation = (stackPointer - size) & -ALIGNMENT;
+            if (alignedAllocation < lowerBounds) {
+                CompilerDirectives.transferToInterpreter();
+                throw new LLVMStackOverflowError("globals stack overflow");
+            }
             assert alignedAllocation <= stackPointer;
             stackPointer = alignedAllocation;
             return alignedAllocation;
@@ -144,6 +164,42 @@ public final class LLVMContext {
 
     }
 
+    /**
+     * Reserves stacks with mmap, so that only the pages that a thread actually touches become
+     * resident. An inaccessible guard region below each stack catches native code that writes
+     * beyond its lower bound.
+     */
+    private static final class MmapStackAllocator implements StackAllocator {
+
+        private static final long GUARD_SIZE = 64 * 1024;
+
+        private final LLVMContext context;
+        private ReserveStackNode reserveStack;
+        private ReleaseStackNode releaseStack;
+
+        MmapStackAllocator(LLVMContext context) {
+            this.context = context;
+        }
+
+        @Override
+        @TruffleBoundary
+        public synchronized long allocate(long size) {
+            if (reserveStack == null) {
+                // the native library is not loaded before the context is initialized
+                LLVMNativeFunctions nativeFunctions = context.getContextExtension(NFIContextExtension.class).getNativeSulongFunctions();
+                reserveStack = nativeFunctions.createReserveStack(context);
+                releaseStack = nativeFunctions.createReleaseStack(context);
+            }
+            return reserveStack.reserve(size, GUARD_SIZE);
+        }
+
+        @Override
+        @TruffleBoundary
+        public synchronized void free(long stack, long size) {
+            releaseStack.release(stack, size, GUARD_SIZE);
+        }
+    }
+
     private static final class LLVMFunctionPointerRegistry {
         private int currentFunctionIndex = 0;
         private final HashMap<LLVMAddress, LLVMFunctionDescriptor> functionDescriptors = new HashMap<>();
@@ -172,15 +228,21 @@ public final class LLVMContext {
         this.initialized = false;
         this.cleanupNecessary = false;
 
+        this.slabAllocator = env.getOptions().get(SulongEngineOption.SLAB_ALLOCATOR) ? new LLVMSlabAllocator(SLAB_ARENA_SIZE) : null;
         this.globalStack = new LLVMGlobalsStack();
-        this.nativeCallStatistics = SulongEngineOption.isTrue(env.getOptions().get(SulongEngineOption.NATIVE_CALL_STATS)) ? new HashMap<>() : null;
-        this.threadingStack = new LLVMThreadingStack(Thread.currentThread(), env.getOptions().get(SulongEngineOption.STACK_SIZE_KB));
+        this.nativeCallStatistics = SulongEngineOption.isTrue(env.getOptions().get(SulongEngineOption.NATIVE_CALL_STATS))
+                        ? new LLVMNativeCallStatistics(env.getOptions().get(SulongEngineOption.NATIVE_CALL_LATENCY_SAMPLING), env.getOptions().get(SulongEngineOption.NATIVE_CALL_STATS_FORMAT))
+                        : null;
+        StackAllocator stackAllocator = env.getOptions().get(SulongEngineOption.MMAP_STACK) ? new MmapStackAllocator(this) : null;
+        this.threadingStack = new LLVMThreadingStack(Thread.currentThread(), env.getOptions().get(SulongEngineOption.STACK_SIZE_KB), stackAllocator);
         this.sigDfl = LLVMAddress.fromLong(0);
         this.sigIgn = LLVMAddress.fromLong(1);
         this.sigErr = LLVMAddress.fromLong(-1);
-        this.toNative = new IdentityHashMap<>();
-        this.toManaged = new HashMap<>();
-        this.handlesLock = new Object();
+        this.handles = new LLVMHandleTable();
+        this.catchTypeCache = new LLVMCatchTypeCache();
+        this.inlineAssemblyCache = new LLVMInlineAssemblyCache();
+        this.stdioBuffer = env.getOptions().get(SulongEngineOption.BUFFER_STDIO) ? new LLVMStdioBuffer(this) : null;
+        this.memoryMappings = new LLVMMemoryMappings();
         this.functionPointerRegistry = new LLVMFunctionPointerRegistry();
         this.globalScope = LLVMScope.createGlobalScope(this);
         this.sourceContext = new LLVMSourceContext();
@@ -219,6 +281,17 @@ public final class LLVMContext {
                 Object[] args = new Object[]{stackPointer, toTruffleObjects(getApplicationArguments()), toTruffleObjects(getEnvironmentVariables())};
                 initContextFunction.call(args);
             }
+            if (nativeCallStatistics != null) {
+                exportNativeCallStatistics();
+            }
+        }
+    }
+
+    private void exportNativeCallStatistics() {
+        try {
+            ForeignAccess.sendWrite(Message.WRITE.createNode(), (TruffleObject) env.getPolyglotBindings(), LLVMNativeCallStatistics.POLYGLOT_NAME, env.asGuestValue(nativeCallStatistics));
+        } catch (InteropException ex) {
+            throw ex.raise();
         }
     }
 
@@ -248,6 +321,7 @@ public final class LLVMContext {
 
     public void dispose(LLVMMemory memory) {
         printNativeCallStatistic();
+        printSlabAllocatorStatistic();
 
         // the following cases exist for cleanup:
         // - exit() or interop: execute all atexit functions, shutdown stdlib, flush IO, and execute
@@ -264,8 +338,25 @@ public final class LLVMContext {
             }
         }
 
+        if (stdioBuffer != null) {
+            stdioBuffer.dispose(memory);
+        }
+
+        List<long[]> mappings = memoryMappings.removeAll();
+        if (!mappings.isEmpty()) {
+            PosixMunmapNode munmap = getContextExtension(NFIContextExtension.class).getNativeSulongFunctions().createPosixMunmap(this);
+            for (long[] mapping : mappings) {
+                munmap.munmap(mapping[0], mapping[1] - mapping[0]);
+            }
+        }
+
         threadingStack.freeMainStack(memory);
         globalStack.free();
+
+        if (slabAllocator != null) {
+            // only the malloc intrinsics of this context hand out blocks of its arena
+            slabAllocator.dispose();
+        }
     }
 
     public LLVMGlobalsStack getGlobalsStack() {
@@ -450,22 +541,18 @@ public final class LLVMContext {
 
     @TruffleBoundary
     public boolean isHandle(LLVMAddress address) {
-        synchronized (handlesLock) {
-            return toManaged.containsKey(address);
-        }
+        return handles.contains(address.getVal());
     }
 
     @TruffleBoundary
     public TruffleObject getManagedObjectForHandle(LLVMAddress address) {
-        synchronized (handlesLock) {
-            final TruffleObject object = toManaged.get(address);
-
-            if (object == null) {
-                throw new UnsupportedOperationException("Cannot resolve native handle: " + address);
-            }
+        final TruffleObject object = handles.get(address.getVal());
 
-            return object;
+        if (object == null) {
+            throw new UnsupportedOperationException("Cannot resolve native handle: " + address);
         }
+
+        return object;
     }
 
     private static TruffleObject getIdentityKey(TruffleObject obj) {
@@ -476,61 +563,76 @@ public final class LLVMContext {
         }
     }
 
+    /**
+     * Releases one reference to a handle obtained from {@link #getHandleForManagedObject} or
+     * {@link #getDerefHandleForManagedObject}. The handle is freed once all references are
+     * released.
+     */
     @TruffleBoundary
     public void releaseHandle(LLVMMemory memory, LLVMAddress address) {
-        synchronized (handlesLock) {
-            final TruffleObject object = toManaged.get(address);
-
-            if (object == null) {
-                throw new UnsupportedOperationException("Cannot resolve native handle: " + address);
-            }
+        int remaining = handles.release(address.getVal());
 
-            toManaged.remove(address);
-            toNative.remove(getIdentityKey(object));
+        if (remaining < 0) {
+            throw new UnsupportedOperationException("Cannot resolve native handle: " + address);
+        } else if (remaining == 0) {
             memory.free(address);
         }
     }
 
     @TruffleBoundary
     public LLVMAddress getHandleForManagedObject(LLVMMemory memory, TruffleObject object) {
-        synchronized (handlesLock) {
-            return toNative.computeIfAbsent(getIdentityKey(object), (k) -> {
-                LLVMAddress allocatedMemory = memory.allocateMemory(Long.BYTES);
-                memory.putI64(allocatedMemory, 0xdeadbeef);
-                toManaged.put(allocatedMemory, object);
-                return allocatedMemory;
-            });
-        }
+        return LLVMAddress.fromLong(handles.acquire(getIdentityKey(object), object, () -> {
+            LLVMAddress allocatedMemory = memory.allocateMemory(Long.BYTES);
+            memory.putI64(allocatedMemory, 0xdeadbeef);
+            return allocatedMemory.getVal();
+        }));
     }
 
     @TruffleBoundary
     public LLVMAddress getDerefHandleForManagedObject(LLVMMemory memory, TruffleObject object) {
-        synchronized (handlesLock) {
-            return toNative.computeIfAbsent(object, (k) -> {
-                LLVMAddress allocatedMemory = memory.allocateDerefMemory();
-                toManaged.put(allocatedMemory, object);
-                return allocatedMemory;
-            });
-        }
+        return LLVMAddress.fromLong(handles.acquire(object, object, () -> memory.allocateDerefMemory().getVal()));
     }
 
-    @TruffleBoundary
-    public void registerNativeCall(LLVMFunctionDescriptor descriptor) {
-        if (nativeCallStatistics != null) {
-            String name = descriptor.getName() + " " + descriptor.getType();
-            if (nativeCallStatistics.containsKey(name)) {
-                int count = nativeCallStatistics.get(name) + 1;
-                nativeCallStatistics.put(name, count);
-            } else {
-                nativeCallStatistics.put(name, 1);
-            }
-        }
+    /**
+     * @return the native call counters, or {@code null} if
+     *         {@link SulongEngineOption#NATIVE_CALL_STATS} is not set
+     */
+    public LLVMNativeCallStatistics getNativeCallStatistics() {
+        return nativeCallStatistics;
+    }
+
+    /**
+     * @return the buffer for writes to stdout and stderr, or {@code null} if
+     *         {@link SulongEngineOption#BUFFER_STDIO} is not set
+     */
+    public LLVMStdioBuffer getStdioBuffer() {
+        return stdioBuffer;
+    }
+
+    public LLVMMemoryMappings getMemoryMappings() {
+        return memoryMappings;
+    }
+
+    public LLVMCatchTypeCache getCatchTypeCache() {
+        return catchTypeCache;
+    }
+
+    public LLVMInlineAssemblyCache getInlineAssemblyCache() {
+        return inlineAssemblyCache;
     }
 
     public LinkedList<LLVMAddress> getCaughtExceptionStack() {
         return caughtExceptionStack;
     }
 
+    /**
+     * Returns the allocator for small {@code malloc} requests of this context, or {@code null} if
+     * {@link SulongEngineOption#SLAB_ALLOCATOR} is not set.
+     */
+    public LLVMSlabAllocator getSlabAllocator() {
+        return slabAllocator;
+    }
+
     public LLVMThreadingStack getThreadingStack() {
         return threadingStack;
     }
@@ -592,6 +694,19 @@ public final class LLVMContext {
         return globalFrame;
     }
 
+    public void registerGlobal(LLVMGlobal global) {
+        synchronized (globalsBySlot) {
+            globalsBySlot.put(global.getSlot(), global);
+        }
+    }
+
+    @TruffleBoundary
+    public LLVMGlobal findGlobal(FrameSlot slot) {
+        synchronized (globalsBySlot) {
+            return globalsBySlot.get(slot);
+        }
+    }
+
     public FrameSlot getGlobalFrameSlot(Object symbol, Type type) {
         FrameSlotKind kind;
         if (type instanceof PrimitiveType) {
@@ -637,14 +752,16 @@ public final class LLVMContext {
 
     private void printNativeCallStatistic() {
         if (nativeCallStatistics != null) {
-            LinkedHashMap<String, Integer> sorted = nativeCallStatistics.entrySet().stream().sorted(Map.Entry.comparingByValue()).collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue,
-                            (e1, e2) -> e1,
-                            LinkedHashMap::new));
-            for (String s : sorted.keySet()) {
-                System.err.println(String.format("Function %s \t count: %d", s, sorted.get(s)));
-            }
+            // native call statistics are printed to stderr unless stdout is requested explicitly
+            String target = env.getOptions().get(SulongEngineOption.NATIVE_CALL_STATS);
+            nativeCallStatistics.print("stdout".equals(target) ? System.out : System.err);
+        }
+    }
+
+    private void printSlabAllocatorStatistic() {
+        String option = env.getOptions().get(SulongEngineOption.SLAB_ALLOCATOR_STATS);
+        if (slabAllocator != null && SulongEngineOption.isTrue(option)) {
+            slabAllocator.printStatistics(SulongEngineOption.getStream(option));
         }
     }
 
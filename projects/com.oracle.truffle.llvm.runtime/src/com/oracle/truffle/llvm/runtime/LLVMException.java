@@ -49,4 +49,11 @@ public final class LLVMException extends ControlFlowException {
     public Object getUnwindHeader() {
         return unwindHeader;
     }
+
+    public boolean hasUnwindHeader(Object header) {
+        if (unwindHeader instanceof LLVMAddress && header instanceof LLVMAddress) {
+            return ((LLVMAddress) unwindHeader).getVal() == ((LLVMAddress) header).getVal();
+        }
+        return unwindHeader == header;
+    }
 }
@@ -31,6 +31,8 @@ package com.oracle.truffle.llvm.runtime;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -179,22 +181,28 @@ public final class LLVMFunctionDescriptor implements LLVMInternalTruffleObject,
         @Override
         void resolve(LLVMFunctionDescriptor descriptor) {
             final RootCallTarget callTarget = converter.convert();
-            final LLVMSourceFunctionType sourceType = converter.getSourceType();
-            descriptor.setFunction(new LLVMIRFunction(callTarget, sourceType));
+            descriptor.setFunction(new LLVMIRFunction(callTarget, converter.getSourceTypeProvider()));
         }
     }
 
     static final class LLVMIRFunction extends ManagedFunction {
         private final RootCallTarget callTarget;
-        private final LLVMSourceFunctionType sourceType;
+        private LLVMSourceFunctionType sourceType;
 
-        LLVMIRFunction(RootCallTarget callTarget, LLVMSourceFunctionType sourceType) {
+        /* the source type is only decoded if someone asks for it */
+        private Supplier<LLVMSourceFunctionType> sourceTypeProvider;
+
+        LLVMIRFunction(RootCallTarget callTarget, Supplier<LLVMSourceFunctionType> sourceTypeProvider) {
             this.callTarget = callTarget;
-            this.sourceType = sourceType;
+            this.sourceTypeProvider = sourceTypeProvider;
         }
 
         @Override
-        LLVMSourceFunctionType getSourceType() {
+        synchronized LLVMSourceFunctionType getSourceType() {
+            if (sourceTypeProvider != null) {
+                sourceType = sourceTypeProvider.get();
+                sourceTypeProvider = null;
+            }
             return sourceType;
         }
     }
@@ -243,6 +251,7 @@ public final class LLVMFunctionDescriptor implements LLVMInternalTruffleObject,
 
     static final class NativeFunction extends Function {
         private final TruffleObject nativeFunction;
+        private final Map<String, TruffleObject> boundFunctions = new ConcurrentHashMap<>();
 
         NativeFunction(TruffleObject nativeFunction) {
             this.nativeFunction = nativeFunction;
@@ -299,13 +308,14 @@ public final class LLVMFunctionDescriptor implements LLVMInternalTruffleObject,
         RootCallTarget convert();
 
         /**
-         * Get an {@link com.oracle.truffle.llvm.runtime.debug.LLVMSourceFunctionType} for the
-         * already converted function. Can be null if no debug information is available in the
-         * bitcode file.
+         * Get a provider of the {@link com.oracle.truffle.llvm.runtime.debug.LLVMSourceFunctionType}
+         * of the already converted function. The provider can return null if no debug information
+         * is available in the bitcode file. It must not refer to the converter, which is released
+         * once the function is converted.
          *
-         * @return the function's source-level type
+         * @return a provider of the function's source-level type
          */
-        LLVMSourceFunctionType getSourceType();
+        Supplier<LLVMSourceFunctionType> getSourceTypeProvider();
     }
 
     public boolean isLLVMIRFunction() {
@@ -366,6 +376,26 @@ public final class LLVMFunctionDescriptor implements LLVMInternalTruffleObject,
         return nativeFunction;
     }
 
+    /**
+     * Returns the native function bound to {@code signature}. Bound functions are cached per
+     * descriptor (a variadic function can be called with several signatures), so call sites that
+     * are megamorphic in the callee do not have to bind the symbol on every call.
+     */
+    @TruffleBoundary
+    public TruffleObject getBoundNativeFunction(String signature) {
+        TruffleObject nativeFunction = getNativeFunction();
+        Map<String, TruffleObject> boundFunctions = ((NativeFunction) getFunction()).boundFunctions;
+        TruffleObject boundFunction = boundFunctions.get(signature);
+        if (boundFunction == null) {
+            boundFunction = NFIContextExtension.bindNativeFunction(nativeFunction, signature);
+            TruffleObject previous = boundFunctions.putIfAbsent(signature, boundFunction);
+            if (previous != null) {
+                boundFunction = previous;
+            }
+        }
+        return boundFunction;
+    }
+
     public String getName() {
         return functionName;
     }
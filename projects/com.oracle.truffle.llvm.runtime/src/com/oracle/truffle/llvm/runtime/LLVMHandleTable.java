@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime;
+
+import java.util.function.LongSupplier;
+
+import com.oracle.truffle.api.interop.TruffleObject;
+
+/**
+ * Maps native handles to managed objects and back.
+ *
+ * Both directions are split into {@link #STRIPES} independently locked stripes. Each stripe is an
+ * open addressing hash table with linear probing; the handle direction is keyed by the raw
+ * {@code long} value of the handle, so lookups do not box. Every handle carries a reference count:
+ * {@link #acquire} on an object that already has a handle returns the existing handle and
+ * increments the count, and {@link #release} only removes the mapping once the count drops to
+ * zero.
+ *
+ * Lookups by handle only lock the stripe of the handle. Modifications lock the stripe of the
+ * object first and then the stripe of the handle, which keeps both directions consistent without
+ * a global lock.
+ */
+public final class LLVMHandleTable {
+
+    private static final int STRIPE_BITS = 5;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final class Entry {
+        private final long handle;
+        private final TruffleObject identityKey;
+        private final TruffleObject object;
+        private int refCount;
+
+        Entry(long handle, TruffleObject identityKey, TruffleObject object) {
+            this.handle = handle;
+            this.identityKey = identityKey;
+            this.object = object;
+            this.refCount = 1;
+        }
+    }
+
+    private static int hash(long handle) {
+        return (int) ((handle * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    private static int hash(Object key) {
+        return System.identityHashCode(key) * 0x9E3779B9;
+    }
+
+    private static int stripe(int hash) {
+        return hash >>> (Integer.SIZE - STRIPE_BITS);
+    }
+
+    /**
+     * Tables use backward shift deletion instead of tombstones, so a lookup stops at the first
+     * empty slot.
+     */
+    private static boolean canMove(int home, int hole, int current) {
+        if (hole <= current) {
+            return home <= hole || home > current;
+        } else {
+            return home <= hole && home > current;
+        }
+    }
+
+    private static final class HandleStripe {
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Entry[] entries = new Entry[INITIAL_CAPACITY];
+        private int size;
+
+        private int indexOf(long handle) {
+            int mask = keys.length - 1;
+            for (int i = hash(handle) & mask;; i = (i + 1) & mask) {
+                long key = keys[i];
+                if (key == handle) {
+                    return i;
+                } else if (key == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        Entry get(long handle) {
+            int index = indexOf(handle);
+            return index < 0 ? null : entries[index];
+        }
+
+        void put(Entry entry) {
+            assert entry.handle != 0 && indexOf(entry.handle) < 0;
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+            insert(entry);
+            size++;
+        }
+
+        private void insert(Entry entry) {
+            int mask = keys.length - 1;
+            int i = hash(entry.handle) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = entry.handle;
+            entries[i] = entry;
+        }
+
+        private void resize() {
+            Entry[] old = entries;
+            keys = new long[old.length * 2];
+            entries = new Entry[old.length * 2];
+            for (Entry e : old) {
+                if (e != null) {
+                    insert(e);
+                }
+            }
+        }
+
+        void remove(long handle) {
+            int hole = indexOf(handle);
+            assert hole >= 0;
+            int mask = keys.length - 1;
+            for (int i = (hole + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (canMove(hash(keys[i]) & mask, hole, i)) {
+                    keys[hole] = keys[i];
+                    entries[hole] = entries[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = 0;
+            entries[hole] = null;
+            size--;
+        }
+    }
+
+    private static final class ObjectStripe {
+        private Entry[] entries = new Entry[INITIAL_CAPACITY];
+        private int size;
+
+        private int indexOf(TruffleObject identityKey) {
+            int mask = entries.length - 1;
+            for (int i = hash(identityKey) & mask;; i = (i + 1) & mask) {
+                Entry entry = entries[i];
+                if (entry == null) {
+                    return -1;
+                } else if (entry.identityKey == identityKey) {
+                    return i;
+                }
+            }
+        }
+
+        Entry get(TruffleObject identityKey) {
+            int index = indexOf(identityKey);
+            return index < 0 ? null : entries[index];
+        }
+
+        void put(Entry entry) {
+            assert indexOf(entry.identityKey) < 0;
+            if ((size + 1) * 4 > entries.length * 3) {
+                Entry[] old = entries;
+                entries = new Entry[old.length * 2];
+                for (Entry e : old) {
+                    if (e != null) {
+                        insert(e);
+                    }
+                }
+            }
+            insert(entry);
+            size++;
+        }
+
+        private void insert(Entry entry) {
+            int mask = entries.length - 1;
+            int i = hash(entry.identityKey) & mask;
+            while (entries[i] != null) {
+                i = (i + 1) & mask;
+            }
+            entries[i] = entry;
+        }
+
+        void remove(TruffleObject identityKey) {
+            int hole = indexOf(identityKey);
+            assert hole >= 0;
+            int mask = entries.length - 1;
+            for (int i = (hole + 1) & mask; entries[i] != null; i = (i + 1) & mask) {
+                if (canMove(hash(entries[i].identityKey) & mask, hole, i)) {
+                    entries[hole] = entries[i];
+                    hole = i;
+                }
+            }
+            entries[hole] = null;
+            size--;
+        }
+    }
+
+    private final HandleStripe[] handleStripes = new HandleStripe[STRIPES];
+    private final ObjectStripe[] objectStripes = new ObjectStripe[STRIPES];
+
+    public LLVMHandleTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            handleStripes[i] = new HandleStripe();
+            objectStripes[i] = new ObjectStripe();
+        }
+    }
+
+    private HandleStripe getHandleStripe(long handle) {
+        return handleStripes[stripe(hash(handle))];
+    }
+
+    private ObjectStripe getObjectStripe(TruffleObject identityKey) {
+        return objectStripes[stripe(hash(identityKey))];
+    }
+
+    /**
+     * Returns the handle of {@code identityKey} and increments its reference count. If there is
+     * no handle yet, a new one is obtained from {@code allocator} (while holding the lock of the
+     * object's stripe) and mapped to {@code object}.
+     */
+    public long acquire(TruffleObject identityKey, TruffleObject object, LongSupplier allocator) {
+        ObjectStripe objectStripe = getObjectStripe(identityKey);
+        synchronized (objectStripe) {
+            Entry entry = objectStripe.get(identityKey);
+            if (entry != null) {
+                entry.refCount++;
+                return entry.handle;
+            }
+            entry = new Entry(allocator.getAsLong(), identityKey, object);
+            HandleStripe handleStripe = getHandleStripe(entry.handle);
+            synchronized (handleStripe) {
+                handleStripe.put(entry);
+            }
+            objectStripe.put(entry);
+            return entry.handle;
+        }
+    }
+
+    /**
+     * Decrements the reference count of {@code handle} and removes it once the count reaches
+     * zero.
+     *
+     * @return the remaining reference count (the caller has to free the handle if this is zero),
+     *         or {@code -1} if {@code handle} is not a handle
+     */
+    public int release(long handle) {
+        HandleStripe handleStripe = getHandleStripe(handle);
+        Entry entry;
+        synchronized (handleStripe) {
+            entry = handleStripe.get(handle);
+        }
+        if (entry == null) {
+            return -1;
+        }
+        ObjectStripe objectStripe = getObjectStripe(entry.identityKey);
+        synchronized (objectStripe) {
+            synchronized (handleStripe) {
+                if (handleStripe.get(handle) != entry) {
+                    // released concurrently
+                    return -1;
+                }
+                if (--entry.refCount == 0) {
+                    handleStripe.remove(handle);
+                    objectStripe.remove(entry.identityKey);
+                }
+                return entry.refCount;
+            }
+        }
+    }
+
+    /**
+     * @return the object that {@code handle} refers to, or {@code null} if {@code handle} is not a
+     *         handle
+     */
+    public TruffleObject get(long handle) {
+        HandleStripe handleStripe = getHandleStripe(handle);
+        synchronized (handleStripe) {
+            Entry entry = handleStripe.get(handle);
+            return entry == null ? null : entry.object;
+        }
+    }
+
+    public boolean contains(long handle) {
+        HandleStripe handleStripe = getHandleStripe(handle);
+        synchronized (handleStripe) {
+            return handleStripe.indexOf(handle) >= 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.llvm.runtime.types.Type;
+
+/**
+ * Shares the parsed inline assembly functions of a context. Header-inlined helpers (atomics,
+ * {@code rdtsc} wrappers, ...) repeat the same assembly string at many call sites, so it is parsed
+ * only once per combination of assembly string, constraints and argument and return types. Call
+ * sites create their own call nodes for the shared function.
+ */
+public final class LLVMInlineAssemblyCache {
+
+    private static final class Key {
+        private final String asmExpression;
+        private final String asmFlags;
+        private final Type[] argTypes;
+        private final Type retType;
+        private final Type[] retTypes;
+        private final int[] retOffsets;
+
+        Key(String asmExpression, String asmFlags, Type[] argTypes, Type retType, Type[] retTypes, int[] retOffsets) {
+            this.asmExpression = asmExpression;
+            this.asmFlags = asmFlags;
+            this.argTypes = argTypes;
+            this.retType = retType;
+            this.retTypes = retTypes;
+            this.retOffsets = retOffsets;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return asmExpression.equals(other.asmExpression) && Objects.equals(asmFlags, other.asmFlags) && Arrays.equals(argTypes, other.argTypes) && Objects.equals(retType, other.retType) &&
+                            Arrays.equals(retTypes, other.retTypes) && Arrays.equals(retOffsets, other.retOffsets);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = asmExpression.hashCode();
+            result = 31 * result + Objects.hashCode(asmFlags);
+            result = 31 * result + Arrays.hashCode(argTypes);
+            return 31 * result + Objects.hashCode(retType);
+        }
+    }
+
+    private final ConcurrentHashMap<Key, LLVMFunctionDescriptor> functions = new ConcurrentHashMap<>();
+
+    /**
+     * Parsing happens outside of the map, so that concurrent lookups of other assembly strings are
+     * not blocked by it. If two threads parse the same assembly, the first result wins.
+     *
+     * @param parser parses the assembly if it is not in the cache yet
+     * @return the function that executes the assembly
+     */
+    public LLVMFunctionDescriptor get(String asmExpression, String asmFlags, Type[] argTypes, Type retType, Type[] retTypes, int[] retOffsets, Supplier<LLVMFunctionDescriptor> parser) {
+        CompilerAsserts.neverPartOfCompilation();
+        Key key = new Key(asmExpression, asmFlags, argTypes.clone(), retType, retTypes, retOffsets);
+        LLVMFunctionDescriptor function = functions.get(key);
+        if (function == null) {
+            LLVMFunctionDescriptor parsed = parser.get();
+            function = functions.putIfAbsent(key, parsed);
+            if (function == null) {
+                function = parsed;
+            }
+        }
+        return function;
+    }
+}
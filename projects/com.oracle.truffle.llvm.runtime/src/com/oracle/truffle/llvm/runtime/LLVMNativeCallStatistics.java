@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Counts the calls to native functions of a context, and optionally samples their latency.
+ *
+ * Dispatch nodes look up the {@link Counter} of a callee once when they specialize, so counting a
+ * call only increments a {@link LongAdder}. If latency sampling is enabled, one in
+ * {@code latencySamplingRate} calls is timed and recorded in a histogram with power-of-two
+ * buckets.
+ *
+ * The public methods are also available to the host through the polyglot bindings (see
+ * {@link #POLYGLOT_NAME}), so that the statistics can be read while the program is running.
+ */
+public final class LLVMNativeCallStatistics {
+
+    public static final String POLYGLOT_NAME = "llvm.nativeCallStatistics";
+
+    /* bucket i counts calls that took less than 2^(i + 1) ns, the last one all longer calls */
+    private static final int LATENCY_BUCKETS = 40;
+
+    public enum Format {
+        TEXT,
+        JSON,
+        CSV;
+
+        static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown native call statistics format: " + name);
+            }
+        }
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final String type;
+        private final LongAdder calls = new LongAdder();
+        private final int latencySamplingRate;
+        private final AtomicLongArray latencies;
+
+        private Counter(String name, String type, int latencySamplingRate) {
+            this.name = name;
+            this.type = type;
+            this.latencySamplingRate = latencySamplingRate;
+            this.latencies = latencySamplingRate > 0 ? new AtomicLongArray(LATENCY_BUCKETS) : null;
+        }
+
+        /**
+         * Counts a call.
+         *
+         * @return whether the latency of this call should be recorded
+         */
+        @TruffleBoundary
+        public boolean countCall() {
+            calls.increment();
+            return latencies != null && ThreadLocalRandom.current().nextInt(latencySamplingRate) == 0;
+        }
+
+        @TruffleBoundary
+        public void recordLatency(long nanos) {
+            int bucket = nanos <= 1 ? 0 : Math.min(63 - Long.numberOfLeadingZeros(nanos), LATENCY_BUCKETS - 1);
+            latencies.incrementAndGet(bucket);
+        }
+
+        private long getLatencySamples() {
+            long samples = 0;
+            if (latencies != null) {
+                for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                    samples += latencies.get(i);
+                }
+            }
+            return samples;
+        }
+
+        /**
+         * @return the upper bound in nanoseconds of the bucket that contains the given percentile
+         *         of the latency samples, or {@code -1} if there are no samples
+         */
+        private long getLatencyPercentile(long samples, double percentile) {
+            if (samples == 0) {
+                return -1;
+            }
+            long rank = (long) Math.ceil(samples * percentile);
+            long seen = 0;
+            for (int i = 0; i < LATENCY_BUCKETS - 1; i++) {
+                seen += latencies.get(i);
+                if (seen >= rank) {
+                    return 2L << i;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private final ConcurrentHashMap<LLVMFunctionDescriptor, Counter> counters = new ConcurrentHashMap<>();
+    private final int latencySamplingRate;
+    private final Format format;
+
+    /**
+     * @param latencySamplingRate time one in this many calls, or none if it is {@code 0}
+     * @param format the format of {@link #print}: {@code text}, {@code json} or {@code csv}
+     */
+    public LLVMNativeCallStatistics(int latencySamplingRate, String format) {
+        if (latencySamplingRate < 0) {
+            throw new IllegalArgumentException("Invalid native call latency sampling rate: " + latencySamplingRate);
+        }
+        this.latencySamplingRate = latencySamplingRate;
+        this.format = Format.parse(format);
+    }
+
+    @TruffleBoundary
+    public Counter getCounter(LLVMFunctionDescriptor descriptor) {
+        Counter counter = counters.get(descriptor);
+        if (counter == null) {
+            counter = new Counter(descriptor.getName(), String.valueOf(descriptor.getType()), latencySamplingRate);
+            Counter existing = counters.putIfAbsent(descriptor, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * @return the number of calls to native functions with the given name so far
+     */
+    @TruffleBoundary
+    public long getCallCount(String name) {
+        long count = 0;
+        for (Counter counter : counters.values()) {
+            if (counter.name.equals(name)) {
+                count += counter.calls.sum();
+            }
+        }
+        return count;
+    }
+
+    private static final class Entry {
+        private final Counter counter;
+        private final long calls;
+        private final long samples;
+
+        Entry(Counter counter) {
+            this.counter = counter;
+            this.calls = counter.calls.sum();
+            this.samples = counter.getLatencySamples();
+        }
+    }
+
+    /* a snapshot of all counters, the most frequently called functions first */
+    private List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>();
+        for (Counter counter : counters.values()) {
+            entries.add(new Entry(counter));
+        }
+        entries.sort((a, b) -> a.calls != b.calls ? Long.compare(b.calls, a.calls) : a.counter.name.compareTo(b.counter.name));
+        return entries;
+    }
+
+    @TruffleBoundary
+    public String toText() {
+        StringBuilder result = new StringBuilder();
+        for (Entry e : snapshot()) {
+            result.append(String.format("Function %s %s \t count: %d", e.counter.name, e.counter.type, e.calls));
+            if (e.samples != 0) {
+                result.append(String.format(" \t latency samples: %d, median: <%d ns, 99%%: <%d ns", e.samples, e.counter.getLatencyPercentile(e.samples, 0.5),
+                                e.counter.getLatencyPercentile(e.samples, 0.99)));
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    /**
+     * The latency histogram of each function maps the exclusive upper bound of a bucket in
+     * nanoseconds to the number of samples in this bucket. Empty buckets are omitted.
+     */
+    @TruffleBoundary
+    public String toJSON() {
+        StringBuilder result = new StringBuilder("{\"latencySamplingRate\":").append(latencySamplingRate).append(",\"functions\":[");
+        String separator = "";
+        for (Entry e : snapshot()) {
+            result.append(separator).append("{\"name\":");
+            appendJSONString(result, e.counter.name);
+            result.append(",\"type\":");
+            appendJSONString(result, e.counter.type);
+            result.append(",\"count\":").append(e.calls);
+            if (e.counter.latencies != null) {
+                result.append(",\"latencySamples\":").append(e.samples).append(",\"latencyHistogram\":{");
+                String bucketSeparator = "";
+                for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                    long count = e.counter.latencies.get(i);
+                    if (count != 0) {
+                        String bound = i == LATENCY_BUCKETS - 1 ? "inf" : String.valueOf(2L << i);
+                        result.append(bucketSeparator).append('"').append(bound).append("\":").append(count);
+                        bucketSeparator = ",";
+                    }
+                }
+                result.append('}');
+            }
+            result.append('}');
+            separator = ",";
+        }
+        return result.append("]}").toString();
+    }
+
+    private static void appendJSONString(StringBuilder result, String value) {
+        result.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        result.append('"');
+    }
+
+    /**
+     * Latencies are the upper bounds of the histogram buckets of the median and the 99th
+     * percentile in nanoseconds, or empty if there are no samples.
+     */
+    @TruffleBoundary
+    public String toCSV() {
+        StringBuilder result = new StringBuilder("name,type,count,latency_samples,latency_p50_ns,latency_p99_ns\n");
+        for (Entry e : snapshot()) {
+            appendCSVField(result, e.counter.name);
+            result.append(',');
+            appendCSVField(result, e.counter.type);
+            result.append(',').append(e.calls).append(',').append(e.samples).append(',');
+            if (e.samples != 0) {
+                result.append(e.counter.getLatencyPercentile(e.samples, 0.5)).append(',').append(e.counter.getLatencyPercentile(e.samples, 0.99));
+            } else {
+                result.append(',');
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    private static void appendCSVField(StringBuilder result, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            result.append(value);
+        } else {
+            result.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    @TruffleBoundary
+    public void print(PrintStream stream) {
+        switch (format) {
+            case JSON:
+                stream.println(toJSON());
+                break;
+            case CSV:
+                stream.print(toCSV());
+                break;
+            default:
+                stream.print(toText());
+                break;
+        }
+    }
+}
@@ -69,6 +69,26 @@ public final class LLVMNativeFunctions {
         return new SulongFreeExceptionNode(freeFunction);
     }
 
+    public ReserveStackNode createReserveStack(LLVMContext context) {
+        TruffleObject reserveFunction = getNativeFunction(context, "@__sulong_reserve_stack", "(UINT64,UINT64):POINTER");
+        return new ReserveStackNode(reserveFunction);
+    }
+
+    public ReleaseStackNode createReleaseStack(LLVMContext context) {
+        TruffleObject releaseFunction = getNativeFunction(context, "@__sulong_release_stack", "(POINTER,UINT64,UINT64):VOID");
+        return new ReleaseStackNode(releaseFunction);
+    }
+
+    public PosixWriteNode createPosixWrite(LLVMContext context) {
+        TruffleObject writeFunction = getNativeFunction(context, "@__sulong_posix_write", "(SINT32,POINTER,UINT64):SINT64");
+        return new PosixWriteNode(writeFunction);
+    }
+
+    public PosixMunmapNode createPosixMunmap(LLVMContext context) {
+        TruffleObject munmapFunction = getNativeFunction(context, "@__sulong_posix_munmap", "(UINT64,UINT64):SINT32");
+        return new PosixMunmapNode(munmapFunction);
+    }
+
     protected abstract static class HeapFunctionNode extends Node {
 
         private final TruffleObject function;
@@ -126,4 +146,67 @@ public final class LLVMNativeFunctions {
             return (TruffleObject) execute();
         }
     }
+
+    public static final class ReserveStackNode extends HeapFunctionNode {
+
+        @Child private Node asPointer = Message.AS_POINTER.createNode();
+
+        private ReserveStackNode(TruffleObject function) {
+            super(function, 2);
+        }
+
+        /**
+         * Reserves {@code size} bytes of address space that are only backed by memory once they are
+         * touched, preceded by {@code guardSize} inaccessible bytes.
+         *
+         * @return the lowest usable address, or {@code 0} if the reservation failed
+         */
+        public long reserve(long size, long guardSize) {
+            try {
+                return ForeignAccess.sendAsPointer(asPointer, (TruffleObject) execute(size, guardSize));
+            } catch (UnsupportedMessageException e) {
+                CompilerDirectives.transferToInterpreter();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static final class ReleaseStackNode extends HeapFunctionNode {
+
+        private ReleaseStackNode(TruffleObject function) {
+            super(function, 3);
+        }
+
+        public void release(long stack, long size, long guardSize) {
+            execute(stack, size, guardSize);
+        }
+    }
+
+    public static final class PosixWriteNode extends HeapFunctionNode {
+
+        private PosixWriteNode(TruffleObject function) {
+            super(function, 3);
+        }
+
+        /**
+         * @return the number of bytes written, or a negative errno value
+         */
+        public long write(int fd, long buffer, long count) {
+            return (long) execute(fd, buffer, count);
+        }
+    }
+
+    public static final class PosixMunmapNode extends HeapFunctionNode {
+
+        private PosixMunmapNode(TruffleObject function) {
+            super(function, 2);
+        }
+
+        /**
+         * @return {@code 0}, or a negative errno value
+         */
+        public int munmap(long address, long length) {
+            return (int) execute(address, length);
+        }
+    }
 }
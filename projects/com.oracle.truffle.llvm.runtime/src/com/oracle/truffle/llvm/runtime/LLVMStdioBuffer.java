@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.llvm.runtime.LLVMNativeFunctions.PosixWriteNode;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemMoveNode;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+
+/**
+ * User-space buffer for small writes to stdout and stderr.
+ *
+ * There is a single native buffer that holds the pending output of one file descriptor at a
+ * time. Writing to the other file descriptor flushes the buffer first, so the order of the output
+ * across stdout and stderr is the same as without buffering. Writes that do not fit into an empty
+ * buffer are not buffered; the caller has to write them directly.
+ *
+ * Output that has been accepted by {@link #buffer} is reported as written to the program. If the
+ * native write fails when the buffer is flushed later, the pending output is dropped.
+ */
+public final class LLVMStdioBuffer {
+
+    public static final int CAPACITY = 8192;
+
+    private static final int EINTR = 4;
+
+    private final LLVMContext context;
+
+    private long buffer;
+    private int bufferedFd = -1;
+    private int size;
+    private PosixWriteNode write;
+
+    public LLVMStdioBuffer(LLVMContext context) {
+        this.context = context;
+    }
+
+    public static boolean isBufferedFd(long fd) {
+        return fd == 1 || fd == 2;
+    }
+
+    /**
+     * Appends {@code length} bytes at {@code address} to the pending output of {@code fd}. A
+     * negative {@code length} is a {@code size_t} count of 2^63 or more, which is never buffered.
+     *
+     * @return {@code false} if the data was not buffered, in which case all previously buffered
+     *         output has been flushed
+     */
+    @TruffleBoundary
+    public synchronized boolean buffer(LLVMMemory memory, LLVMMemMoveNode memMove, int fd, long address, long length) {
+        if (!isBufferedFd(fd)) {
+            return false;
+        }
+        boolean fits = length >= 0 && length <= CAPACITY;
+        if (fd != bufferedFd || !fits || size + length > CAPACITY) {
+            flush();
+        }
+        if (!fits) {
+            return false;
+        }
+        if (buffer == 0) {
+            buffer = memory.allocateMemory(CAPACITY).getVal();
+        }
+        memMove.executeWithTarget(LLVMAddress.fromLong(buffer + size), LLVMAddress.fromLong(address), length);
+        bufferedFd = fd;
+        size += length;
+        return true;
+    }
+
+    @TruffleBoundary
+    public synchronized void flush() {
+        long offset = 0;
+        while (offset < size) {
+            long result = getWriteNode().write(bufferedFd, buffer + offset, size - offset);
+            if (result > 0) {
+                offset += result;
+            } else if (result != -EINTR) {
+                break;
+            }
+        }
+        size = 0;
+    }
+
+    private PosixWriteNode getWriteNode() {
+        if (write == null) {
+            write = context.getContextExtension(NFIContextExtension.class).getNativeSulongFunctions().createPosixWrite(context);
+        }
+        return write;
+    }
+
+    public synchronized void dispose(LLVMMemory memory) {
+        flush();
+        if (buffer != 0) {
+            memory.free(buffer);
+            buffer = 0;
+        }
+    }
+}
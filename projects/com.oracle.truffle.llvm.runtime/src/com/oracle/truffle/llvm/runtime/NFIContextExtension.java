@@ -331,7 +331,7 @@ public final class NFIContextExtension implements ContextExtension {
         }
     }
 
-    private static TruffleObject bindNativeFunction(TruffleObject symbol, String signature) {
+    static TruffleObject bindNativeFunction(TruffleObject symbol, String signature) {
         CompilerAsserts.neverPartOfCompilation();
         try {
             return (TruffleObject) ForeignAccess.sendInvoke(Message.createInvoke(1).createNode(), symbol, "bind",
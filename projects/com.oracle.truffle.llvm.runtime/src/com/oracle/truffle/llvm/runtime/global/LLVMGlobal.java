@@ -33,10 +33,12 @@ import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.interop.InteropException;
@@ -44,6 +46,7 @@ import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.utilities.NeverValidAssumption;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
@@ -72,14 +75,25 @@ public final class LLVMGlobal implements LLVMObjectNativeLibrary.Provider {
     @CompilationFinal private boolean interopTypeCached = false;
     @CompilationFinal private LLVMInteropType interopType;
 
+    /**
+     * Valid as long as the managed value of this global was written at most once. Most globals are
+     * only written by their initializer, so reads can be folded to the initial value.
+     */
+    private final Assumption singleWrite = Truffle.getRuntime().createAssumption("LLVMGlobal.singleWrite");
+    private int writeCount;
+
     public static LLVMGlobal external(LLVMContext context, Object symbol, String name, Type type, LLVMAddress pointer, LLVMSourceSymbol sourceSymbol) {
         LLVMGlobal global = new LLVMGlobal(name, context.getGlobalFrameSlot(symbol, type), type, sourceSymbol);
+        global.singleWrite.invalidate();
         global.setFrame(context, pointer);
+        context.registerGlobal(global);
         return global;
     }
 
     public static LLVMGlobal internal(LLVMContext context, Object symbol, String name, Type type, LLVMSourceSymbol sourceSymbol) {
-        return new LLVMGlobal(name, context.getGlobalFrameSlot(symbol, type), type, sourceSymbol);
+        LLVMGlobal global = new LLVMGlobal(name, context.getGlobalFrameSlot(symbol, type), type, sourceSymbol);
+        context.registerGlobal(global);
+        return global;
     }
 
     public static Object toManagedStore(Object object) {
@@ -134,6 +148,35 @@ public final class LLVMGlobal implements LLVMObjectNativeLibrary.Provider {
         return sourceSymbol != null ? sourceSymbol.getName() : name;
     }
 
+    /**
+     * Has to be called after the managed value of this global was changed. A reader that sees a
+     * single recorded write therefore also sees the value of that write.
+     */
+    public void notifyWrite() {
+        if (singleWrite.isValid()) {
+            CompilerDirectives.transferToInterpreter();
+            recordWrite();
+        }
+    }
+
+    private synchronized void recordWrite() {
+        if (++writeCount > 1) {
+            singleWrite.invalidate();
+        }
+    }
+
+    /**
+     * Returns an assumption under which the value in the slot of this global is constant, or an
+     * invalid assumption if the global was not written exactly once with a value of {@code kind}.
+     * Globals in native memory are never constant, since they can be written through any pointer.
+     */
+    synchronized Assumption getConstantAssumption(FrameSlotKind kind) {
+        if (writeCount == 1 && kind != FrameSlotKind.Object && slot.getKind() == kind) {
+            return singleWrite;
+        }
+        return NeverValidAssumption.INSTANCE;
+    }
+
     private void setFrame(LLVMContext context, Object object) {
         context.getGlobalFrame().setObject(slot, object);
     }
@@ -163,24 +206,22 @@ public final class LLVMGlobal implements LLVMObjectNativeLibrary.Provider {
             return context.getGlobalFrame();
         }
 
-        Assumption getSingleContextAssumption() {
-            return LLVMLanguage.SINGLE_CONTEXT_ASSUMPTION;
-        }
-
-        @Specialization(assumptions = "getSingleContextAssumption()", guards = {"global == cachedGlobal"})
-        boolean doCachedSingleThread(LLVMContext context, LLVMGlobal global,
+        @Specialization(guards = {"global == cachedGlobal", "context == cachedContext"})
+        boolean doCachedGlobal(LLVMContext context, LLVMGlobal global,
                         @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("context") LLVMContext cachedContext,
                         @Cached("getFrame(context)") MaterializedFrame frame) {
             return frame.getValue(cachedGlobal.slot) instanceof LLVMAddress;
         }
 
-        @Specialization(assumptions = "getSingleContextAssumption()", replaces = "doCachedSingleThread")
-        boolean doSingleThread(LLVMContext context, LLVMGlobal global,
+        @Specialization(guards = "context == cachedContext", replaces = "doCachedGlobal")
+        boolean doCachedContext(LLVMContext context, LLVMGlobal global,
+                        @Cached("context") LLVMContext cachedContext,
                         @Cached("getFrame(context)") MaterializedFrame frame) {
             return frame.getValue(global.slot) instanceof LLVMAddress;
         }
 
-        @Specialization(replaces = {"doCachedSingleThread", "doSingleThread"})
+        @Specialization(replaces = {"doCachedGlobal", "doCachedContext"})
         boolean generic(LLVMContext context, LLVMGlobal global) {
             return getFrame(context).getValue(global.slot) instanceof LLVMAddress;
         }
@@ -202,21 +243,21 @@ public final class LLVMGlobal implements LLVMObjectNativeLibrary.Provider {
             return context.getGlobalFrame();
         }
 
-        Assumption getSingleContextAsssumption() {
-            return LLVMLanguage.SINGLE_CONTEXT_ASSUMPTION;
-        }
-
-        @Specialization(assumptions = "getSingleContextAsssumption()", guards = {"global == cachedGlobal"})
-        long doCachedSingleThread(LLVMContext context, LLVMGlobal global, @Cached("global") LLVMGlobal cachedGlobal, @Cached("getValue(context, global)") long nativeValue) {
+        /*
+         * A global belongs to exactly one context and never leaves native memory again, so its
+         * address can be cached without checking the context.
+         */
+        @Specialization(guards = "global == cachedGlobal")
+        long doCachedGlobal(LLVMContext context, LLVMGlobal global, @Cached("global") LLVMGlobal cachedGlobal, @Cached("getValue(context, global)") long nativeValue) {
             return nativeValue;
         }
 
-        @Specialization(assumptions = "getSingleContextAsssumption()", replaces = "doCachedSingleThread")
-        long doSingleThread(LLVMContext context, LLVMGlobal global, @Cached("getFrame(context)") MaterializedFrame frame) {
+        @Specialization(guards = "context == cachedContext", replaces = "doCachedGlobal")
+        long doCachedContext(LLVMContext context, LLVMGlobal global, @Cached("context") LLVMContext cachedContext, @Cached("getFrame(context)") MaterializedFrame frame) {
             return ((LLVMAddress) frame.getValue(global.slot)).getVal();
         }
 
-        @Specialization(replaces = {"doCachedSingleThread", "doSingleThread"})
+        @Specialization(replaces = {"doCachedGlobal", "doCachedContext"})
         long generic(LLVMContext context, LLVMGlobal global) {
             return ((LLVMAddress) getFrame(context).getValue(global.slot)).getVal();
         }
@@ -234,17 +275,14 @@ public final class LLVMGlobal implements LLVMObjectNativeLibrary.Provider {
             return context.getGlobalFrame();
         }
 
-        Assumption getSingleContextAssumption() {
-            return LLVMLanguage.SINGLE_CONTEXT_ASSUMPTION;
-        }
-
-        @Specialization(assumptions = "getSingleContextAssumption()")
-        MaterializedFrame doSingleThread(LLVMContext context,
+        @Specialization(guards = "context == cachedContext")
+        MaterializedFrame doCachedContext(LLVMContext context,
+                        @Cached("context") LLVMContext cachedContext,
                         @Cached("getFrame(context)") MaterializedFrame frame) {
             return frame;
         }
 
-        @Specialization(replaces = {"doSingleThread"})
+        @Specialization(replaces = {"doCachedContext"})
         MaterializedFrame generic(LLVMContext context) {
             return getFrame(context);
         }
@@ -355,6 +393,7 @@ public final class LLVMGlobal implements LLVMObjectNativeLibrary.Provider {
         int byteSize = context.getByteSize(globalType);
         long a = context.getGlobalsStack().allocateStackMemory(byteSize);
         LLVMAddress n = LLVMAddress.fromLong(a);
+        singleWrite.invalidate();
         context.getGlobalFrame().setObject(slot, n);
 
         if (value == null) {
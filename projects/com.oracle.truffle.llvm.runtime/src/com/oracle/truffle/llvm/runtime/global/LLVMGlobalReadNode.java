@@ -29,11 +29,13 @@
  */
 package com.oracle.truffle.llvm.runtime.global;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
@@ -56,6 +58,8 @@ import com.oracle.truffle.llvm.runtime.nodes.api.LLVMNode;
 
 public abstract class LLVMGlobalReadNode extends LLVMNode {
 
+    private final FrameSlotKind kind;
+
     @CompilationFinal private ContextReference<LLVMContext> contextRef;
 
     @CompilationFinal private LLVMMemory memory;
@@ -80,13 +84,29 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
 
     @Child private IsNative isNativeNode = IsNative.create();
 
+    protected LLVMGlobalReadNode(FrameSlotKind kind) {
+        this.kind = kind;
+    }
+
     protected boolean isNative(LLVMGlobal global) {
         return isNativeNode.execute(getContext(), global);
     }
 
+    protected Assumption getConstantAssumption(LLVMGlobal global) {
+        return global.getConstantAssumption(kind);
+    }
+
+    protected Object getConstantValue(LLVMGlobal global) {
+        return getContext().getGlobalFrame().getValue(global.getSlot());
+    }
+
     public abstract static class ReadObjectNode extends LLVMGlobalReadNode {
         public abstract Object execute(LLVMGlobal global);
 
+        protected ReadObjectNode() {
+            super(FrameSlotKind.Object);
+        }
+
         public static ReadObjectNode create() {
             return ReadObjectNodeGen.create();
         }
@@ -112,10 +132,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadI1Node extends LLVMGlobalReadNode {
         public abstract boolean execute(LLVMGlobal global);
 
+        protected ReadI1Node() {
+            super(FrameSlotKind.Boolean);
+        }
+
         public static ReadI1Node create() {
             return ReadI1NodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected boolean doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (boolean) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected boolean doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -139,10 +170,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadI8Node extends LLVMGlobalReadNode {
         public abstract byte execute(LLVMGlobal global);
 
+        protected ReadI8Node() {
+            super(FrameSlotKind.Byte);
+        }
+
         public static ReadI8Node create() {
             return ReadI8NodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected byte doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (byte) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected byte doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -166,10 +208,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadI16Node extends LLVMGlobalReadNode {
         public abstract short execute(LLVMGlobal global);
 
+        protected ReadI16Node() {
+            super(FrameSlotKind.Int);
+        }
+
         public static ReadI16Node create() {
             return ReadI16NodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected short doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (short) (int) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected short doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -193,10 +246,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadI32Node extends LLVMGlobalReadNode {
         public abstract int execute(LLVMGlobal global);
 
+        protected ReadI32Node() {
+            super(FrameSlotKind.Int);
+        }
+
         public static ReadI32Node create() {
             return ReadI32NodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected int doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (int) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected int doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -220,10 +284,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadI64Node extends LLVMGlobalReadNode {
         public abstract long execute(LLVMGlobal global);
 
+        protected ReadI64Node() {
+            super(FrameSlotKind.Long);
+        }
+
         public static ReadI64Node create() {
             return ReadI64NodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected long doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (long) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected long doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -247,10 +322,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadFloatNode extends LLVMGlobalReadNode {
         public abstract float execute(LLVMGlobal global);
 
+        protected ReadFloatNode() {
+            super(FrameSlotKind.Float);
+        }
+
         public static ReadFloatNode create() {
             return ReadFloatNodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected float doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (float) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected float doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -274,10 +360,21 @@ public abstract class LLVMGlobalReadNode extends LLVMNode {
     public abstract static class ReadDoubleNode extends LLVMGlobalReadNode {
         public abstract double execute(LLVMGlobal global);
 
+        protected ReadDoubleNode() {
+            super(FrameSlotKind.Double);
+        }
+
         public static ReadDoubleNode create() {
             return ReadDoubleNodeGen.create();
         }
 
+        @Specialization(guards = "global == cachedGlobal", assumptions = "getConstantAssumption(cachedGlobal)")
+        protected double doConstant(LLVMGlobal global,
+                        @Cached("global") LLVMGlobal cachedGlobal,
+                        @Cached("getConstantValue(cachedGlobal)") Object value) {
+            return (double) value;
+        }
+
         @Specialization(guards = "!isNative(global)")
         protected double doFrame(LLVMGlobal global,
                         @Cached("create()") GetFrame getFrame,
@@ -98,52 +98,56 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                 } else {
                     frame.setBoolean(slot, (boolean) value);
                 }
-                return;
+                break;
             case I8:
                 if (isNative) {
                     memory.putI8(address, (byte) value);
                 } else {
                     frame.setByte(slot, (byte) value);
                 }
-                return;
+                break;
             case I16:
                 if (isNative) {
                     memory.putI16(address, (short) value);
                 } else {
                     frame.setInt(slot, (short) value);
                 }
-                return;
+                break;
             case I32:
                 if (isNative) {
                     memory.putI32(address, (int) value);
                 } else {
                     frame.setInt(slot, (int) value);
                 }
-                return;
+                break;
             case I64:
                 if (isNative) {
                     memory.putI64(address, (long) value);
                 } else {
                     frame.setLong(slot, (long) value);
                 }
-                return;
+                break;
             case FLOAT:
                 if (isNative) {
                     memory.putFloat(address, (float) value);
                 } else {
                     frame.setFloat(slot, (float) value);
                 }
-                return;
+                break;
             case DOUBLE:
                 if (isNative) {
                     memory.putDouble(address, (double) value);
                 } else {
                     frame.setDouble(slot, (double) value);
                 }
-                return;
+                break;
+            default:
+                CompilerDirectives.transferToInterpreter();
+                throw new IllegalStateException();
+        }
+        if (!isNative) {
+            global.notifyWrite();
         }
-        CompilerDirectives.transferToInterpreter();
-        throw new IllegalStateException();
     }
 
     public abstract static class WriteObjectNode extends LLVMGlobalWriteNode {
@@ -158,6 +162,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setObject(getSlot.execute(global), LLVMGlobal.toManagedStore(value));
+            global.notifyWrite();
             return value;
         }
 
@@ -182,6 +187,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setBoolean(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -205,6 +211,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setByte(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -228,6 +235,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setInt(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -251,6 +259,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setInt(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -274,6 +283,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setLong(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -297,6 +307,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setFloat(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -320,6 +331,7 @@ public abstract class LLVMGlobalWriteNode extends LLVMNode {
                         @Cached("create()") GetFrame getFrame,
                         @Cached("create()") GetSlot getSlot) {
             getFrame.execute(getContext()).setDouble(getSlot.execute(global), value);
+            global.notifyWrite();
             return value;
         }
 
@@ -39,6 +39,9 @@ import static com.oracle.truffle.llvm.runtime.nodes.api.LLVMNode.I64_SIZE_IN_BYT
 import static com.oracle.truffle.llvm.runtime.nodes.api.LLVMNode.I8_SIZE_IN_BYTES;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BinaryOperator;
 import java.util.function.IntBinaryOperator;
 import java.util.function.LongBinaryOperator;
@@ -77,22 +80,105 @@ public final class LLVMMemory {
 
     private static final Unsafe unsafe = getUnsafe();
 
-    private final Object freeListLock = new Object();
-    private FreeListNode freeList;
-
-    private final Object derefSpaceTopLock = new Object();
-    private long derefSpaceTop = DEREF_HANDLE_SPACE_START;
+    private final DerefHandleSlots derefHandleSlots = new DerefHandleSlots();
 
     private final Assumption noDerefHandleAssumption = Truffle.getRuntime().createAssumption("no deref handle assumption");
 
-    private static final class FreeListNode {
-        protected FreeListNode(long address, FreeListNode next) {
-            this.address = address;
-            this.next = next;
+    /**
+     * Lock-free allocator for the slots of the deref handle space. Slot {@code i} is the handle
+     * object at {@code DEREF_HANDLE_SPACE_START - i * DEREF_HANDLE_OBJECT_SIZE}. Freed slots are
+     * kept in a Treiber stack whose links are stored in int arrays indexed by slot number, so
+     * neither allocating nor freeing a slot allocates a Java object (apart from one link chunk per
+     * {@code CHUNK_SIZE} slots that are ever used). The upper half of {@link #head} is a
+     * modification counter that protects the stack against ABA.
+     */
+    private static final class DerefHandleSlots {
+        private static final int MAX_SLOTS = (int) ((DEREF_HANDLE_SPACE_START - DEREF_HANDLE_SPACE_END) / DEREF_HANDLE_OBJECT_SIZE);
+
+        private static final int CHUNK_SHIFT = 12;
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        /* a link holds the next free slot + 1, so 0 terminates the free list */
+        private static final int ALLOCATED = -1;
+
+        /* (modification count << 32) | (first free slot + 1) */
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicInteger top = new AtomicInteger();
+        private volatile int[][] links = new int[0][];
+
+        int allocate() {
+            while (true) {
+                long h = head.get();
+                int slot = (int) h - 1;
+                if (slot < 0) {
+                    return allocateFresh();
+                }
+                int[] chunk = getLinks(slot);
+                int next = chunk[slot & CHUNK_MASK];
+                if (head.compareAndSet(h, (((h >>> 32) + 1) << 32) | (next & 0xFFFFFFFFL))) {
+                    chunk[slot & CHUNK_MASK] = ALLOCATED;
+                    return slot;
+                }
+            }
+        }
+
+        private int allocateFresh() {
+            int slot = top.getAndIncrement();
+            if (slot < 0 || slot >= MAX_SLOTS) {
+                CompilerDirectives.transferToInterpreter();
+                throw new OutOfMemoryError();
+            }
+            getLinks(slot)[slot & CHUNK_MASK] = ALLOCATED;
+            return slot;
+        }
+
+        void free(int slot) {
+            int[] chunk = getLinks(slot);
+            while (true) {
+                long h = head.get();
+                chunk[slot & CHUNK_MASK] = (int) h;
+                if (head.compareAndSet(h, (((h >>> 32) + 1) << 32) | (slot + 1))) {
+                    return;
+                }
+            }
+        }
+
+        boolean isAllocated(int slot) {
+            return slot >= 0 && slot < top.get() && getLinks(slot)[slot & CHUNK_MASK] == ALLOCATED;
+        }
+
+        private int[] getLinks(int slot) {
+            int[][] current = links;
+            int index = slot >>> CHUNK_SHIFT;
+            if (index < current.length) {
+                return current[index];
+            }
+            return addLinks(index);
         }
 
-        private final long address;
-        private final FreeListNode next;
+        private synchronized int[] addLinks(int index) {
+            int[][] current = links;
+            if (index >= current.length) {
+                // copy on write, so that published chunk arrays never change
+                int[][] grown = Arrays.copyOf(current, index + 1);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new int[CHUNK_SIZE];
+                }
+                links = grown;
+                return grown[index];
+            }
+            return current[index];
+        }
+
+        static long toAddress(int slot) {
+            return DEREF_HANDLE_SPACE_START - slot * DEREF_HANDLE_OBJECT_SIZE;
+        }
+
+        static int toSlot(long address) {
+            // We need to mask because we allow creating handles with an offset.
+            return (int) ((DEREF_HANDLE_SPACE_START - (address & ~DEREF_HANDLE_OBJECT_MASK)) / DEREF_HANDLE_OBJECT_SIZE);
+        }
     }
 
     private static Unsafe getUnsafe() {
@@ -144,11 +230,9 @@ public final class LLVMMemory {
 
     public void free(long address) {
         if (address <= DEREF_HANDLE_SPACE_START && address > DEREF_HANDLE_SPACE_END) {
-            assert isAllocated(address) : "double-free of " + Long.toHexString(address);
-            synchronized (freeListLock) {
-                // We need to mask because we allow creating handles with an offset.
-                freeList = new FreeListNode(address & ~DEREF_HANDLE_OBJECT_MASK, freeList);
-            }
+            int slot = DerefHandleSlots.toSlot(address);
+            assert derefHandleSlots.isAllocated(slot) : "double-free of " + Long.toHexString(address);
+            derefHandleSlots.free(slot);
         } else {
             try {
                 unsafe.freeMemory(address);
@@ -160,6 +244,18 @@ public final class LLVMMemory {
         }
     }
 
+    /**
+     * Like {@link #free(long)}, but returns blocks of {@code slabAllocator} to it. The slab
+     * allocator may be {@code null}.
+     */
+    public void free(LLVMSlabAllocator slabAllocator, long address) {
+        if (slabAllocator != null && slabAllocator.owns(address)) {
+            slabAllocator.free(address);
+        } else {
+            free(address);
+        }
+    }
+
     public LLVMAddress allocateMemory(long size) {
         try {
             return LLVMAddress.fromLong(unsafe.allocateMemory(size));
@@ -170,6 +266,20 @@ public final class LLVMMemory {
         }
     }
 
+    /**
+     * Like {@link #allocateMemory(long)}, but serves small sizes from {@code slabAllocator} if it is
+     * not {@code null}.
+     */
+    public LLVMAddress allocateMemory(LLVMSlabAllocator slabAllocator, long size) {
+        if (slabAllocator != null && LLVMSlabAllocator.isSmallObject(size)) {
+            long address = slabAllocator.allocate(size);
+            if (address != 0) {
+                return LLVMAddress.fromLong(address);
+            }
+        }
+        return allocateMemory(size);
+    }
+
     public LLVMAddress reallocateMemory(LLVMAddress addr, long size) {
         // a null pointer is a valid argument
         try {
@@ -182,30 +292,38 @@ public final class LLVMMemory {
     }
 
     /**
-     * Allocates {@code #OBJECT_SIZE} bytes in the Kernel space.
+     * Like {@link #reallocateMemory(LLVMAddress, long)}, but also handles blocks of
+     * {@code slabAllocator}, which may be {@code null}.
      */
-    public LLVMAddress allocateDerefMemory() {
-        noDerefHandleAssumption.invalidate();
-
-        // preferably consume from free list
-        synchronized (freeListLock) {
-            if (freeList != null) {
-                FreeListNode n = freeList;
-                freeList = n.next;
-                return LLVMAddress.fromLong(n.address);
-            }
+    public LLVMAddress reallocateMemory(LLVMSlabAllocator slabAllocator, LLVMAddress addr, long size) {
+        if (slabAllocator != null && slabAllocator.owns(addr.getVal())) {
+            return reallocateSlabMemory(slabAllocator, addr.getVal(), size);
         }
+        return reallocateMemory(addr, size);
+    }
 
-        synchronized (derefSpaceTopLock) {
-            LLVMAddress addr = LLVMAddress.fromLong(derefSpaceTop);
-            assert derefSpaceTop > 0L;
-            derefSpaceTop -= DEREF_HANDLE_OBJECT_SIZE;
-            if (derefSpaceTop < DEREF_HANDLE_SPACE_END) {
-                CompilerDirectives.transferToInterpreter();
-                throw new OutOfMemoryError();
-            }
-            return addr;
+    private LLVMAddress reallocateSlabMemory(LLVMSlabAllocator slabAllocator, long address, long size) {
+        long blockSize = slabAllocator.getBlockSize(address);
+        if (size <= 0) {
+            slabAllocator.free(address);
+            return LLVMAddress.nullPointer();
+        } else if (size <= blockSize) {
+            return LLVMAddress.fromLong(address);
         }
+        LLVMAddress newAddress = allocateMemory(slabAllocator, size);
+        unsafe.copyMemory(address, newAddress.getVal(), blockSize);
+        slabAllocator.free(address);
+        return newAddress;
+    }
+
+    /**
+     * Allocates {@code #OBJECT_SIZE} bytes in the Kernel space.
+     */
+    public LLVMAddress allocateDerefMemory() {
+        if (noDerefHandleAssumption.isValid()) {
+            noDerefHandleAssumption.invalidate();
+        }
+        return LLVMAddress.fromLong(DerefHandleSlots.toAddress(derefHandleSlots.allocate()));
     }
 
     public boolean getI1(LLVMAddress addr) {
@@ -414,10 +532,19 @@ public final class LLVMMemory {
         unsafe.putAddress(ptr, ptrValue);
     }
 
+    /*
+     * Vector loads and stores are a single bulk copy in the interpreter. Compiled code accesses
+     * each lane individually, so that vectors which do not escape can be scalar-replaced.
+     */
     @ExplodeLoop
     public LLVMI32Vector getI32Vector(LLVMAddress address, int vectorLength) {
         int[] vector = new int[vectorLength];
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(null, currentPtr, vector, Unsafe.ARRAY_INT_BASE_OFFSET, vectorLength * I32_SIZE_IN_BYTES);
+            return LLVMI32Vector.create(vector);
+        }
         for (int i = 0; i < vectorLength; i++) {
             vector[i] = getI32(currentPtr);
             currentPtr += I32_SIZE_IN_BYTES;
@@ -429,6 +556,11 @@ public final class LLVMMemory {
     public LLVMI8Vector getI8Vector(LLVMAddress address, int vectorLength) {
         byte[] vector = new byte[vectorLength];
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(null, currentPtr, vector, Unsafe.ARRAY_BYTE_BASE_OFFSET, vectorLength * I8_SIZE_IN_BYTES);
+            return LLVMI8Vector.create(vector);
+        }
         for (int i = 0; i < vectorLength; i++) {
             vector[i] = getI8(currentPtr);
             currentPtr += I8_SIZE_IN_BYTES;
@@ -451,6 +583,11 @@ public final class LLVMMemory {
     public LLVMI16Vector getI16Vector(LLVMAddress address, int vectorLength) {
         short[] vector = new short[vectorLength];
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(null, currentPtr, vector, Unsafe.ARRAY_SHORT_BASE_OFFSET, vectorLength * I16_SIZE_IN_BYTES);
+            return LLVMI16Vector.create(vector);
+        }
         for (int i = 0; i < vectorLength; i++) {
             vector[i] = getI16(currentPtr);
             currentPtr += I16_SIZE_IN_BYTES;
@@ -462,6 +599,11 @@ public final class LLVMMemory {
     public LLVMI64Vector getI64Vector(LLVMAddress address, int vectorLength) {
         long[] vector = new long[vectorLength];
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(null, currentPtr, vector, Unsafe.ARRAY_LONG_BASE_OFFSET, vectorLength * I64_SIZE_IN_BYTES);
+            return LLVMI64Vector.create(vector);
+        }
         for (int i = 0; i < vectorLength; i++) {
             vector[i] = getI64(currentPtr);
             currentPtr += I64_SIZE_IN_BYTES;
@@ -473,6 +615,11 @@ public final class LLVMMemory {
     public LLVMFloatVector getFloatVector(LLVMAddress address, int vectorLength) {
         float[] vector = new float[vectorLength];
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(null, currentPtr, vector, Unsafe.ARRAY_FLOAT_BASE_OFFSET, vectorLength * FLOAT_SIZE_IN_BYTES);
+            return LLVMFloatVector.create(vector);
+        }
         for (int i = 0; i < vectorLength; i++) {
             vector[i] = getFloat(currentPtr);
             currentPtr += FLOAT_SIZE_IN_BYTES;
@@ -484,6 +631,11 @@ public final class LLVMMemory {
     public LLVMDoubleVector getDoubleVector(LLVMAddress address, int vectorLength) {
         double[] vector = new double[vectorLength];
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(null, currentPtr, vector, Unsafe.ARRAY_DOUBLE_BASE_OFFSET, vectorLength * DOUBLE_SIZE_IN_BYTES);
+            return LLVMDoubleVector.create(vector);
+        }
         for (int i = 0; i < vectorLength; i++) {
             vector[i] = getDouble(currentPtr);
             currentPtr += DOUBLE_SIZE_IN_BYTES;
@@ -519,6 +671,11 @@ public final class LLVMMemory {
     public void putVector(LLVMAddress address, LLVMDoubleVector vector, int vectorLength) {
         assert vector.getLength() == vectorLength;
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(vector.getValues(), Unsafe.ARRAY_DOUBLE_BASE_OFFSET, null, currentPtr, vectorLength * DOUBLE_SIZE_IN_BYTES);
+            return;
+        }
         for (int i = 0; i < vectorLength; i++) {
             putDouble(currentPtr, vector.getValue(i));
             currentPtr += DOUBLE_SIZE_IN_BYTES;
@@ -529,6 +686,11 @@ public final class LLVMMemory {
     public void putVector(LLVMAddress address, LLVMFloatVector vector, int vectorLength) {
         assert vector.getLength() == vectorLength;
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(vector.getValues(), Unsafe.ARRAY_FLOAT_BASE_OFFSET, null, currentPtr, vectorLength * FLOAT_SIZE_IN_BYTES);
+            return;
+        }
         for (int i = 0; i < vectorLength; i++) {
             putFloat(currentPtr, vector.getValue(i));
             currentPtr += FLOAT_SIZE_IN_BYTES;
@@ -539,6 +701,11 @@ public final class LLVMMemory {
     public void putVector(LLVMAddress address, LLVMI16Vector vector, int vectorLength) {
         assert vector.getLength() == vectorLength;
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(vector.getValues(), Unsafe.ARRAY_SHORT_BASE_OFFSET, null, currentPtr, vectorLength * I16_SIZE_IN_BYTES);
+            return;
+        }
         for (int i = 0; i < vectorLength; i++) {
             putI16(currentPtr, vector.getValue(i));
             currentPtr += I16_SIZE_IN_BYTES;
@@ -559,6 +726,11 @@ public final class LLVMMemory {
     public void putVector(LLVMAddress address, LLVMI32Vector vector, int vectorLength) {
         assert vector.getLength() == vectorLength;
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(vector.getValues(), Unsafe.ARRAY_INT_BASE_OFFSET, null, currentPtr, vectorLength * I32_SIZE_IN_BYTES);
+            return;
+        }
         for (int i = 0; i < vectorLength; i++) {
             putI32(currentPtr, vector.getValue(i));
             currentPtr += I32_SIZE_IN_BYTES;
@@ -569,6 +741,11 @@ public final class LLVMMemory {
     public void putVector(LLVMAddress address, LLVMI64Vector vector, int vectorLength) {
         assert vector.getLength() == vectorLength;
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(vector.getValues(), Unsafe.ARRAY_LONG_BASE_OFFSET, null, currentPtr, vectorLength * I64_SIZE_IN_BYTES);
+            return;
+        }
         for (int i = 0; i < vectorLength; i++) {
             putI64(currentPtr, vector.getValue(i));
             currentPtr += I64_SIZE_IN_BYTES;
@@ -579,6 +756,11 @@ public final class LLVMMemory {
     public void putVector(LLVMAddress address, LLVMI8Vector vector, int vectorLength) {
         assert vector.getLength() == vectorLength;
         long currentPtr = address.getVal();
+        if (CompilerDirectives.inInterpreter()) {
+            assert currentPtr != 0;
+            unsafe.copyMemory(vector.getValues(), Unsafe.ARRAY_BYTE_BASE_OFFSET, null, currentPtr, vectorLength * I8_SIZE_IN_BYTES);
+            return;
+        }
         for (int i = 0; i < vectorLength; i++) {
             putI8(currentPtr, vector.getValue(i));
             currentPtr += I8_SIZE_IN_BYTES;
@@ -896,28 +1078,15 @@ public final class LLVMMemory {
     }
 
     public boolean isDerefMemory(LLVMAddress addr) {
-        return !noDerefHandleAssumption.isValid() && addr.getVal() > DEREF_HANDLE_SPACE_END;
+        return isDerefMemory(addr.getVal());
     }
 
-    public static long getDerefHandleObjectMask() {
-        return DEREF_HANDLE_OBJECT_SIZE - 1;
+    public boolean isDerefMemory(long addr) {
+        return !noDerefHandleAssumption.isValid() && addr > DEREF_HANDLE_SPACE_END;
     }
 
-    private boolean isAllocated(long address) {
-        synchronized (derefSpaceTopLock) {
-            if (address <= derefSpaceTop) {
-                return false;
-            }
-        }
-
-        synchronized (freeListLock) {
-            for (FreeListNode cur = freeList; cur != null; cur = cur.next) {
-                if (cur.address == address) {
-                    return false;
-                }
-            }
-        }
-        return true;
+    public static long getDerefHandleObjectMask() {
+        return DEREF_HANDLE_OBJECT_SIZE - 1;
     }
 
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Keeps track of the memory regions that the program has mapped with {@code mmap}.
+ *
+ * Regions are page aligned and stored as disjoint, non-adjacent {@code [start, end)} ranges, so
+ * partial unmappings simply split a range. Only memory that is tracked here may be unmapped or
+ * replaced with a fixed mapping on behalf of the program; everything else belongs to the host
+ * process.
+ */
+public final class LLVMMemoryMappings {
+
+    public static final long PAGE_SIZE = 4096;
+
+    private final TreeMap<Long, Long> regions = new TreeMap<>();
+
+    public static boolean isPageAligned(long address) {
+        return (address & (PAGE_SIZE - 1)) == 0;
+    }
+
+    public static long roundUpToPage(long length) {
+        return (length + PAGE_SIZE - 1) & -PAGE_SIZE;
+    }
+
+    @TruffleBoundary
+    public synchronized void add(long start, long length) {
+        assert isPageAligned(start) && length > 0;
+        long newStart = start;
+        long newEnd = start + roundUpToPage(length);
+        Map.Entry<Long, Long> previous = regions.floorEntry(newStart);
+        if (previous != null && previous.getValue() >= newStart) {
+            newStart = previous.getKey();
+            newEnd = Math.max(newEnd, previous.getValue());
+        }
+        Map.Entry<Long, Long> next = regions.ceilingEntry(newStart);
+        while (next != null && next.getKey() <= newEnd) {
+            newEnd = Math.max(newEnd, next.getValue());
+            regions.remove(next.getKey());
+            next = regions.ceilingEntry(newStart);
+        }
+        regions.put(newStart, newEnd);
+    }
+
+    /**
+     * @return {@code true} if every page of the range is mapped by the program
+     */
+    @TruffleBoundary
+    public synchronized boolean contains(long start, long length) {
+        Map.Entry<Long, Long> region = regions.floorEntry(start);
+        return region != null && region.getValue() >= start + roundUpToPage(length);
+    }
+
+    /**
+     * Removes the range from the tracked regions.
+     *
+     * @return the {@code [start, end)} pairs of the parts of the range that were mapped and have to
+     *         be unmapped
+     */
+    @TruffleBoundary
+    public synchronized List<long[]> remove(long start, long length) {
+        long end = start + roundUpToPage(length);
+        List<long[]> removed = new ArrayList<>();
+        Map.Entry<Long, Long> region = regions.lowerEntry(end);
+        while (region != null && region.getValue() > start) {
+            long regionStart = region.getKey();
+            long regionEnd = region.getValue();
+            regions.remove(regionStart);
+            if (regionStart < start) {
+                regions.put(regionStart, start);
+            }
+            if (regionEnd > end) {
+                regions.put(end, regionEnd);
+            }
+            removed.add(new long[]{Math.max(regionStart, start), Math.min(regionEnd, end)});
+            region = regions.lowerEntry(Math.max(regionStart, start));
+        }
+        return removed;
+    }
+
+    @TruffleBoundary
+    public synchronized List<long[]> removeAll() {
+        List<long[]> removed = new ArrayList<>();
+        for (Map.Entry<Long, Long> region : regions.entrySet()) {
+            removed.add(new long[]{region.getKey(), region.getValue()});
+        }
+        regions.clear();
+        return removed;
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.memory;
+
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import sun.misc.Unsafe;
+
+/**
+ * Size-class allocator for small native objects.
+ *
+ * The allocator reserves one contiguous arena up front and hands it out in pages. Each page
+ * belongs to exactly one size class, so the size of a block can be derived from its address
+ * alone. Freed blocks are kept in intrusive singly linked lists (the first word of a free block
+ * holds the address of the next one): first in a per-thread cache, and in batches in a central
+ * list per size class once a thread cache grows too large. Pages are carved lazily, so reserved
+ * but untouched parts of the arena do not become resident.
+ *
+ * Blocks are never returned to the operating system before {@link #dispose()}. Blocks cached by a
+ * thread that terminates are lost, but their number is bounded by the thread cache limit.
+ */
+public final class LLVMSlabAllocator {
+
+    /* must be a power of 2; this is also the alignment of all blocks */
+    public static final int MIN_BLOCK_SIZE = 16;
+    public static final int MAX_BLOCK_SIZE = 256;
+
+    private static final int SIZE_CLASSES = MAX_BLOCK_SIZE / MIN_BLOCK_SIZE;
+    private static final int SIZE_CLASS_SHIFT = Integer.numberOfTrailingZeros(MIN_BLOCK_SIZE);
+
+    private static final int PAGE_SHIFT = 16;
+    private static final long PAGE_SIZE = 1L << PAGE_SHIFT;
+
+    private static final int THREAD_CACHE_LIMIT = 512;
+    private static final int TRANSFER_BATCH_SIZE = 128;
+
+    private static final Unsafe unsafe = getUnsafe();
+
+    private final long reservation;
+    private final long arenaStart;
+    private final long arenaEnd;
+    private final AtomicLong pageTop;
+    /*
+     * A block can be freed by another thread than the one that carved its page, so the size class
+     * of a page is published with a volatile write.
+     */
+    private final AtomicIntegerArray pageSizeClasses;
+
+    private final CentralFreeList[] centralFreeLists;
+    private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder frees = new LongAdder();
+    private final LongAdder centralTransfers = new LongAdder();
+
+    private static Unsafe getUnsafe() {
+        CompilerAsserts.neverPartOfCompilation();
+        try {
+            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return (Unsafe) theUnsafe.get(null);
+        } catch (Exception e) {
+            throw new AssertionError();
+        }
+    }
+
+    private static final class CentralFreeList {
+        private long head;
+        private int count;
+    }
+
+    private static final class ThreadCache {
+        private final long[] freeLists = new long[SIZE_CLASSES];
+        private final int[] freeCounts = new int[SIZE_CLASSES];
+        private final long[] bumpPointers = new long[SIZE_CLASSES];
+        private final long[] bumpLimits = new long[SIZE_CLASSES];
+    }
+
+    /**
+     * @param arenaSize the number of bytes to reserve for small objects, rounded up to the page
+     *            size
+     */
+    public LLVMSlabAllocator(long arenaSize) {
+        long pages = (arenaSize + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        if (pages <= 0 || pages > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid arena size: " + arenaSize);
+        }
+        // reserve one extra page so that the arena can be aligned to the page size
+        this.reservation = unsafe.allocateMemory((pages + 1) << PAGE_SHIFT);
+        this.arenaStart = (reservation + PAGE_SIZE - 1) & -PAGE_SIZE;
+        this.arenaEnd = arenaStart + (pages << PAGE_SHIFT);
+        this.pageTop = new AtomicLong(arenaStart);
+        this.pageSizeClasses = new AtomicIntegerArray((int) pages);
+        this.centralFreeLists = new CentralFreeList[SIZE_CLASSES];
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            centralFreeLists[i] = new CentralFreeList();
+        }
+    }
+
+    public static boolean isSmallObject(long size) {
+        return size > 0 && size <= MAX_BLOCK_SIZE;
+    }
+
+    public boolean owns(long address) {
+        return address >= arenaStart && address < arenaEnd;
+    }
+
+    public long getBlockSize(long address) {
+        assert owns(address);
+        return (pageSizeClasses.get((int) ((address - arenaStart) >>> PAGE_SHIFT)) + 1L) << SIZE_CLASS_SHIFT;
+    }
+
+    private static int getSizeClass(long size) {
+        assert isSmallObject(size);
+        return (int) ((size - 1) >>> SIZE_CLASS_SHIFT);
+    }
+
+    /**
+     * Allocates a block of at least {@code size} bytes.
+     *
+     * @return the address of the block, or {@code 0} if the size is not a small object size or
+     *         the arena is exhausted
+     */
+    @TruffleBoundary
+    public long allocate(long size) {
+        if (!isSmallObject(size)) {
+            return 0;
+        }
+        int sizeClass = getSizeClass(size);
+        ThreadCache cache = threadCaches.get();
+
+        long block = cache.freeLists[sizeClass];
+        if (block == 0 && refillFromCentral(cache, sizeClass)) {
+            block = cache.freeLists[sizeClass];
+        }
+        if (block != 0) {
+            cache.freeLists[sizeClass] = unsafe.getLong(block);
+            cache.freeCounts[sizeClass]--;
+        } else {
+            block = allocateFromPage(cache, sizeClass);
+            if (block == 0) {
+                return 0;
+            }
+        }
+        allocations.increment();
+        return block;
+    }
+
+    @TruffleBoundary
+    public void free(long address) {
+        assert owns(address);
+        assert (address & (MIN_BLOCK_SIZE - 1)) == 0 : "free of an interior pointer " + Long.toHexString(address);
+        int sizeClass = pageSizeClasses.get((int) ((address - arenaStart) >>> PAGE_SHIFT));
+        ThreadCache cache = threadCaches.get();
+
+        unsafe.putLong(address, cache.freeLists[sizeClass]);
+        cache.freeLists[sizeClass] = address;
+        if (++cache.freeCounts[sizeClass] > THREAD_CACHE_LIMIT) {
+            releaseToCentral(cache, sizeClass);
+        }
+        frees.increment();
+    }
+
+    private long allocateFromPage(ThreadCache cache, int sizeClass) {
+        long blockSize = ((long) sizeClass + 1) << SIZE_CLASS_SHIFT;
+        long block = cache.bumpPointers[sizeClass];
+        if (block == 0 || block + blockSize > cache.bumpLimits[sizeClass]) {
+            long page = pageTop.getAndAdd(PAGE_SIZE);
+            if (page + PAGE_SIZE > arenaEnd) {
+                return 0;
+            }
+            pageSizeClasses.set((int) ((page - arenaStart) >>> PAGE_SHIFT), sizeClass);
+            block = page;
+            cache.bumpLimits[sizeClass] = page + PAGE_SIZE;
+        }
+        cache.bumpPointers[sizeClass] = block + blockSize;
+        return block;
+    }
+
+    private boolean refillFromCentral(ThreadCache cache, int sizeClass) {
+        CentralFreeList central = centralFreeLists[sizeClass];
+        synchronized (central) {
+            if (central.head == 0) {
+                return false;
+            }
+            long first = central.head;
+            long last = first;
+            int n = 1;
+            while (n < TRANSFER_BATCH_SIZE && unsafe.getLong(last) != 0) {
+                last = unsafe.getLong(last);
+                n++;
+            }
+            central.head = unsafe.getLong(last);
+            central.count -= n;
+            unsafe.putLong(last, 0);
+            cache.freeLists[sizeClass] = first;
+            cache.freeCounts[sizeClass] = n;
+        }
+        centralTransfers.increment();
+        return true;
+    }
+
+    private void releaseToCentral(ThreadCache cache, int sizeClass) {
+        long first = cache.freeLists[sizeClass];
+        long last = first;
+        for (int i = 1; i < TRANSFER_BATCH_SIZE; i++) {
+            last = unsafe.getLong(last);
+        }
+        cache.freeLists[sizeClass] = unsafe.getLong(last);
+        cache.freeCounts[sizeClass] -= TRANSFER_BATCH_SIZE;
+
+        CentralFreeList central = centralFreeLists[sizeClass];
+        synchronized (central) {
+            unsafe.putLong(last, central.head);
+            central.head = first;
+            central.count += TRANSFER_BATCH_SIZE;
+        }
+        centralTransfers.increment();
+    }
+
+    public long getAllocationCount() {
+        return allocations.sum();
+    }
+
+    public long getFreeCount() {
+        return frees.sum();
+    }
+
+    public long getReservedPageCount() {
+        return (Math.min(pageTop.get(), arenaEnd) - arenaStart) >>> PAGE_SHIFT;
+    }
+
+    @TruffleBoundary
+    public void printStatistics(PrintStream stream) {
+        long pages = getReservedPageCount();
+        stream.println(String.format("Slab allocator: %d allocations, %d frees, %d central transfers", getAllocationCount(), getFreeCount(), centralTransfers.sum()));
+        stream.println(String.format("Slab allocator: %d of %d pages (%d KB) in use", pages, pageSizeClasses.length(), (pages << PAGE_SHIFT) / 1024));
+        int[] pagesPerClass = new int[SIZE_CLASSES];
+        for (int i = 0; i < pages; i++) {
+            pagesPerClass[pageSizeClasses.get(i)]++;
+        }
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            if (pagesPerClass[i] != 0) {
+                stream.println(String.format("Size class %d bytes \t pages: %d", (i + 1) << SIZE_CLASS_SHIFT, pagesPerClass[i]));
+            }
+        }
+    }
+
+    /**
+     * Releases the whole arena. No block of this allocator must be used afterwards.
+     */
+    public void dispose() {
+        unsafe.freeMemory(reservation);
+    }
+}
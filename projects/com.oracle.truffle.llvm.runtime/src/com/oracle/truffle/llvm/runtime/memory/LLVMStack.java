@@ -29,6 +29,7 @@
  */
 package com.oracle.truffle.llvm.runtime.memory;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameUtil;
@@ -43,20 +44,28 @@ public final class LLVMStack {
     public static final String FRAME_ID = "<stackpointer>";
 
     private final int stackSize;
+    private final LLVMThreadingStack.StackPool stackPool;
 
     private long lowerBounds;
     private long upperBounds;
     private boolean isAllocated;
+    private boolean isFreed;
 
     private long stackPointer;
 
     public LLVMStack(int stackSize) {
+        this(stackSize, null);
+    }
+
+    LLVMStack(int stackSize, LLVMThreadingStack.StackPool stackPool) {
         this.stackSize = stackSize;
+        this.stackPool = stackPool;
 
         lowerBounds = 0;
         upperBounds = 0;
         stackPointer = 0;
         isAllocated = false;
+        isFreed = false;
     }
 
     public final class StackPointer implements AutoCloseable {
@@ -79,6 +88,14 @@ public final class LLVMStack {
             stackPointer = sp;
         }
 
+        long getLowerBounds() {
+            return lowerBounds;
+        }
+
+        int getStackSize() {
+            return stackSize;
+        }
+
         @Override
         public void close() {
             if (basePointer != 0) {
@@ -93,9 +110,9 @@ public final class LLVMStack {
 
     @TruffleBoundary
     private void allocate(LLVMMemory memory) {
-        final long stackAllocation = memory.allocateMemory(stackSize * 1024).getVal();
+        final long stackAllocation = stackPool != null ? stackPool.allocate(memory) : memory.allocateMemory(stackSize * 1024L).getVal();
         lowerBounds = stackAllocation;
-        upperBounds = stackAllocation + stackSize * 1024;
+        upperBounds = stackAllocation + stackSize * 1024L;
         isAllocated = true;
         stackPointer = upperBounds;
     }
@@ -117,12 +134,25 @@ public final class LLVMStack {
             /*
              * It can be that the stack was never allocated.
              */
-            memory.free(lowerBounds);
+            if (stackPool != null) {
+                stackPool.release(memory, lowerBounds);
+            } else {
+                memory.free(lowerBounds);
+            }
             lowerBounds = 0;
             upperBounds = 0;
             stackPointer = 0;
             isAllocated = false;
         }
+        isFreed = true;
+    }
+
+    /**
+     * Returns whether {@link #free} was called. A freed stack would be allocated again on its next
+     * use, but it is no longer owned by a {@link LLVMThreadingStack}.
+     */
+    public boolean isFreed() {
+        return isFreed;
     }
 
     public static final int NO_ALIGNMENT_REQUIREMENTS = 1;
@@ -134,6 +164,14 @@ public final class LLVMStack {
         long stackPointer = basePointer.get(memory);
         assert stackPointer != 0;
         final long alignedAllocation = (stackPointer - size) & -alignment;
+        /*
+         * A signed comparison also catches a wrap-around of the subtraction, because stacks never
+         * live at the top of the address space.
+         */
+        if (alignedAllocation < basePointer.getLowerBounds()) {
+            CompilerDirectives.transferToInterpreter();
+            throw LLVMStackOverflowError.create(size, basePointer.getStackSize());
+        }
         assert alignedAllocation <= stackPointer;
         basePointer.set(alignedAllocation);
         return alignedAllocation;
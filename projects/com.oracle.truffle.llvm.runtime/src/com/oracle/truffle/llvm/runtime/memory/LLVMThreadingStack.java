@@ -29,24 +29,115 @@
  */
 package com.oracle.truffle.llvm.runtime.memory;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 /**
  * Holds the (lazily allocated) stacks of all threads that are active in one particular LLVMContext.
+ *
+ * The stack of the current thread is found through a thread local, which avoids a map lookup and
+ * is safe to use from any thread. The map of all stacks is only needed to free them.
  */
 public final class LLVMThreadingStack {
-    // we are not able to clean up a thread local properly, so we are using a map instead
+    // we are not able to clean up a thread local properly, so all stacks are also kept in a map
     private final Map<Thread, LLVMStack> threadMap;
+    private final ThreadLocal<LLVMStack> currentStack;
+    private final StackPool stackPool;
     private final int stackSize;
     private final Thread mainThread;
 
+    /**
+     * Provides the native memory of stacks, if they should not be allocated with malloc.
+     */
+    public interface StackAllocator {
+
+        /**
+         * @return the lowest address of a stack of {@code size} bytes, or {@code 0} if no stack
+         *         could be allocated
+         */
+        long allocate(long size);
+
+        void free(long stack, long size);
+    }
+
+    /**
+     * Keeps the native memory of freed stacks, so that short-lived threads do not need to
+     * allocate and free a whole stack each time.
+     */
+    static final class StackPool {
+        private static final int MAX_POOLED_STACKS = Runtime.getRuntime().availableProcessors();
+
+        private final ArrayDeque<Long> freeStacks = new ArrayDeque<>();
+        private final long stackSizeInBytes;
+        private final StackAllocator allocator;
+
+        StackPool(long stackSizeInBytes, StackAllocator allocator) {
+            this.stackSizeInBytes = stackSizeInBytes;
+            this.allocator = allocator;
+        }
+
+        long getStackSizeInBytes() {
+            return stackSizeInBytes;
+        }
+
+        synchronized long allocate(LLVMMemory memory) {
+            Long stack = freeStacks.pollFirst();
+            if (stack != null) {
+                return stack;
+            }
+            if (allocator == null) {
+                return memory.allocateMemory(stackSizeInBytes).getVal();
+            }
+            long allocation = allocator.allocate(stackSizeInBytes);
+            if (allocation == 0) {
+                throw new OutOfMemoryError("could not reserve a stack of " + stackSizeInBytes + " bytes");
+            }
+            return allocation;
+        }
+
+        void release(LLVMMemory memory, long stack) {
+            synchronized (this) {
+                if (freeStacks.size() < MAX_POOLED_STACKS) {
+                    freeStacks.addFirst(stack);
+                    return;
+                }
+            }
+            free(memory, stack);
+        }
+
+        synchronized void dispose(LLVMMemory memory) {
+            for (Long stack : freeStacks) {
+                free(memory, stack);
+            }
+            freeStacks.clear();
+        }
+
+        private void free(LLVMMemory memory, long stack) {
+            if (allocator == null) {
+                memory.free(stack);
+            } else {
+                allocator.free(stack, stackSizeInBytes);
+            }
+        }
+    }
+
     public LLVMThreadingStack(Thread mainTread, int stackSize) {
+        this(mainTread, stackSize, null);
+    }
+
+    /**
+     * @param allocator provides the memory of the stacks, or {@code null} to allocate them with
+     *            {@link LLVMMemory#allocateMemory}
+     */
+    public LLVMThreadingStack(Thread mainTread, int stackSize, StackAllocator allocator) {
         this.mainThread = mainTread;
         this.stackSize = stackSize;
-        this.threadMap = new HashMap<>();
+        this.threadMap = new ConcurrentHashMap<>();
+        this.currentStack = new ThreadLocal<>();
+        this.stackPool = new StackPool(stackSize * 1024L, allocator);
     }
 
     public LLVMStack getStack() {
@@ -59,13 +150,18 @@ public final class LLVMThreadingStack {
 
     @TruffleBoundary
     private LLVMStack getCurrentStack() {
-        return threadMap.get(Thread.currentThread());
+        LLVMStack s = currentStack.get();
+        if (s != null && !s.isFreed()) {
+            return s;
+        }
+        return null;
     }
 
     @TruffleBoundary
-    private synchronized LLVMStack createNewStack() {
-        LLVMStack s = new LLVMStack(stackSize);
+    private LLVMStack createNewStack() {
+        LLVMStack s = new LLVMStack(stackSize, stackPool);
         threadMap.put(Thread.currentThread(), s);
+        currentStack.set(s);
         return s;
     }
 
@@ -83,13 +179,17 @@ public final class LLVMThreadingStack {
     @TruffleBoundary
     public void freeMainStack(LLVMMemory memory) {
         free(memory, mainThread);
+        // the context is disposed, so stacks of threads that were never disposed are unused
+        for (Thread thread : threadMap.keySet()) {
+            free(memory, thread);
+        }
+        stackPool.dispose(memory);
     }
 
-    private synchronized void free(LLVMMemory memory, Thread thread) {
-        LLVMStack s = threadMap.get(thread);
+    private void free(LLVMMemory memory, Thread thread) {
+        LLVMStack s = threadMap.remove(thread);
         if (s != null) {
             s.free(memory);
-            threadMap.remove(thread);
         }
     }
 }
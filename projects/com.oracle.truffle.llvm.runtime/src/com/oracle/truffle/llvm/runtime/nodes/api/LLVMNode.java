@@ -38,7 +38,9 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.LLVMNativeCallStatistics;
 import com.oracle.truffle.llvm.runtime.debug.scope.LLVMSourceLocation;
 import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
 import com.oracle.truffle.llvm.runtime.memory.UnsafeArrayAccess;
@@ -97,8 +99,13 @@ public abstract class LLVMNode extends Node {
         return SulongEngineOption.getStream(context.get().getEnv().getOptions().get(SulongEngineOption.NATIVE_CALL_STATS));
     }
 
-    protected static boolean nativeCallStatisticsEnabled(ContextReference<LLVMContext> context) {
-        return SulongEngineOption.isTrue(context.get().getEnv().getOptions().get(SulongEngineOption.NATIVE_CALL_STATS));
+    /**
+     * @return the call counter of a native function, or {@code null} if native call statistics
+     *         are disabled
+     */
+    protected static LLVMNativeCallStatistics.Counter nativeCallCounter(ContextReference<LLVMContext> context, LLVMFunctionDescriptor descriptor) {
+        LLVMNativeCallStatistics statistics = context.get().getNativeCallStatistics();
+        return statistics == null ? null : statistics.getCounter(descriptor);
     }
 
     public boolean hasTag(Class<? extends Tag> tag) {
@@ -54,6 +54,14 @@ public final class SulongEngineOption {
     public static final String STACK_SIZE_KB_NAME = "llvm.stackSizeKB";
     public static final String STACK_SIZE_KB_INFO = "The stack size in KB.";
 
+    public static final OptionKey<Boolean> MMAP_STACK = new OptionKey<>(false);
+    public static final String MMAP_STACK_NAME = "llvm.mmapStack";
+    public static final String MMAP_STACK_INFO = "Reserve thread stacks with mmap, so that stack memory is only committed when it is used. Requires llvm.enableExternalNativeAccess.";
+
+    public static final OptionKey<Boolean> BUFFER_STDIO = new OptionKey<>(false);
+    public static final String BUFFER_STDIO_NAME = "llvm.bufferStdio";
+    public static final String BUFFER_STDIO_INFO = "Collect small write syscalls to stdout and stderr in a buffer that is flushed when it is full, before reads from stdin and when the context is disposed.";
+
     public static final OptionKey<String> LIBRARY_PATH = new OptionKey<>("");
     public static final String LIBRARY_PATH_NAME = "llvm.libraryPath";
     public static final String LIBRARY_PATH_INFO = "A list of paths where Sulong will search for relative libraries. Paths are delimited by " +
@@ -80,10 +88,42 @@ public final class SulongEngineOption {
     public static final String NATIVE_CALL_STATS_NAME = "llvm.printNativeCallStats";
     public static final String NATIVE_CALL_STATS_INFO = "Outputs stats about native call site frequencies. Can be \'true\', \'false\', \'stdout\', \'stderr\' or a filepath.";
 
+    public static final OptionKey<String> NATIVE_CALL_STATS_FORMAT = new OptionKey<>("text");
+    public static final String NATIVE_CALL_STATS_FORMAT_NAME = "llvm.nativeCallStatsFormat";
+    public static final String NATIVE_CALL_STATS_FORMAT_INFO = "Format of the native call statistics printed on exit. Can be \'text\', \'json\' or \'csv\'.";
+
+    public static final OptionKey<Integer> NATIVE_CALL_LATENCY_SAMPLING = new OptionKey<>(0);
+    public static final String NATIVE_CALL_LATENCY_SAMPLING_NAME = "llvm.nativeCallLatencySampling";
+    public static final String NATIVE_CALL_LATENCY_SAMPLING_INFO = "Record the latency of one in this many native calls in the native call statistics (0 disables latency histograms).";
+
+    public static final OptionKey<Boolean> SLAB_ALLOCATOR = new OptionKey<>(false);
+    public static final String SLAB_ALLOCATOR_NAME = "llvm.slabAllocator";
+    public static final String SLAB_ALLOCATOR_INFO = "Serve small malloc requests from a size-class slab allocator with per-thread caches. Memory allocated this way must not be freed by native code.";
+
+    public static final OptionKey<String> SLAB_ALLOCATOR_STATS = new OptionKey<>(String.valueOf(false));
+    public static final String SLAB_ALLOCATOR_STATS_NAME = "llvm.printSlabAllocatorStats";
+    public static final String SLAB_ALLOCATOR_STATS_INFO = "Prints the allocation counters of the slab allocator on exit. Can be \'true\', \'false\', \'stdout\', \'stderr\' or a filepath.";
+
     public static final OptionKey<String> PRINT_LIFE_TIME_ANALYSIS_STATS = new OptionKey<>(String.valueOf(false));
     public static final String PRINT_LIFE_TIME_ANALYSIS_STATS_NAME = "llvm.printLifetimeAnalysisStats";
     public static final String PRINT_LIFE_TIME_ANALYSIS_STATS_INFO = "Prints the results of the lifetime analysis. Can be \'true\', \'false\', \'stdout\', \'stderr\' or a filepath.";
 
+    public static final OptionKey<Boolean> CACHE_PARSED_MODULES = new OptionKey<>(false);
+    public static final String CACHE_PARSED_MODULES_NAME = "llvm.cacheParsedModules";
+    public static final String CACHE_PARSED_MODULES_INFO = "Share the scanned modules of identical bitcode files between all contexts of the process. Ignored if llvm.enableLVI is set.";
+
+    public static final OptionKey<Boolean> LOOP_OSR = new OptionKey<>(true);
+    public static final String LOOP_OSR_NAME = "llvm.loopOSR";
+    public static final String LOOP_OSR_INFO = "Execute the natural loops of a function as separate loop nodes, so that they can be compiled with on-stack replacement.";
+
+    public static final OptionKey<Boolean> UNBOXED_POINTERS = new OptionKey<>(false);
+    public static final String UNBOXED_POINTERS_NAME = "llvm.unboxedPointers";
+    public static final String UNBOXED_POINTERS_INFO = "Keep native pointers in local variables as raw addresses instead of LLVMAddress objects. Ignored if llvm.enableLVI is set.";
+
+    public static final OptionKey<Boolean> COALESCE_FRAME_SLOTS = new OptionKey<>(false);
+    public static final String COALESCE_FRAME_SLOTS_NAME = "llvm.coalesceFrameSlots";
+    public static final String COALESCE_FRAME_SLOTS_INFO = "Let local values of the same type share a frame slot if their live ranges do not overlap. Ignored if llvm.enableLVI is set.";
+
     public static final OptionKey<Boolean> PARSE_ONLY = new OptionKey<>(false);
     public static final String PARSE_ONLY_NAME = "llvm.parseOnly";
     public static final String PARSE_ONLY_INFO = "Only parses a bc file; execution is not possible.";
@@ -106,6 +146,10 @@ public final class SulongEngineOption {
                         OptionCategory.USER).build());
         options.add(OptionDescriptor.newBuilder(SulongEngineOption.STACK_SIZE_KB, SulongEngineOption.STACK_SIZE_KB_NAME).help(SulongEngineOption.STACK_SIZE_KB_INFO).category(
                         OptionCategory.USER).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.MMAP_STACK, SulongEngineOption.MMAP_STACK_NAME).help(SulongEngineOption.MMAP_STACK_INFO).category(
+                        OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.BUFFER_STDIO, SulongEngineOption.BUFFER_STDIO_NAME).help(SulongEngineOption.BUFFER_STDIO_INFO).category(
+                        OptionCategory.EXPERT).build());
         options.add(OptionDescriptor.newBuilder(SulongEngineOption.LIBRARIES, SulongEngineOption.LIBRARIES_NAME).help(SulongEngineOption.LIBRARIES_INFO).category(
                         OptionCategory.USER).build());
         options.add(OptionDescriptor.newBuilder(SulongEngineOption.LIBRARY_PATH, SulongEngineOption.LIBRARY_PATH_NAME).help(SulongEngineOption.LIBRARY_PATH_INFO).category(
@@ -116,9 +160,25 @@ public final class SulongEngineOption {
                         OptionCategory.USER).build());
         options.add(OptionDescriptor.newBuilder(SulongEngineOption.NATIVE_CALL_STATS, SulongEngineOption.NATIVE_CALL_STATS_NAME).help(SulongEngineOption.NATIVE_CALL_STATS_INFO).category(
                         OptionCategory.USER).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.NATIVE_CALL_STATS_FORMAT, SulongEngineOption.NATIVE_CALL_STATS_FORMAT_NAME).help(
+                        SulongEngineOption.NATIVE_CALL_STATS_FORMAT_INFO).category(OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.NATIVE_CALL_LATENCY_SAMPLING, SulongEngineOption.NATIVE_CALL_LATENCY_SAMPLING_NAME).help(
+                        SulongEngineOption.NATIVE_CALL_LATENCY_SAMPLING_INFO).category(OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.SLAB_ALLOCATOR, SulongEngineOption.SLAB_ALLOCATOR_NAME).help(SulongEngineOption.SLAB_ALLOCATOR_INFO).category(
+                        OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.SLAB_ALLOCATOR_STATS, SulongEngineOption.SLAB_ALLOCATOR_STATS_NAME).help(SulongEngineOption.SLAB_ALLOCATOR_STATS_INFO).category(
+                        OptionCategory.DEBUG).build());
         options.add(OptionDescriptor.newBuilder(SulongEngineOption.PRINT_LIFE_TIME_ANALYSIS_STATS, SulongEngineOption.PRINT_LIFE_TIME_ANALYSIS_STATS_NAME).help(
                         SulongEngineOption.PRINT_LIFE_TIME_ANALYSIS_STATS_INFO).category(
                                         OptionCategory.USER).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.CACHE_PARSED_MODULES, SulongEngineOption.CACHE_PARSED_MODULES_NAME).help(SulongEngineOption.CACHE_PARSED_MODULES_INFO).category(
+                        OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.LOOP_OSR, SulongEngineOption.LOOP_OSR_NAME).help(SulongEngineOption.LOOP_OSR_INFO).category(
+                        OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.UNBOXED_POINTERS, SulongEngineOption.UNBOXED_POINTERS_NAME).help(SulongEngineOption.UNBOXED_POINTERS_INFO).category(
+                        OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(SulongEngineOption.COALESCE_FRAME_SLOTS, SulongEngineOption.COALESCE_FRAME_SLOTS_NAME).help(SulongEngineOption.COALESCE_FRAME_SLOTS_INFO).category(
+                        OptionCategory.EXPERT).build());
         options.add(OptionDescriptor.newBuilder(SulongEngineOption.PARSE_ONLY, SulongEngineOption.PARSE_ONLY_NAME).help(
                         SulongEngineOption.PARSE_ONLY_INFO).category(
                                         OptionCategory.EXPERT).build());
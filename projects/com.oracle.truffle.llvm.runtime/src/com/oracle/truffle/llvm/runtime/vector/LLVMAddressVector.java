@@ -32,6 +32,7 @@ package com.oracle.truffle.llvm.runtime.vector;
 import java.util.Arrays;
 import java.util.function.BiFunction;
 
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.llvm.runtime.LLVMAddress;
 
 public final class LLVMAddressVector {
@@ -69,137 +70,181 @@ public final class LLVMAddressVector {
         long eval(long a, long b);
     }
 
-    private static LLVMAddressVector doOperation(LLVMAddressVector lhs, LLVMAddressVector rhs, Operation op) {
-        long[] left = lhs.vector;
-        long[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a + b;
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a * b;
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a - b;
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a / b;
+        }
+    };
+
+    private static final Operation DIV_UNSIGNED = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return Long.divideUnsigned(a, b);
+        }
+    };
+
+    private static final Operation REM = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a % b;
+        }
+    };
+
+    private static final Operation REM_UNSIGNED = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return Long.remainderUnsigned(a, b);
+        }
+    };
+
+    private static final Operation AND = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a & b;
+        }
+    };
 
+    private static final Operation OR = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a | b;
+        }
+    };
+
+    private static final Operation LEFT_SHIFT = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a << b;
+        }
+    };
+
+    private static final Operation LOGICAL_RIGHT_SHIFT = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a >>> b;
+        }
+    };
+
+    private static final Operation ARITHMETIC_RIGHT_SHIFT = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a >> b;
+        }
+    };
+
+    private static final Operation XOR = new Operation() {
+        @Override
+        public long eval(long a, long b) {
+            return a ^ b;
+        }
+    };
+
+    private static LLVMAddressVector doOperation(LLVMAddressVector lhs, LLVMAddressVector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        long[] left = lhs.vector;
+        long[] right = rhs.vector;
         long[] result = new long[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(long[] left, long[] right, long[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public LLVMAddressVector add(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a + b;
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMAddressVector mul(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a * b;
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMAddressVector sub(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a - b;
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMAddressVector div(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a / b;
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMAddressVector divUnsigned(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return Long.divideUnsigned(a, b);
-            }
-        });
+        return doOperation(this, rightValue, DIV_UNSIGNED);
     }
 
     public LLVMAddressVector rem(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a % b;
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public LLVMAddressVector remUnsigned(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return Long.remainderUnsigned(a, b);
-            }
-        });
+        return doOperation(this, rightValue, REM_UNSIGNED);
     }
 
     public LLVMAddressVector and(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a & b;
-            }
-        });
+        return doOperation(this, rightValue, AND);
     }
 
     public LLVMAddressVector or(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a | b;
-            }
-        });
+        return doOperation(this, rightValue, OR);
     }
 
     public LLVMAddressVector leftShift(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a << b;
-            }
-        });
+        return doOperation(this, rightValue, LEFT_SHIFT);
     }
 
     public LLVMAddressVector logicalRightShift(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a >>> b;
-            }
-        });
+        return doOperation(this, rightValue, LOGICAL_RIGHT_SHIFT);
     }
 
     public LLVMAddressVector arithmeticRightShift(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a >> b;
-            }
-        });
+        return doOperation(this, rightValue, ARITHMETIC_RIGHT_SHIFT);
     }
 
     public LLVMAddressVector xor(LLVMAddressVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public long eval(long a, long b) {
-                return a ^ b;
-            }
-        });
+        return doOperation(this, rightValue, XOR);
     }
 
     public long[] getValues() {
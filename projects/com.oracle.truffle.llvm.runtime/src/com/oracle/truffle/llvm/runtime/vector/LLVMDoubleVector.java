@@ -34,6 +34,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 @ValueType
 public final class LLVMDoubleVector {
@@ -53,20 +54,73 @@ public final class LLVMDoubleVector {
         double eval(double a, double b);
     }
 
-    private static LLVMDoubleVector doOperation(LLVMDoubleVector lhs, LLVMDoubleVector rhs, Operation op) {
-        double[] left = lhs.vector;
-        double[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public double eval(double a, double b) {
+            return a + b;
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public double eval(double a, double b) {
+            return a * b;
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public double eval(double a, double b) {
+            return a - b;
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public double eval(double a, double b) {
+            return a / b;
+        }
+    };
 
+    private static final Operation REM = new Operation() {
+        @Override
+        public double eval(double a, double b) {
+            return a % b;
+        }
+    };
+
+    private static LLVMDoubleVector doOperation(LLVMDoubleVector lhs, LLVMDoubleVector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        double[] left = lhs.vector;
+        double[] right = rhs.vector;
         double[] result = new double[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(double[] left, double[] right, double[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public static LLVMI1Vector compare(LLVMDoubleVector a, LLVMDoubleVector b, BiFunction<Double, Double, Boolean> function) {
@@ -88,48 +142,23 @@ public final class LLVMDoubleVector {
     }
 
     public LLVMDoubleVector add(LLVMDoubleVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public double eval(double a, double b) {
-                return a + b;
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMDoubleVector mul(LLVMDoubleVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public double eval(double a, double b) {
-                return a * b;
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMDoubleVector sub(LLVMDoubleVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public double eval(double a, double b) {
-                return a - b;
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMDoubleVector div(LLVMDoubleVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public double eval(double a, double b) {
-                return a / b;
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMDoubleVector rem(LLVMDoubleVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public double eval(double a, double b) {
-                return a % b;
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public double[] getValues() {
@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 @ValueType
 public final class LLVMFloatVector {
@@ -52,20 +53,73 @@ public final class LLVMFloatVector {
         float eval(float a, float b);
     }
 
-    private static LLVMFloatVector doOperation(LLVMFloatVector lhs, LLVMFloatVector rhs, Operation op) {
-        float[] left = lhs.vector;
-        float[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public float eval(float a, float b) {
+            return a + b;
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public float eval(float a, float b) {
+            return a * b;
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public float eval(float a, float b) {
+            return a - b;
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public float eval(float a, float b) {
+            return a / b;
+        }
+    };
 
+    private static final Operation REM = new Operation() {
+        @Override
+        public float eval(float a, float b) {
+            return a % b;
+        }
+    };
+
+    private static LLVMFloatVector doOperation(LLVMFloatVector lhs, LLVMFloatVector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        float[] left = lhs.vector;
+        float[] right = rhs.vector;
         float[] result = new float[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(float[] left, float[] right, float[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public static LLVMI1Vector compare(LLVMFloatVector a, LLVMFloatVector b, BiFunction<Float, Float, Boolean> function) {
@@ -78,48 +132,23 @@ public final class LLVMFloatVector {
     }
 
     public LLVMFloatVector add(LLVMFloatVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public float eval(float a, float b) {
-                return a + b;
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMFloatVector mul(LLVMFloatVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public float eval(float a, float b) {
-                return a * b;
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMFloatVector sub(LLVMFloatVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public float eval(float a, float b) {
-                return a - b;
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMFloatVector div(LLVMFloatVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public float eval(float a, float b) {
-                return a / b;
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMFloatVector rem(LLVMFloatVector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public float eval(float a, float b) {
-                return a % b;
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public float[] getValues() {
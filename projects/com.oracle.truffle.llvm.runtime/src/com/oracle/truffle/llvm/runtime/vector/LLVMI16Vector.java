@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 @ValueType
 public final class LLVMI16Vector {
@@ -54,137 +55,181 @@ public final class LLVMI16Vector {
         short eval(short a, short b);
     }
 
-    private static LLVMI16Vector doOperation(LLVMI16Vector lhs, LLVMI16Vector rhs, Operation op) {
-        short[] left = lhs.vector;
-        short[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a + b);
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a * b);
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a - b);
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a / b);
+        }
+    };
+
+    private static final Operation DIV_UNSIGNED = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) ((a & MASK) / (b & MASK));
+        }
+    };
+
+    private static final Operation REM = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a % b);
+        }
+    };
+
+    private static final Operation REM_UNSIGNED = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) ((a & MASK) % (b & MASK));
+        }
+    };
+
+    private static final Operation AND = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a & b);
+        }
+    };
 
+    private static final Operation OR = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a | b);
+        }
+    };
+
+    private static final Operation LEFT_SHIFT = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a << b);
+        }
+    };
+
+    private static final Operation LOGICAL_RIGHT_SHIFT = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a >>> b);
+        }
+    };
+
+    private static final Operation ARITHMETIC_RIGHT_SHIFT = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a >> b);
+        }
+    };
+
+    private static final Operation XOR = new Operation() {
+        @Override
+        public short eval(short a, short b) {
+            return (short) (a ^ b);
+        }
+    };
+
+    private static LLVMI16Vector doOperation(LLVMI16Vector lhs, LLVMI16Vector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        short[] left = lhs.vector;
+        short[] right = rhs.vector;
         short[] result = new short[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(short[] left, short[] right, short[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public LLVMI16Vector add(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a + b);
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMI16Vector mul(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a * b);
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMI16Vector sub(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a - b);
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMI16Vector div(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a / b);
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMI16Vector divUnsigned(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) ((a & MASK) / (b & MASK));
-            }
-        });
+        return doOperation(this, rightValue, DIV_UNSIGNED);
     }
 
     public LLVMI16Vector rem(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a % b);
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public LLVMI16Vector remUnsigned(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) ((a & MASK) % (b & MASK));
-            }
-        });
+        return doOperation(this, rightValue, REM_UNSIGNED);
     }
 
     public LLVMI16Vector and(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a & b);
-            }
-        });
+        return doOperation(this, rightValue, AND);
     }
 
     public LLVMI16Vector or(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a | b);
-            }
-        });
+        return doOperation(this, rightValue, OR);
     }
 
     public LLVMI16Vector leftShift(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a << b);
-            }
-        });
+        return doOperation(this, rightValue, LEFT_SHIFT);
     }
 
     public LLVMI16Vector logicalRightShift(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a >>> b);
-            }
-        });
+        return doOperation(this, rightValue, LOGICAL_RIGHT_SHIFT);
     }
 
     public LLVMI16Vector arithmeticRightShift(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a >> b);
-            }
-        });
+        return doOperation(this, rightValue, ARITHMETIC_RIGHT_SHIFT);
     }
 
     public LLVMI16Vector xor(LLVMI16Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public short eval(short a, short b) {
-                return (short) (a ^ b);
-            }
-        });
+        return doOperation(this, rightValue, XOR);
     }
 
     public short[] getValues() {
@@ -34,6 +34,7 @@ import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 @ValueType
 public final class LLVMI1Vector {
@@ -53,153 +54,197 @@ public final class LLVMI1Vector {
         boolean eval(boolean a, boolean b);
     }
 
-    private static LLVMI1Vector doOperation(LLVMI1Vector lhs, LLVMI1Vector rhs, Operation op) {
-        boolean[] left = lhs.vector;
-        boolean[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a ^ b;
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a & b;
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a ^ b;
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            if (!b) {
+                CompilerDirectives.transferToInterpreter();
+                throw new ArithmeticException("Division by zero!");
+            }
+            return a;
+        }
+    };
+
+    private static final Operation DIV_UNSIGNED = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            if (!b) {
+                CompilerDirectives.transferToInterpreter();
+                throw new ArithmeticException("Division by zero!");
+            }
+            return a;
+        }
+    };
+
+    private static final Operation REM = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            if (!b) {
+                CompilerDirectives.transferToInterpreter();
+                throw new ArithmeticException("Division by zero!");
+            }
+            return false;
+        }
+    };
+
+    private static final Operation REM_UNSIGNED = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            if (!b) {
+                CompilerDirectives.transferToInterpreter();
+                throw new ArithmeticException("Division by zero!");
+            }
+            return false;
+        }
+    };
+
+    private static final Operation AND = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a & b;
+        }
+    };
+
+    private static final Operation OR = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a | b;
+        }
+    };
+
+    private static final Operation LEFT_SHIFT = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a & !b;
+        }
+    };
+
+    private static final Operation LOGICAL_RIGHT_SHIFT = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a & !b;
+        }
+    };
+
+    private static final Operation ARITHMETIC_RIGHT_SHIFT = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a;
+        }
+    };
+
+    private static final Operation XOR = new Operation() {
+        @Override
+        public boolean eval(boolean a, boolean b) {
+            return a ^ b;
+        }
+    };
 
+    private static LLVMI1Vector doOperation(LLVMI1Vector lhs, LLVMI1Vector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        boolean[] left = lhs.vector;
+        boolean[] right = rhs.vector;
         boolean[] result = new boolean[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(boolean[] left, boolean[] right, boolean[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public LLVMI1Vector add(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a ^ b;
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMI1Vector mul(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a & b;
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMI1Vector sub(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a ^ b;
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMI1Vector div(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                if (!b) {
-                    CompilerDirectives.transferToInterpreter();
-                    throw new ArithmeticException("Division by zero!");
-                }
-                return a;
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMI1Vector divUnsigned(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                if (!b) {
-                    CompilerDirectives.transferToInterpreter();
-                    throw new ArithmeticException("Division by zero!");
-                }
-                return a;
-            }
-        });
+        return doOperation(this, rightValue, DIV_UNSIGNED);
     }
 
     public LLVMI1Vector rem(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                if (!b) {
-                    CompilerDirectives.transferToInterpreter();
-                    throw new ArithmeticException("Division by zero!");
-                }
-                return false;
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public LLVMI1Vector remUnsigned(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                if (!b) {
-                    CompilerDirectives.transferToInterpreter();
-                    throw new ArithmeticException("Division by zero!");
-                }
-                return false;
-            }
-        });
+        return doOperation(this, rightValue, REM_UNSIGNED);
     }
 
     public LLVMI1Vector and(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a & b;
-            }
-        });
+        return doOperation(this, rightValue, AND);
     }
 
     public LLVMI1Vector or(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a | b;
-            }
-        });
+        return doOperation(this, rightValue, OR);
     }
 
     public LLVMI1Vector leftShift(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a & !b;
-            }
-        });
+        return doOperation(this, rightValue, LEFT_SHIFT);
     }
 
     public LLVMI1Vector logicalRightShift(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a & !b;
-            }
-        });
+        return doOperation(this, rightValue, LOGICAL_RIGHT_SHIFT);
     }
 
     public LLVMI1Vector arithmeticRightShift(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a;
-            }
-        });
+        return doOperation(this, rightValue, ARITHMETIC_RIGHT_SHIFT);
     }
 
     public LLVMI1Vector xor(LLVMI1Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public boolean eval(boolean a, boolean b) {
-                return a ^ b;
-            }
-        });
+        return doOperation(this, rightValue, XOR);
     }
 
     public boolean[] getValues() {
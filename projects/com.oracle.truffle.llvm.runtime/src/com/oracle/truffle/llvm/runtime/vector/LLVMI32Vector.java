@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 @ValueType
 public final class LLVMI32Vector {
@@ -52,137 +53,181 @@ public final class LLVMI32Vector {
         int eval(int a, int b);
     }
 
-    private static LLVMI32Vector doOperation(LLVMI32Vector lhs, LLVMI32Vector rhs, Operation op) {
-        int[] left = lhs.vector;
-        int[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a + b;
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a * b;
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a - b;
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a / b;
+        }
+    };
+
+    private static final Operation DIV_UNSIGNED = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return Integer.divideUnsigned(a, b);
+        }
+    };
+
+    private static final Operation REM = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a % b;
+        }
+    };
+
+    private static final Operation REM_UNSIGNED = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return Integer.remainderUnsigned(a, b);
+        }
+    };
+
+    private static final Operation AND = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a & b;
+        }
+    };
 
+    private static final Operation OR = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a | b;
+        }
+    };
+
+    private static final Operation LEFT_SHIFT = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a << b;
+        }
+    };
+
+    private static final Operation LOGICAL_RIGHT_SHIFT = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a >>> b;
+        }
+    };
+
+    private static final Operation ARITHMETIC_RIGHT_SHIFT = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a >> b;
+        }
+    };
+
+    private static final Operation XOR = new Operation() {
+        @Override
+        public int eval(int a, int b) {
+            return a ^ b;
+        }
+    };
+
+    private static LLVMI32Vector doOperation(LLVMI32Vector lhs, LLVMI32Vector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        int[] left = lhs.vector;
+        int[] right = rhs.vector;
         int[] result = new int[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(int[] left, int[] right, int[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public LLVMI32Vector add(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a + b;
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMI32Vector mul(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a * b;
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMI32Vector sub(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a - b;
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMI32Vector div(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a / b;
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMI32Vector divUnsigned(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return Integer.divideUnsigned(a, b);
-            }
-        });
+        return doOperation(this, rightValue, DIV_UNSIGNED);
     }
 
     public LLVMI32Vector rem(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a % b;
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public LLVMI32Vector remUnsigned(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return Integer.remainderUnsigned(a, b);
-            }
-        });
+        return doOperation(this, rightValue, REM_UNSIGNED);
     }
 
     public LLVMI32Vector and(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a & b;
-            }
-        });
+        return doOperation(this, rightValue, AND);
     }
 
     public LLVMI32Vector or(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a | b;
-            }
-        });
+        return doOperation(this, rightValue, OR);
     }
 
     public LLVMI32Vector leftShift(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a << b;
-            }
-        });
+        return doOperation(this, rightValue, LEFT_SHIFT);
     }
 
     public LLVMI32Vector logicalRightShift(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a >>> b;
-            }
-        });
+        return doOperation(this, rightValue, LOGICAL_RIGHT_SHIFT);
     }
 
     public LLVMI32Vector arithmeticRightShift(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a >> b;
-            }
-        });
+        return doOperation(this, rightValue, ARITHMETIC_RIGHT_SHIFT);
     }
 
     public LLVMI32Vector xor(LLVMI32Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public int eval(int a, int b) {
-                return a ^ b;
-            }
-        });
+        return doOperation(this, rightValue, XOR);
     }
 
     public int[] getValues() {
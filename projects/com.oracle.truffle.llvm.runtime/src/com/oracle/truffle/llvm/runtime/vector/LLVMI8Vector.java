@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 @ValueType
 public final class LLVMI8Vector {
@@ -52,137 +53,181 @@ public final class LLVMI8Vector {
         byte eval(byte a, byte b);
     }
 
-    private static LLVMI8Vector doOperation(LLVMI8Vector lhs, LLVMI8Vector rhs, Operation op) {
-        byte[] left = lhs.vector;
-        byte[] right = rhs.vector;
+    private static final Operation ADD = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a + b);
+        }
+    };
+
+    private static final Operation MUL = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a * b);
+        }
+    };
+
+    private static final Operation SUB = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a - b);
+        }
+    };
+
+    private static final Operation DIV = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a / b);
+        }
+    };
+
+    private static final Operation DIV_UNSIGNED = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (Byte.toUnsignedInt(a) / Byte.toUnsignedInt(b));
+        }
+    };
+
+    private static final Operation REM = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a % b);
+        }
+    };
+
+    private static final Operation REM_UNSIGNED = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (Byte.toUnsignedInt(a) % Byte.toUnsignedInt(b));
+        }
+    };
+
+    private static final Operation AND = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a & b);
+        }
+    };
 
+    private static final Operation OR = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a | b);
+        }
+    };
+
+    private static final Operation LEFT_SHIFT = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a << b);
+        }
+    };
+
+    private static final Operation LOGICAL_RIGHT_SHIFT = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a >>> b);
+        }
+    };
+
+    private static final Operation ARITHMETIC_RIGHT_SHIFT = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a >> b);
+        }
+    };
+
+    private static final Operation XOR = new Operation() {
+        @Override
+        public byte eval(byte a, byte b) {
+            return (byte) (a ^ b);
+        }
+    };
+
+    private static LLVMI8Vector doOperation(LLVMI8Vector lhs, LLVMI8Vector rhs, Operation op) {
         // not sure if this assert is true for llvm ir in general
         // this implementation however assumes it
-        assert left.length == right.length;
+        assert lhs.vector.length == rhs.vector.length;
 
+        byte[] left = lhs.vector;
+        byte[] right = rhs.vector;
         byte[] result = new byte[left.length];
+        switch (left.length) {
+            // common vector widths get a constant trip count so that the loop is unrolled
+            case 2:
+                doOperationUnrolled(left, right, result, op, 2);
+                break;
+            case 4:
+                doOperationUnrolled(left, right, result, op, 4);
+                break;
+            case 8:
+                doOperationUnrolled(left, right, result, op, 8);
+                break;
+            default:
+                for (int i = 0; i < left.length; i++) {
+                    result[i] = op.eval(left[i], right[i]);
+                }
+        }
+        return create(result);
+    }
 
-        for (int i = 0; i < left.length; i++) {
+    @ExplodeLoop
+    private static void doOperationUnrolled(byte[] left, byte[] right, byte[] result, Operation op, int length) {
+        for (int i = 0; i < length; i++) {
             result[i] = op.eval(left[i], right[i]);
         }
-        return create(result);
     }
 
     public LLVMI8Vector add(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a + b);
-            }
-        });
+        return doOperation(this, rightValue, ADD);
     }
 
     public LLVMI8Vector mul(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a * b);
-            }
-        });
+        return doOperation(this, rightValue, MUL);
     }
 
     public LLVMI8Vector sub(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a - b);
-            }
-        });
+        return doOperation(this, rightValue, SUB);
     }
 
     public LLVMI8Vector div(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a / b);
-            }
-        });
+        return doOperation(this, rightValue, DIV);
     }
 
     public LLVMI8Vector divUnsigned(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (Byte.toUnsignedInt(a) / Byte.toUnsignedInt(b));
-            }
-        });
+        return doOperation(this, rightValue, DIV_UNSIGNED);
     }
 
     public LLVMI8Vector rem(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a % b);
-            }
-        });
+        return doOperation(this, rightValue, REM);
     }
 
     public LLVMI8Vector remUnsigned(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (Byte.toUnsignedInt(a) % Byte.toUnsignedInt(b));
-            }
-        });
+        return doOperation(this, rightValue, REM_UNSIGNED);
     }
 
     public LLVMI8Vector and(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a & b);
-            }
-        });
+        return doOperation(this, rightValue, AND);
     }
 
     public LLVMI8Vector or(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a | b);
-            }
-        });
+        return doOperation(this, rightValue, OR);
     }
 
     public LLVMI8Vector leftShift(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a << b);
-            }
-        });
+        return doOperation(this, rightValue, LEFT_SHIFT);
     }
 
     public LLVMI8Vector logicalRightShift(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a >>> b);
-            }
-        });
+        return doOperation(this, rightValue, LOGICAL_RIGHT_SHIFT);
     }
 
     public LLVMI8Vector arithmeticRightShift(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a >> b);
-            }
-        });
+        return doOperation(this, rightValue, ARITHMETIC_RIGHT_SHIFT);
     }
 
     public LLVMI8Vector xor(LLVMI8Vector rightValue) {
-        return doOperation(this, rightValue, new Operation() {
-            @Override
-            public byte eval(byte a, byte b) {
-                return (byte) (a ^ b);
-            }
-        });
+        return doOperation(this, rightValue, XOR);
     }
 
     public byte[] getValues() {
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.parser.scanner.BitStream;
+
+public final class BitStreamTest {
+
+    private static final int SIZE = 259;
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static long readBitwise(byte[] bytes, long offset, int bits) {
+        long value = 0;
+        for (int i = 0; i < bits; i++) {
+            long bit = offset + i;
+            long b = bit / Byte.SIZE < bytes.length ? (bytes[(int) (bit / Byte.SIZE)] >>> (bit % Byte.SIZE)) & 1 : 0;
+            value |= b << i;
+        }
+        return value;
+    }
+
+    @Test
+    public void testFixed() {
+        byte[] bytes = randomBytes(SIZE);
+        BitStream stream = BitStream.create(ByteBuffer.wrap(bytes));
+        // also read beyond the end, which yields zeros
+        for (long offset = 0; offset < stream.size() + Long.SIZE; offset++) {
+            for (int bits = 1; bits <= Long.SIZE; bits++) {
+                Assert.assertEquals(readBitwise(bytes, offset, bits), stream.read(offset, bits));
+            }
+        }
+    }
+
+    @Test
+    public void testBackwards() {
+        byte[] bytes = randomBytes(SIZE);
+        BitStream stream = BitStream.create(ByteBuffer.wrap(bytes));
+        for (long offset = stream.size() - 1; offset >= 0; offset -= 7) {
+            Assert.assertEquals(readBitwise(bytes, offset, 32), stream.read(offset, 32));
+        }
+    }
+
+    @Test
+    public void testSlice() {
+        byte[] bytes = randomBytes(SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(13);
+        BitStream stream = BitStream.create(buffer.slice());
+        Assert.assertEquals((SIZE - 13) * Byte.SIZE, stream.size());
+        Assert.assertEquals(readBitwise(bytes, 13 * Byte.SIZE + 5, 64), stream.read(5, 64));
+    }
+
+    @Test
+    public void testVBR() {
+        Random random = new Random(42);
+        for (int width = 2; width <= 32; width++) {
+            long[] values = new long[100];
+            byte[] bytes = new byte[values.length * 80];
+            long offset = 0;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextLong() >>> random.nextInt(Long.SIZE);
+                offset = writeVBR(bytes, offset, values[i], width);
+            }
+            BitStream stream = BitStream.create(ByteBuffer.wrap(bytes));
+            offset = 0;
+            for (int i = 0; i < values.length; i++) {
+                long value = stream.readVBR(offset, width);
+                Assert.assertEquals(values[i], value);
+                offset += BitStream.widthVBR(value, width);
+            }
+        }
+    }
+
+    private static long writeVBR(byte[] bytes, long offset, long value, int width) {
+        long o = offset;
+        long v = value;
+        long payloadMask = (1L << (width - 1)) - 1;
+        do {
+            long chunk = v & payloadMask;
+            v >>>= width - 1;
+            if (v != 0) {
+                chunk |= 1L << (width - 1);
+            }
+            for (int i = 0; i < width; i++) {
+                if ((chunk & (1L << i)) != 0) {
+                    bytes[(int) ((o + i) / Byte.SIZE)] |= 1 << ((o + i) % Byte.SIZE);
+                }
+            }
+            o += width;
+        } while (v != 0);
+        return o;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.parser.LLVMLoopAnalysis;
+import com.oracle.truffle.llvm.parser.LLVMLoopAnalysis.Loop;
+
+public final class LLVMLoopAnalysisTest {
+
+    @Test
+    public void testNoLoop() {
+        // 0 -> 1, 0 -> 2, 1 -> 3, 2 -> 3
+        int[][] successors = {{1, 2}, {3}, {3}, {}};
+        Assert.assertTrue(LLVMLoopAnalysis.findLoops(successors).isEmpty());
+    }
+
+    @Test
+    public void testSimpleLoop() {
+        // 0 -> 1, 1 -> 2 | 3, 2 -> 1
+        int[][] successors = {{1}, {2, 3}, {1}, {}};
+        List<Loop> loops = LLVMLoopAnalysis.findLoops(successors);
+        Assert.assertEquals(1, loops.size());
+        Loop loop = loops.get(0);
+        Assert.assertEquals(1, loop.getHeader());
+        Assert.assertArrayEquals(new int[]{1, 2}, loop.getBlocks());
+        Assert.assertArrayEquals(new int[]{3}, loop.getSuccessors());
+        Assert.assertNull(loop.getParent());
+    }
+
+    @Test
+    public void testSelfLoop() {
+        int[][] successors = {{1}, {1, 2}, {}};
+        List<Loop> loops = LLVMLoopAnalysis.findLoops(successors);
+        Assert.assertEquals(1, loops.size());
+        Assert.assertArrayEquals(new int[]{1}, loops.get(0).getBlocks());
+    }
+
+    @Test
+    public void testNestedLoops() {
+        // outer: 1 -> 2, inner: 2 -> 3 -> 2, 3 -> 4 -> 1, 1 -> 5
+        int[][] successors = {{1}, {2, 5}, {3}, {2, 4}, {1}, {}};
+        List<Loop> loops = LLVMLoopAnalysis.findLoops(successors);
+        Assert.assertEquals(2, loops.size());
+        Loop inner = loops.get(0);
+        Loop outer = loops.get(1);
+        Assert.assertEquals(2, inner.getHeader());
+        Assert.assertArrayEquals(new int[]{2, 3}, inner.getBlocks());
+        Assert.assertArrayEquals(new int[]{4}, inner.getSuccessors());
+        Assert.assertSame(outer, inner.getParent());
+        Assert.assertEquals(1, outer.getHeader());
+        Assert.assertArrayEquals(new int[]{1, 2, 3, 4}, outer.getBlocks());
+        Assert.assertArrayEquals(new int[]{5}, outer.getSuccessors());
+        Assert.assertNull(outer.getParent());
+    }
+
+    @Test
+    public void testMergedBackEdges() {
+        // two back edges to the same header: 2 -> 1 and 3 -> 1
+        int[][] successors = {{1}, {2, 4}, {1, 3}, {1}, {}};
+        List<Loop> loops = LLVMLoopAnalysis.findLoops(successors);
+        Assert.assertEquals(1, loops.size());
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, loops.get(0).getBlocks());
+    }
+
+    @Test
+    public void testIrreducible() {
+        // 1 and 2 can both be entered from 0, so neither dominates the other
+        int[][] successors = {{1, 2}, {2, 3}, {1}, {}};
+        Assert.assertTrue(LLVMLoopAnalysis.findLoops(successors).isEmpty());
+    }
+
+    @Test
+    public void testUnreachable() {
+        // block 2 is unreachable and jumps into the loop
+        int[][] successors = {{1}, {1, 3}, {1}, {}};
+        List<Loop> loops = LLVMLoopAnalysis.findLoops(successors);
+        Assert.assertEquals(1, loops.size());
+        Assert.assertArrayEquals(new int[]{1}, loops.get(0).getBlocks());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.parser.BitcodeParserResult;
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.test.options.TestOptions;
+
+public final class ParsedModuleCacheTest {
+
+    private static final File TEST_FILE = new File(TestOptions.TEST_SUITE_PATH, "interop/interop001/O0_MEM2REG.bc");
+    private static final int RUNS = 5;
+
+    private static void run() throws IOException {
+        try (Context context = Context.newBuilder().allowAllAccess(true).option(SulongEngineOption.CACHE_PARSED_MODULES_NAME, "true").build()) {
+            Assert.assertEquals(42, context.eval(Source.newBuilder("llvm", TEST_FILE).build()).execute().asInt());
+        }
+    }
+
+    @Test
+    public void testWarmStart() throws IOException {
+        run();
+        for (int i = 1; i < RUNS; i++) {
+            long hits = BitcodeParserResult.getCacheHitCount();
+            run();
+            // at least the test itself and libsulong are found in the cache by every warm start
+            Assert.assertTrue(BitcodeParserResult.getCacheHitCount() - hits >= 2);
+        }
+    }
+
+    @Test
+    public void testSharedModel() throws IOException {
+        byte[] bitcode = Files.readAllBytes(TEST_FILE.toPath());
+        com.oracle.truffle.api.source.Source source = com.oracle.truffle.api.source.Source.newBuilder(TEST_FILE.getPath()).mimeType(LLVMLanguage.LLVM_BITCODE_MIME_TYPE).name(
+                        TEST_FILE.getName()).build();
+        BitcodeParserResult first = BitcodeParserResult.getFromSourceCached(source, ByteBuffer.wrap(bitcode));
+        // a copy of the bitcode has the same digest and maps to the same scanned module
+        BitcodeParserResult second = BitcodeParserResult.getFromSourceCached(source, ByteBuffer.wrap(bitcode.clone()));
+        Assert.assertSame(first, second);
+        Assert.assertSame(first.getModel(), second.getModel());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test.interop;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CyclicBarrier;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.parser.BitcodeParserResult;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.test.options.TestOptions;
+
+/**
+ * Runs the same bitcode in several contexts of one engine. Every context has to see its own
+ * globals, no matter in which order the contexts are created, used and closed, and no matter on
+ * which thread they run. The contexts share the scanned bitcode module, but each context still
+ * builds its own ASTs and call targets.
+ */
+public final class SharedEngineTest {
+
+    private static final File TEST_FILE = new File(TestOptions.TEST_SUITE_PATH, "interop/sharedEngine/O0_MEM2REG.bc");
+    private static final int RUNS = 10;
+    private static final int THREADS = 4;
+
+    private static Engine engine;
+    private static Source source;
+
+    @BeforeClass
+    public static void createEngine() throws IOException {
+        engine = Engine.newBuilder().option(SulongEngineOption.CACHE_PARSED_MODULES_NAME, "true").build();
+        source = Source.newBuilder("llvm", TEST_FILE).build();
+    }
+
+    @AfterClass
+    public static void closeEngine() {
+        engine.close();
+    }
+
+    private static Context createContext() {
+        return Context.newBuilder().engine(engine).allowAllAccess(true).build();
+    }
+
+    @Test
+    public void testConcurrentContexts() throws Throwable {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        int[] results = new int[THREADS];
+        Throwable[] failures = new Throwable[THREADS];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                try (Context context = createContext()) {
+                    Value library = context.eval(source);
+                    barrier.await();
+                    int step = index + 1;
+                    for (int i = 0; i < RUNS; i++) {
+                        library.getMember("increment").execute(step);
+                    }
+                    library.getMember("set_scale").execute(step);
+                    results[index] = library.getMember("increment").execute(1).asInt();
+                } catch (Throwable e) {
+                    failures[index] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < THREADS; t++) {
+            threads[t].join();
+            if (failures[t] != null) {
+                throw failures[t];
+            }
+        }
+        for (int t = 0; t < THREADS; t++) {
+            int step = t + 1;
+            Assert.assertEquals(RUNS * step + step, results[t]);
+        }
+    }
+
+    @Test
+    public void testSequentialContexts() {
+        long hits = BitcodeParserResult.getCacheHitCount();
+        for (int i = 0; i < RUNS; i++) {
+            try (Context context = createContext()) {
+                Value library = context.eval(source);
+                for (int j = 0; j <= i; j++) {
+                    library.getMember("increment").execute(1);
+                }
+                Assert.assertEquals(i + 1, library.execute().asInt());
+            }
+        }
+        // every context after the first reuses the scanned module instead of parsing the bitcode again
+        Assert.assertTrue(BitcodeParserResult.getCacheHitCount() - hits >= RUNS - 1);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test.interop;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.test.options.TestOptions;
+
+/**
+ * Exceeding {@code llvm.stackSizeKB} has to be reported as a stack overflow with the C stack trace,
+ * and must leave the stack usable for later calls.
+ */
+public final class StackOverflowTest {
+
+    private static final File TEST_FILE = new File(TestOptions.TEST_SUITE_PATH, "interop/stackOverflow/O0_MEM2REG.bc");
+    private static final String STACK_SIZE_KB = "64";
+
+    private Context context;
+    private Value recurse;
+
+    @Before
+    public void createContext() throws IOException {
+        context = Context.newBuilder().allowAllAccess(true).option(SulongEngineOption.STACK_SIZE_KB_NAME, STACK_SIZE_KB).build();
+        recurse = context.eval(Source.newBuilder("llvm", TEST_FILE).build()).getMember("recurse");
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testOverflow() {
+        try {
+            recurse.execute(1000);
+            Assert.fail("expected a stack overflow");
+        } catch (PolyglotException e) {
+            String message = e.getMessage();
+            Assert.assertTrue(message, message.contains("LLVMStackOverflowError"));
+            Assert.assertTrue(message, message.contains(SulongEngineOption.STACK_SIZE_KB_NAME));
+            Assert.assertTrue(message, message.contains("recurse"));
+        }
+    }
+
+    @Test
+    public void testUsableAfterOverflow() {
+        Assert.assertEquals(55, recurse.execute(10).asInt());
+        try {
+            recurse.execute(1000);
+            Assert.fail("expected a stack overflow");
+        } catch (PolyglotException e) {
+            // expected
+        }
+        Assert.assertEquals(55, recurse.execute(10).asInt());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.types.memory.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.LLVMAddress;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+
+public class LLVMDerefMemoryTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 10000;
+    private static final int HANDLES_PER_ROUND = 32;
+
+    @SuppressWarnings("deprecation")
+    private final LLVMMemory memory = LLVMMemory.getInstance();
+
+    @Test
+    public void testReuse() {
+        LLVMAddress handle = memory.allocateDerefMemory();
+        assertTrue(memory.isDerefMemory(handle));
+        memory.free(handle);
+        assertEquals(handle, memory.allocateDerefMemory());
+        memory.free(handle);
+    }
+
+    @Test
+    public void testFreeWithOffset() {
+        LLVMAddress handle = memory.allocateDerefMemory();
+        memory.free(handle.increment(24));
+        assertEquals(handle, memory.allocateDerefMemory());
+        memory.free(handle);
+    }
+
+    @Test
+    public void testConcurrentChurn() throws InterruptedException {
+        Set<LLVMAddress> live = ConcurrentHashMap.newKeySet();
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                LLVMAddress[] handles = new LLVMAddress[HANDLES_PER_ROUND];
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < handles.length; i++) {
+                        handles[i] = memory.allocateDerefMemory();
+                        if (!live.add(handles[i])) {
+                            error.compareAndSet(null, "handle " + handles[i] + " was allocated twice");
+                        }
+                    }
+                    for (int i = 0; i < handles.length; i++) {
+                        live.remove(handles[i]);
+                        memory.free(handles[i]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(error.get());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.types.memory.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.llvm.runtime.LLVMHandleTable;
+
+public class LLVMHandleTableTest {
+
+    private static final class TestObject implements TruffleObject {
+
+        @Override
+        public ForeignAccess getForeignAccess() {
+            return null;
+        }
+    }
+
+    private final LLVMHandleTable table = new LLVMHandleTable();
+    private final AtomicLong nextHandle = new AtomicLong(0x1000);
+
+    private long allocate() {
+        return nextHandle.getAndAdd(16);
+    }
+
+    @Test
+    public void testAcquireAndRelease() {
+        TestObject object = new TestObject();
+        long handle = table.acquire(object, object, this::allocate);
+        assertTrue(table.contains(handle));
+        assertSame(object, table.get(handle));
+        assertEquals(0, table.release(handle));
+        assertFalse(table.contains(handle));
+        assertNull(table.get(handle));
+        assertEquals(-1, table.release(handle));
+    }
+
+    @Test
+    public void testReferenceCount() {
+        TestObject object = new TestObject();
+        long handle = table.acquire(object, object, this::allocate);
+        assertEquals(handle, table.acquire(object, object, this::allocate));
+        assertEquals(1, table.release(handle));
+        assertSame(object, table.get(handle));
+        assertEquals(0, table.release(handle));
+        assertNotEquals(handle, table.acquire(object, object, this::allocate));
+    }
+
+    @Test
+    public void testManyHandles() {
+        TestObject[] objects = new TestObject[10000];
+        long[] handles = new long[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new TestObject();
+            handles[i] = table.acquire(objects[i], objects[i], this::allocate);
+        }
+        for (int i = 0; i < objects.length; i += 2) {
+            assertEquals(0, table.release(handles[i]));
+        }
+        for (int i = 0; i < objects.length; i++) {
+            if (i % 2 == 0) {
+                assertFalse(table.contains(handles[i]));
+            } else {
+                assertSame(objects[i], table.get(handles[i]));
+                assertEquals(handles[i], table.acquire(objects[i], objects[i], this::allocate));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        TestObject shared = new TestObject();
+        long sharedHandle = table.acquire(shared, shared, this::allocate);
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    TestObject object = new TestObject();
+                    long handle = table.acquire(object, object, this::allocate);
+                    if (table.get(handle) != object) {
+                        error.compareAndSet(null, "lost handle " + handle);
+                    }
+                    if (table.acquire(shared, shared, this::allocate) != sharedHandle) {
+                        error.compareAndSet(null, "shared object got a second handle");
+                    }
+                    table.release(sharedHandle);
+                    if (table.release(handle) != 0) {
+                        error.compareAndSet(null, "unexpected reference count for " + handle);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(error.get());
+        assertEquals(0, table.release(sharedHandle));
+    }
+}
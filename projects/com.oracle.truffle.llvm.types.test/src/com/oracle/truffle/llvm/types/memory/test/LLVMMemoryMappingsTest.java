@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.types.memory.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemoryMappings;
+
+public class LLVMMemoryMappingsTest {
+
+    private static final long PAGE = LLVMMemoryMappings.PAGE_SIZE;
+    private static final long BASE = 0x7f00_0000_0000L;
+
+    @Test
+    public void testRoundUp() {
+        LLVMMemoryMappings mappings = new LLVMMemoryMappings();
+        mappings.add(BASE, 1);
+        assertTrue(mappings.contains(BASE, PAGE));
+        assertFalse(mappings.contains(BASE, PAGE + 1));
+        assertFalse(mappings.contains(BASE - PAGE, PAGE));
+    }
+
+    @Test
+    public void testAdjacentRegionsMerge() {
+        LLVMMemoryMappings mappings = new LLVMMemoryMappings();
+        mappings.add(BASE, PAGE);
+        mappings.add(BASE + 2 * PAGE, PAGE);
+        assertFalse(mappings.contains(BASE, 3 * PAGE));
+        mappings.add(BASE + PAGE, PAGE);
+        assertTrue(mappings.contains(BASE, 3 * PAGE));
+        assertEquals(1, mappings.removeAll().size());
+    }
+
+    @Test
+    public void testPartialUnmap() {
+        LLVMMemoryMappings mappings = new LLVMMemoryMappings();
+        mappings.add(BASE, 4 * PAGE);
+        List<long[]> removed = mappings.remove(BASE + PAGE, PAGE);
+        assertEquals(1, removed.size());
+        assertArrayEquals(new long[]{BASE + PAGE, BASE + 2 * PAGE}, removed.get(0));
+        assertTrue(mappings.contains(BASE, PAGE));
+        assertFalse(mappings.contains(BASE + PAGE, PAGE));
+        assertTrue(mappings.contains(BASE + 2 * PAGE, 2 * PAGE));
+    }
+
+    @Test
+    public void testUnmapAcrossRegions() {
+        LLVMMemoryMappings mappings = new LLVMMemoryMappings();
+        mappings.add(BASE, PAGE);
+        mappings.add(BASE + 2 * PAGE, 2 * PAGE);
+        List<long[]> removed = mappings.remove(BASE - PAGE, 4 * PAGE);
+        assertEquals(2, removed.size());
+        assertArrayEquals(new long[]{BASE + 2 * PAGE, BASE + 3 * PAGE}, removed.get(0));
+        assertArrayEquals(new long[]{BASE, BASE + PAGE}, removed.get(1));
+        assertTrue(mappings.contains(BASE + 3 * PAGE, PAGE));
+        assertFalse(mappings.contains(BASE, PAGE));
+    }
+
+    @Test
+    public void testUnmapUntracked() {
+        LLVMMemoryMappings mappings = new LLVMMemoryMappings();
+        mappings.add(BASE, PAGE);
+        assertTrue(mappings.remove(BASE + PAGE, 16 * PAGE).isEmpty());
+        assertTrue(mappings.remove(BASE - 16 * PAGE, 16 * PAGE).isEmpty());
+        assertTrue(mappings.contains(BASE, PAGE));
+    }
+}
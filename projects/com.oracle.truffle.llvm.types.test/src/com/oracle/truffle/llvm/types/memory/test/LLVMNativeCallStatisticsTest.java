@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.types.memory.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
+import com.oracle.truffle.llvm.runtime.LLVMNativeCallStatistics;
+import com.oracle.truffle.llvm.runtime.LLVMNativeCallStatistics.Counter;
+import com.oracle.truffle.llvm.runtime.types.FunctionType;
+import com.oracle.truffle.llvm.runtime.types.PrimitiveType;
+import com.oracle.truffle.llvm.runtime.types.Type;
+
+public class LLVMNativeCallStatisticsTest {
+
+    private static final FunctionType UNARY = new FunctionType(PrimitiveType.I32, new Type[]{PrimitiveType.I32}, false);
+    private static final FunctionType BINARY = new FunctionType(PrimitiveType.I32, new Type[]{PrimitiveType.I32, PrimitiveType.I64}, false);
+
+    private static LLVMFunctionDescriptor function(String name, FunctionType type, int id) {
+        return LLVMFunctionDescriptor.createDescriptor(null, null, name, type, id);
+    }
+
+    private static void call(Counter counter, int times) {
+        for (int i = 0; i < times; i++) {
+            counter.countCall();
+        }
+    }
+
+    private static String print(LLVMNativeCallStatistics statistics) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(out, true);
+        statistics.print(stream);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCounterPerDescriptor() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(0, "text");
+        LLVMFunctionDescriptor abs = function("abs", UNARY, 1);
+        Counter counter = statistics.getCounter(abs);
+        assertSame(counter, statistics.getCounter(abs));
+        call(counter, 3);
+        call(statistics.getCounter(function("abs", UNARY, 2)), 2);
+        assertEquals(5, statistics.getCallCount("abs"));
+        assertEquals(0, statistics.getCallCount("labs"));
+    }
+
+    @Test
+    public void testNoLatencySamplingByDefault() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(0, "text");
+        Counter counter = statistics.getCounter(function("abs", UNARY, 1));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(counter.countCall());
+        }
+    }
+
+    @Test
+    public void testLatencySamplingRateOne() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(1, "text");
+        Counter counter = statistics.getCounter(function("abs", UNARY, 1));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(counter.countCall());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSamplingRate() {
+        new LLVMNativeCallStatistics(-1, "text");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFormat() {
+        new LLVMNativeCallStatistics(0, "xml");
+    }
+
+    @Test
+    public void testText() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(0, "text");
+        call(statistics.getCounter(function("abs", UNARY, 1)), 2);
+        call(statistics.getCounter(function("labs", BINARY, 2)), 5);
+        String expected = "Function labs i32 (i32, i64) \t count: 5\n" +
+                        "Function abs i32 (i32) \t count: 2\n";
+        assertEquals(expected, statistics.toText());
+        assertEquals(expected, print(statistics));
+    }
+
+    @Test
+    public void testJSON() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(0, "json");
+        call(statistics.getCounter(function("abs", UNARY, 1)), 2);
+        call(statistics.getCounter(function("quote\"d", UNARY, 2)), 1);
+        String expected = "{\"latencySamplingRate\":0,\"functions\":[" +
+                        "{\"name\":\"abs\",\"type\":\"i32 (i32)\",\"count\":2}," +
+                        "{\"name\":\"quote\\\"d\",\"type\":\"i32 (i32)\",\"count\":1}]}";
+        assertEquals(expected, statistics.toJSON());
+        assertEquals(expected + System.lineSeparator(), print(statistics));
+    }
+
+    @Test
+    public void testCSV() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(0, "csv");
+        call(statistics.getCounter(function("abs", UNARY, 1)), 2);
+        call(statistics.getCounter(function("labs", BINARY, 2)), 3);
+        String expected = "name,type,count,latency_samples,latency_p50_ns,latency_p99_ns\n" +
+                        "labs,\"i32 (i32, i64)\",3,0,,\n" +
+                        "abs,i32 (i32),2,0,,\n";
+        assertEquals(expected, statistics.toCSV());
+        assertEquals(expected, print(statistics));
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(1, "json");
+        Counter counter = statistics.getCounter(function("abs", UNARY, 1));
+        call(counter, 12);
+        for (int i = 0; i < 9; i++) {
+            counter.recordLatency(100);
+        }
+        counter.recordLatency(1000);
+        counter.recordLatency(1);
+        counter.recordLatency(Long.MAX_VALUE);
+        String expected = "{\"latencySamplingRate\":1,\"functions\":[" +
+                        "{\"name\":\"abs\",\"type\":\"i32 (i32)\",\"count\":12,\"latencySamples\":12,\"latencyHistogram\":{\"2\":1,\"128\":9,\"1024\":1,\"inf\":1}}]}";
+        assertEquals(expected, statistics.toJSON());
+    }
+
+    @Test
+    public void testLatencyPercentiles() {
+        LLVMNativeCallStatistics statistics = new LLVMNativeCallStatistics(1, "csv");
+        Counter counter = statistics.getCounter(function("abs", UNARY, 1));
+        call(counter, 100);
+        for (int i = 0; i < 98; i++) {
+            counter.recordLatency(100);
+        }
+        counter.recordLatency(1000);
+        counter.recordLatency(5000);
+        // 98 samples in [64, 128), the 99th in [512, 1024) and the last in [4096, 8192)
+        assertEquals("name,type,count,latency_samples,latency_p50_ns,latency_p99_ns\n" +
+                        "abs,i32 (i32),100,100,128,1024\n", statistics.toCSV());
+        assertEquals("Function abs i32 (i32) \t count: 100 \t latency samples: 100, median: <128 ns, 99%: <1024 ns\n", statistics.toText());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.types.memory.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.memory.LLVMSlabAllocator;
+
+public class LLVMSlabAllocatorTest {
+
+    private static final long ARENA_SIZE = 16 * 1024 * 1024;
+
+    private LLVMSlabAllocator allocator;
+
+    @Before
+    public void createAllocator() {
+        allocator = new LLVMSlabAllocator(ARENA_SIZE);
+    }
+
+    @After
+    public void disposeAllocator() {
+        allocator.dispose();
+    }
+
+    @Test
+    public void testSizeClasses() {
+        for (int size = 1; size <= LLVMSlabAllocator.MAX_BLOCK_SIZE; size++) {
+            long address = allocator.allocate(size);
+            assertNotEquals(0, address);
+            assertTrue(allocator.owns(address));
+            assertEquals(0, address % LLVMSlabAllocator.MIN_BLOCK_SIZE);
+            long blockSize = allocator.getBlockSize(address);
+            assertTrue(blockSize >= size);
+            assertTrue(blockSize - size < LLVMSlabAllocator.MIN_BLOCK_SIZE);
+        }
+    }
+
+    @Test
+    public void testLargeObjects() {
+        assertEquals(0, allocator.allocate(0));
+        assertEquals(0, allocator.allocate(LLVMSlabAllocator.MAX_BLOCK_SIZE + 1));
+        assertFalse(allocator.owns(0));
+    }
+
+    @Test
+    public void testReuse() {
+        long first = allocator.allocate(24);
+        allocator.free(first);
+        assertEquals(first, allocator.allocate(32));
+        assertEquals(1, allocator.getFreeCount());
+        assertEquals(2, allocator.getAllocationCount());
+    }
+
+    @Test
+    public void testDistinctBlocks() {
+        Set<Long> blocks = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(blocks.add(allocator.allocate(16 + i % 64)));
+        }
+        for (long block : blocks) {
+            allocator.free(block);
+        }
+        long reservedPages = allocator.getReservedPageCount();
+        for (int i = 0; i < 100000; i++) {
+            allocator.allocate(16 + i % 64);
+        }
+        assertEquals(reservedPages, allocator.getReservedPageCount());
+    }
+
+    @Test
+    public void testArenaExhaustion() {
+        long allocated = 0;
+        while (allocator.allocate(LLVMSlabAllocator.MAX_BLOCK_SIZE) != 0) {
+            allocated += LLVMSlabAllocator.MAX_BLOCK_SIZE;
+        }
+        assertEquals(ARENA_SIZE, allocated);
+    }
+
+    @Test
+    public void testCrossThreadFree() throws InterruptedException {
+        List<Long> blocks = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            blocks.add(allocator.allocate(64));
+        }
+        Thread[] threads = new Thread[4];
+        int[] distinctBlocks = new int[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < blocks.size(); i += threads.length) {
+                    allocator.free(blocks.get(i));
+                }
+                Set<Long> reused = new HashSet<>();
+                for (int i = 0; i < 5000; i++) {
+                    reused.add(allocator.allocate(64));
+                }
+                distinctBlocks[offset] = reused.size();
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int count : distinctBlocks) {
+            assertEquals(5000, count);
+        }
+        assertEquals(10000, allocator.getFreeCount());
+    }
+}
@@ -31,11 +31,16 @@ package com.oracle.truffle.llvm;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -275,16 +280,18 @@ public final class Runner {
     }
 
     private LLVMParserResult[] parse(LLVMLanguage language, LLVMContext context, ExternalLibrary[] libs) {
+        List<ForkJoinTask<ScannedLibrary>> scans = scan(libs, useModuleCache(context), isLVIEnabled(context));
         LLVMParserResult[] parserResults = new LLVMParserResult[libs.length];
         for (int i = 0; i < libs.length; i++) {
             ExternalLibrary lib = libs[i];
+            // a library might have been parsed in the meantime as a dependency of another one
             if (!lib.isParsed()) {
                 try {
-                    Path path = lib.getPath();
-                    byte[] bytes = Files.readAllBytes(path);
-                    // at the moment, we don't need the bitcode as the content of the source
-                    Source source = Source.newBuilder(path.toString()).mimeType(LLVMLanguage.LLVM_BITCODE_MIME_TYPE).name(path.getFileName().toString()).build();
-                    parserResults[i] = parse(language, context, source, lib, ByteBuffer.wrap(bytes));
+                    ScannedLibrary scanned = scans.get(i).join();
+                    if (scanned.error != null) {
+                        throw scanned.error;
+                    }
+                    parserResults[i] = parse(language, context, scanned.source, lib, scanned.bitcode);
                     lib.setParsed();
                 } catch (Throwable t) {
                     throw new RuntimeException("Error while trying to parse " + lib.getName(), t);
@@ -294,6 +301,59 @@ public final class Runner {
         return parserResults;
     }
 
+    private static final class ScannedLibrary {
+        private final Source source;
+        private final BitcodeParserResult bitcode;
+        private final Throwable error;
+
+        private ScannedLibrary(Source source, BitcodeParserResult bitcode, Throwable error) {
+            this.source = source;
+            this.bitcode = bitcode;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Reads the libraries and builds their models concurrently. This neither depends on the
+     * context nor on other libraries, so only the registration of the symbols, which has to
+     * happen in a deterministic order, is left to the caller.
+     */
+    private static List<ForkJoinTask<ScannedLibrary>> scan(ExternalLibrary[] libs, boolean useCache, boolean enableLVI) {
+        List<ForkJoinTask<ScannedLibrary>> scans = new ArrayList<>(libs.length);
+        int pending = 0;
+        for (ExternalLibrary lib : libs) {
+            if (lib.isParsed()) {
+                scans.add(null);
+            } else {
+                scans.add(ForkJoinTask.adapt(() -> scan(lib, useCache, enableLVI)));
+                pending++;
+            }
+        }
+        for (ForkJoinTask<ScannedLibrary> task : scans) {
+            if (task != null) {
+                if (pending > 1) {
+                    ForkJoinPool.commonPool().execute(task);
+                } else {
+                    task.invoke();
+                }
+            }
+        }
+        return scans;
+    }
+
+    private static ScannedLibrary scan(ExternalLibrary lib, boolean useCache, boolean enableLVI) {
+        Source source = null;
+        try {
+            Path path = lib.getPath();
+            ByteBuffer bytes = map(path);
+            // at the moment, we don't need the bitcode as the content of the source
+            source = Source.newBuilder(path.toString()).mimeType(LLVMLanguage.LLVM_BITCODE_MIME_TYPE).name(path.getFileName().toString()).build();
+            return new ScannedLibrary(source, getBitcodeParserResult(source, bytes, useCache, enableLVI), null);
+        } catch (Throwable t) {
+            return new ScannedLibrary(source, null, t);
+        }
+    }
+
     private static byte[] decodeBase64(CharSequence charSequence) {
         byte[] result = new byte[charSequence.length()];
         for (int i = 0; i < result.length; i++) {
@@ -305,8 +365,29 @@ public final class Runner {
     }
 
     private LLVMParserResult parse(LLVMLanguage language, LLVMContext context, Source source, ExternalLibrary library, ByteBuffer bytes) throws IOException {
+        return parse(language, context, source, library, getBitcodeParserResult(source, bytes, useModuleCache(context), isLVIEnabled(context)));
+    }
+
+    private static BitcodeParserResult getBitcodeParserResult(Source source, ByteBuffer bytes, boolean useCache, boolean enableLVI) throws IOException {
+        if (useCache) {
+            assert !enableLVI;
+            return BitcodeParserResult.getFromSourceCached(source, bytes);
+        } else {
+            return BitcodeParserResult.getFromSource(source, bytes, enableLVI);
+        }
+    }
+
+    private static boolean useModuleCache(LLVMContext context) {
+        // with LVI, the parser attaches context specific values to the debug information
+        return context.getEnv().getOptions().get(SulongEngineOption.CACHE_PARSED_MODULES) && !isLVIEnabled(context);
+    }
+
+    private static boolean isLVIEnabled(LLVMContext context) {
+        return context.getEnv().getOptions().get(SulongEngineOption.ENABLE_LVI);
+    }
+
+    private LLVMParserResult parse(LLVMLanguage language, LLVMContext context, Source source, ExternalLibrary library, BitcodeParserResult bitcodeParserResult) {
         assert library != null;
-        BitcodeParserResult bitcodeParserResult = BitcodeParserResult.getFromSource(source, bytes);
         context.addLibraryPaths(bitcodeParserResult.getLibraryPaths());
         List<String> libraries = bitcodeParserResult.getLibraries();
         if (!libraries.isEmpty()) {
@@ -334,12 +415,23 @@ public final class Runner {
 
     private static ByteBuffer read(Path path) {
         try {
-            return ByteBuffer.wrap(Files.readAllBytes(path));
+            return map(path);
         } catch (IOException ignore) {
             return ByteBuffer.allocate(0);
         }
     }
 
+    /**
+     * Maps a bitcode file into memory instead of copying it to the heap. The parser keeps the
+     * buffer alive for lazily parsed function bodies, which are thus only paged in when they are
+     * parsed. The mapping stays valid after the channel is closed.
+     */
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
     private static void handleParserResult(LLVMContext context, LLVMParserResult result) {
         // register destructor functions so that we can execute them when exit is called
         if (result.getDestructorFunction() != null) {
@@ -88,17 +88,9 @@ public final class Sulong extends LLVMLanguage {
         return capability;
     }
 
-    private LLVMContext mainContext = null;
-
     @Override
     protected LLVMContext createContext(com.oracle.truffle.api.TruffleLanguage.Env env) {
-        LLVMContext newContext = new LLVMContext(env, getContextExtensions(env), getNodeFactory(env));
-        if (mainContext == null) {
-            mainContext = newContext;
-        } else {
-            LLVMLanguage.SINGLE_CONTEXT_ASSUMPTION.invalidate();
-        }
-        return newContext;
+        return new LLVMContext(env, getContextExtensions(env), getNodeFactory(env));
     }
 
     @Override
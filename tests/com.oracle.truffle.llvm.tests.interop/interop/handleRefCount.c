@@ -0,0 +1,28 @@
+#include <polyglot.h>
+#include <truffle.h>
+
+int main() {
+  void *p = polyglot_import("object");
+
+  void *p1 = truffle_handle_for_managed(p);
+  void *p2 = truffle_handle_for_managed(p);
+
+  if (p1 != p2) {
+    return 1;
+  }
+
+  truffle_release_handle(p1);
+  if (!truffle_is_handle_to_managed(p1)) {
+    return 2;
+  }
+  if (truffle_managed_from_handle(p1) != truffle_managed_from_handle(p2)) {
+    return 3;
+  }
+
+  truffle_release_handle(p2);
+  if (truffle_is_handle_to_managed(p2)) {
+    return 4;
+  }
+
+  return 0;
+}
@@ -0,0 +1,15 @@
+static int counter;
+int scale = 1;
+
+int increment(int delta) {
+  counter += delta * scale;
+  return counter;
+}
+
+void set_scale(int value) {
+  scale = value;
+}
+
+int main() {
+  return counter;
+}
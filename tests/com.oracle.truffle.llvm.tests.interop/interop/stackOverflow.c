@@ -0,0 +1,12 @@
+int recurse(int depth) {
+  volatile char buffer[1024];
+  buffer[0] = (char) depth;
+  if (depth == 0) {
+    return buffer[0];
+  }
+  return recurse(depth - 1) + buffer[0];
+}
+
+int main() {
+  return recurse(10);
+}
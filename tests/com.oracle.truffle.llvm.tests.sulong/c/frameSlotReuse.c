@@ -0,0 +1,73 @@
+struct pair {
+  int a;
+  int b;
+};
+
+static int mix(int x) {
+  int t1 = x * 3 + 1;
+  int t2 = t1 ^ (t1 >> 3);
+  int t3 = t2 * 5 - x;
+  int t4 = t3 & 0x7fff;
+  int t5 = t4 + t2 % 7;
+  int t6 = t5 * t5 % 1009;
+  int t7 = t6 - t1 % 13;
+  return t7 & 0xff;
+}
+
+static int swapLoop(int n) {
+  int a = 1, b = 2, c = 3;
+  int i;
+  for (i = 0; i < n; i++) {
+    int t = a;
+    a = b;
+    b = c;
+    c = (t + a) % 97;
+  }
+  return a * 10000 + b * 100 + c;
+}
+
+static int pointers(struct pair *p, int n) {
+  int sum = 0;
+  int i;
+  for (i = 0; i < n; i++) {
+    struct pair *q = &p[i];
+    struct pair *r = &p[n - 1 - i];
+    sum += q->a * r->b;
+    q = r;
+    sum -= q->a;
+  }
+  return sum;
+}
+
+static long manyValues(long x) {
+  long a = x + 1;
+  long b = a * 2;
+  long c = b - 3;
+  long d = c * c % 1000;
+  long e = d + a;
+  long f = e * 7 % 123;
+  long g = f - b;
+  long h = g * g % 777;
+  long i = h + c;
+  long j = i ^ d;
+  long k = j + e - f;
+  long l = k % 555;
+  return l + g + h;
+}
+
+int main() {
+  struct pair pairs[8];
+  int result = 0;
+  int i;
+  for (i = 0; i < 8; i++) {
+    pairs[i].a = i * 3;
+    pairs[i].b = 8 - i;
+  }
+  for (i = 0; i < 100; i++) {
+    result += mix(i);
+  }
+  result += swapLoop(1000);
+  result += pointers(pairs, 8);
+  result += (int) manyValues(result);
+  return result & 0xff;
+}
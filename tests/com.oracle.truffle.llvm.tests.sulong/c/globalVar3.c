@@ -0,0 +1,47 @@
+#include <stdint.h>
+
+static uint32_t crcTable[256];
+static const uint32_t polynomial = 0xEDB88320u;
+static int rounds = 200;
+static int scale = 1;
+
+static void initTable(void) {
+  uint32_t i;
+  int j;
+  for (i = 0; i < 256; i++) {
+    uint32_t c = i;
+    for (j = 0; j < 8; j++) {
+      c = (c & 1) ? polynomial ^ (c >> 1) : c >> 1;
+    }
+    crcTable[i] = c;
+  }
+}
+
+static uint32_t crc32(const char *data, int length) {
+  uint32_t crc = 0xFFFFFFFFu;
+  int i;
+  for (i = 0; i < length; i++) {
+    crc = crcTable[(crc ^ (uint8_t)data[i]) & 0xFF] ^ (crc >> 8);
+  }
+  return crc ^ 0xFFFFFFFFu;
+}
+
+static uint32_t run(const char *data, int length) {
+  uint32_t result = 0;
+  int i;
+  for (i = 0; i < rounds; i++) {
+    result += crc32(data, length) * scale;
+  }
+  return result;
+}
+
+int main() {
+  const char *text = "The quick brown fox jumps over the lazy dog";
+  uint32_t result;
+  initTable();
+  result = run(text, 43);
+  /* a second write must invalidate any value folded from the initializer */
+  scale = 3;
+  result ^= run(text, 43);
+  return (result ^ (result >> 8) ^ (result >> 16) ^ (result >> 24)) & 0xff;
+}
@@ -0,0 +1,62 @@
+enum Opcode { PUSH, ADD, MUL, MOD, DUP, DEC, LOAD, STORE, JNZ, HALT };
+
+static int program[] = {
+  PUSH, 0, STORE, 0,    /* sum = 0 */
+  PUSH, 5000, STORE, 1, /* i = 5000 */
+  LOAD, 0, LOAD, 1, DUP, MUL, ADD, PUSH, 253, MOD, STORE, 0,
+  LOAD, 1, DEC, DUP, STORE, 1, JNZ, 8,
+  LOAD, 0, HALT
+};
+
+static int run(int *code) {
+  static void *dispatch[] = { &&op_push, &&op_add, &&op_mul, &&op_mod, &&op_dup, &&op_dec, &&op_load, &&op_store, &&op_jnz, &&op_halt };
+  int stack[16];
+  int vars[2];
+  int sp = 0;
+  int *pc = code;
+
+#define NEXT goto *dispatch[*pc++]
+  NEXT;
+op_push:
+  stack[sp++] = *pc++;
+  NEXT;
+op_add:
+  sp--;
+  stack[sp - 1] += stack[sp];
+  NEXT;
+op_mul:
+  sp--;
+  stack[sp - 1] *= stack[sp];
+  NEXT;
+op_mod:
+  sp--;
+  stack[sp - 1] %= stack[sp];
+  NEXT;
+op_dup:
+  stack[sp] = stack[sp - 1];
+  sp++;
+  NEXT;
+op_dec:
+  stack[sp - 1]--;
+  NEXT;
+op_load:
+  stack[sp++] = vars[*pc++];
+  NEXT;
+op_store:
+  vars[*pc++] = stack[--sp];
+  NEXT;
+op_jnz:
+  if (stack[--sp] != 0) {
+    pc = code + *pc;
+  } else {
+    pc++;
+  }
+  NEXT;
+op_halt:
+  return stack[sp - 1];
+#undef NEXT
+}
+
+int main() {
+  return run(program);
+}
@@ -0,0 +1,52 @@
+#include <ctype.h>
+#include <math.h>
+#include <stdlib.h>
+#include <string.h>
+#include <strings.h>
+
+typedef int (*char_fn)(int c);
+typedef double (*math_fn)(double x);
+typedef int (*compare_fn)(const char *a, const char *b);
+typedef size_t (*span_fn)(const char *s, const char *accept);
+
+static char_fn charFunctions[] = { isalnum, isalpha, isblank, iscntrl, isdigit, isgraph, islower, isprint,
+                                   ispunct, isspace, isupper, isxdigit, isascii, toupper, tolower, abs };
+
+static math_fn mathFunctions[] = { sin,  cos,   tan,   asin, acos,      atan, sinh, cosh,   tanh,   asinh, atanh,
+                                   exp,  exp2,  expm1, log,  log2,      log10, log1p, sqrt, cbrt,  ceil,  floor,
+                                   fabs, round, trunc, rint, nearbyint, erf,  erfc, tgamma, lgamma, logb };
+
+static compare_fn compareFunctions[] = { strcmp, strcoll, strcasecmp };
+
+static span_fn spanFunctions[] = { strspn, strcspn };
+
+#define LENGTH(array) (sizeof(array) / sizeof(array[0]))
+
+int main() {
+  const char *text = "Sulong: 42 native calls, through pointers!\t";
+  const char *words[] = { "alpha", "Beta", "gamma", "DELTA", "beta" };
+  unsigned int result = 0;
+  int round, i, j;
+
+  for (round = 0; round < 20; round++) {
+    for (i = 0; i < LENGTH(charFunctions); i++) {
+      for (j = 0; text[j] != 0; j++) {
+        result = result * 31 + (charFunctions[i](text[j]) != 0 ? charFunctions[i](text[j]) : i);
+      }
+    }
+    for (i = 0; i < LENGTH(mathFunctions); i++) {
+      double x = 0.125 + 0.25 * (round % 4);
+      result = result * 31 + (unsigned int) (long) (mathFunctions[i](x) * 1000);
+    }
+    for (i = 0; i < LENGTH(compareFunctions); i++) {
+      for (j = 1; j < LENGTH(words); j++) {
+        int cmp = compareFunctions[i](words[j - 1], words[j]);
+        result = result * 31 + (cmp < 0 ? 1 : cmp > 0 ? 2 : 3);
+      }
+    }
+    for (i = 0; i < LENGTH(spanFunctions); i++) {
+      result = result * 31 + (unsigned int) spanFunctions[i](text, "Sulong: ");
+    }
+  }
+  return (result ^ (result >> 8) ^ (result >> 16) ^ (result >> 24)) & 0xff;
+}
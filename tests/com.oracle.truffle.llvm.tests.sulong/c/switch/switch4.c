@@ -0,0 +1,191 @@
+enum Opcode {
+  PUSH,
+  POP,
+  DUP,
+  SWAP,
+  ADD,
+  SUB,
+  MUL,
+  DIV,
+  MOD,
+  NEG,
+  AND,
+  OR,
+  XOR,
+  SHL,
+  SHR,
+  INC,
+  DEC,
+  JMP,
+  JNZ,
+  LOAD,
+  STORE,
+  HALT
+};
+
+static int program[] = {
+  PUSH, 0, STORE, 0,    /* sum = 0 */
+  PUSH, 1000, STORE, 1, /* i = 1000 */
+  LOAD, 0, LOAD, 1, DUP, MUL, ADD, PUSH, 7, XOR, PUSH, 1, SHL, PUSH, 1, SHR, PUSH, 251, MOD, STORE, 0,
+  LOAD, 1, DEC, DUP, STORE, 1, JNZ, 8,
+  LOAD, 0, HALT
+};
+
+static long sparse(long value) {
+  switch (value) {
+  case -1000000000000L:
+    return 1;
+  case -77:
+    return 2;
+  case 3:
+    return 3;
+  case 1024:
+    return 4;
+  case 65537:
+    return 5;
+  case 1000000:
+    return 6;
+  case 123456789:
+    return 7;
+  case 4294967296L:
+    return 8;
+  case 9007199254740993L:
+    return 9;
+  case 9223372036854775807L:
+    return 10;
+  default:
+    return 0;
+  }
+}
+
+static int letter(char c) {
+  switch (c) {
+  case 'a':
+  case 'e':
+  case 'i':
+  case 'o':
+  case 'u':
+    return 1;
+  case 'y':
+    return 2;
+  case ' ':
+  case '\t':
+  case '\n':
+    return 3;
+  case '-':
+  case '+':
+    return 4;
+  default:
+    return 0;
+  }
+}
+
+static int run(int *code) {
+  int stack[64];
+  int vars[4];
+  int sp = 0;
+  int pc = 0;
+  for (;;) {
+    int a, b;
+    switch (code[pc++]) {
+    case PUSH:
+      stack[sp++] = code[pc++];
+      break;
+    case POP:
+      sp--;
+      break;
+    case DUP:
+      stack[sp] = stack[sp - 1];
+      sp++;
+      break;
+    case SWAP:
+      a = stack[sp - 1];
+      stack[sp - 1] = stack[sp - 2];
+      stack[sp - 2] = a;
+      break;
+    case ADD:
+      b = stack[--sp];
+      stack[sp - 1] += b;
+      break;
+    case SUB:
+      b = stack[--sp];
+      stack[sp - 1] -= b;
+      break;
+    case MUL:
+      b = stack[--sp];
+      stack[sp - 1] *= b;
+      break;
+    case DIV:
+      b = stack[--sp];
+      stack[sp - 1] /= b;
+      break;
+    case MOD:
+      b = stack[--sp];
+      stack[sp - 1] %= b;
+      break;
+    case NEG:
+      stack[sp - 1] = -stack[sp - 1];
+      break;
+    case AND:
+      b = stack[--sp];
+      stack[sp - 1] &= b;
+      break;
+    case OR:
+      b = stack[--sp];
+      stack[sp - 1] |= b;
+      break;
+    case XOR:
+      b = stack[--sp];
+      stack[sp - 1] ^= b;
+      break;
+    case SHL:
+      b = stack[--sp];
+      stack[sp - 1] <<= b;
+      break;
+    case SHR:
+      b = stack[--sp];
+      stack[sp - 1] >>= b;
+      break;
+    case INC:
+      stack[sp - 1]++;
+      break;
+    case DEC:
+      stack[sp - 1]--;
+      break;
+    case JMP:
+      pc = code[pc];
+      break;
+    case JNZ:
+      if (stack[--sp] != 0) {
+        pc = code[pc];
+      } else {
+        pc++;
+      }
+      break;
+    case LOAD:
+      stack[sp++] = vars[code[pc++]];
+      break;
+    case STORE:
+      vars[code[pc++]] = stack[--sp];
+      break;
+    case HALT:
+      return stack[sp - 1];
+    default:
+      return -1;
+    }
+  }
+}
+
+int main() {
+  const char *text = "the quick brown fox - jumps over the lazy dog +y";
+  long values[] = { -1000000000000L, -77, 3, 4, 1024, 65537, 1000000, 123456789, 4294967296L, 9007199254740993L, 9223372036854775807L, 0 };
+  int result = run(program);
+  int i;
+  for (i = 0; text[i] != 0; i++) {
+    result += letter(text[i]);
+  }
+  for (i = 0; i < sizeof(values) / sizeof(values[0]); i++) {
+    result += sparse(values[i]) * i;
+  }
+  return result & 0xff;
+}
@@ -0,0 +1,55 @@
+typedef int v4si __attribute__((vector_size(16)));
+typedef short v8hi __attribute__((vector_size(16)));
+typedef long v2di __attribute__((vector_size(16)));
+typedef double v2df __attribute__((vector_size(16)));
+
+#define N 256
+
+static int ints[N];
+static short shorts[N];
+static long longs[N];
+static double doubles[N];
+
+int main() {
+  int i;
+  for (i = 0; i < N; i++) {
+    ints[i] = i * 7 - 300;
+    shorts[i] = (short) (i * 13);
+    longs[i] = (long) i * 100003;
+    doubles[i] = i * 0.25;
+  }
+
+  v4si isum = { 0, 0, 0, 0 };
+  v4si *ivec = (v4si *) ints;
+  for (i = 0; i < N / 4; i++) {
+    isum += (ivec[i] * ivec[i]) ^ (ivec[i] >> 2);
+  }
+
+  v8hi hmax = { 0, 0, 0, 0, 0, 0, 0, 0 };
+  v8hi *hvec = (v8hi *) shorts;
+  for (i = 0; i < N / 8; i++) {
+    hmax = (hvec[i] & 0x3ff) | (hmax - 1);
+    hvec[i] = hvec[i] + hmax;
+  }
+
+  v2di lsum = { 0, 0 };
+  v2di *lvec = (v2di *) longs;
+  for (i = 0; i < N / 2; i++) {
+    lvec[i] = lvec[i] % 997 + (lsum & 0xffff);
+    lsum += lvec[i];
+  }
+
+  v2df dsum = { 0, 0 };
+  v2df *dvec = (v2df *) doubles;
+  for (i = 0; i < N / 2; i++) {
+    dvec[i] = dvec[i] * dvec[i] - dvec[i] / 2;
+    dsum += dvec[i];
+  }
+
+  long result = isum[0] + isum[1] + isum[2] + isum[3];
+  for (i = 0; i < N; i++) {
+    result += shorts[i];
+  }
+  result += lsum[0] - lsum[1] + (long) (dsum[0] + dsum[1]);
+  return (int) (result & 0xff);
+}
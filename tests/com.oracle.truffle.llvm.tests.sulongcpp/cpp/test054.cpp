@@ -0,0 +1,86 @@
+#include <stdio.h>
+
+struct Base {
+  int base;
+  Base(int v) : base(v) {}
+};
+
+struct Derived : Base {
+  Derived(int v) : Base(v) {}
+};
+
+struct Left {
+  int left;
+  Left(int v) : left(v) {}
+};
+
+struct Right {
+  int right;
+  Right(int v) : right(v) {}
+};
+
+struct Both : Left, Right {
+  Both(int v) : Left(v), Right(v * 2) {}
+};
+
+struct Virtual : virtual Base {
+  Virtual(int v) : Base(v) {}
+};
+
+struct Diamond : Left, Virtual {
+  Diamond(int v) : Base(v * 3), Left(v + 1), Virtual(v) {}
+};
+
+struct Unrelated {};
+
+static int thrower(int i) {
+  switch (i % 7) {
+  case 0:
+    throw Derived(i);
+  case 1:
+    throw Both(i);
+  case 2:
+    throw Diamond(i);
+  case 3:
+    throw i;
+  case 4: {
+    static Derived d(4);
+    throw &d;
+  }
+  case 5:
+    throw Unrelated();
+  default:
+    return i;
+  }
+}
+
+static long run(int i) {
+  try {
+    try {
+      return thrower(i);
+    } catch (Unrelated &) {
+      return 11;
+    } catch (Right &r) {
+      return r.right;
+    } catch (const char *) {
+      return -1;
+    }
+  } catch (Base *b) {
+    return b->base + 17;
+  } catch (Base &b) {
+    return b.base;
+  } catch (int v) {
+    return v * 5;
+  } catch (...) {
+    return -2;
+  }
+}
+
+int main() {
+  long sum = 0;
+  for (int i = 0; i < 7000; i++) {
+    sum += run(i);
+  }
+  printf("%ld\n", sum);
+  return sum % 251;
+}
@@ -0,0 +1,60 @@
+#include <stdio.h>
+
+struct Error {
+  int code;
+  Error(int c) : code(c) {}
+};
+
+static int cleanups = 0;
+
+struct Guard {
+  int id;
+  Guard(int i) : id(i) {}
+  ~Guard() {
+    // throws and catches another exception while the outer one is propagating
+    try {
+      if (id % 3 == 0) {
+        throw Error(-id);
+      }
+    } catch (Error &e) {
+      cleanups += e.code;
+    }
+    cleanups++;
+  }
+};
+
+static int fail(int i) {
+  Guard g(i);
+  throw Error(i);
+}
+
+static int rethrow(int i) {
+  try {
+    return fail(i);
+  } catch (Error &e) {
+    e.code *= 2;
+    throw;
+  }
+}
+
+static int nested(int i) {
+  try {
+    rethrow(i);
+  } catch (Error &outer) {
+    try {
+      throw Error(outer.code + 1);
+    } catch (Error &inner) {
+      return outer.code + inner.code;
+    }
+  }
+  return 0;
+}
+
+int main() {
+  long sum = 0;
+  for (int i = 0; i < 10000; i++) {
+    sum += nested(i);
+  }
+  printf("%ld %d\n", sum, cleanups);
+  return (sum + cleanups) % 256;
+}
@@ -0,0 +1,33 @@
+#include <stdio.h>
+
+#define ADD(type, a, b) ({ type __out = (b); __asm__("add %1, %0" : "+r"(__out) : "r"((type)(a))); __out; })
+
+#define SWAP(x, y) __asm__("xchg %0, %1" : "+r"(x), "+r"(y))
+
+int main() {
+  int i1 = 1, i2 = 2;
+  long l1 = 0x100000000L, l2 = 3;
+  short s1 = 7, s2 = -8;
+  int sum = 0;
+  int i;
+
+  sum = ADD(int, sum, 1);
+  sum = ADD(int, sum, 20);
+  sum = ADD(int, sum, 300);
+  l1 = ADD(long, l1, l2);
+  l2 = ADD(long, l2, 0x7ffffffff0L);
+  s1 = ADD(short, s1, s2);
+  for (i = 0; i < 10; i++) {
+    sum = ADD(int, sum, i);
+    l1 = ADD(long, l1, i);
+  }
+  printf("%d %lx %lx %d\n", sum, l1, l2, s1);
+
+  SWAP(i1, i2);
+  printf("%d %d\n", i1, i2);
+  SWAP(l1, l2);
+  printf("%lx %lx\n", l1, l2);
+  SWAP(i1, i2);
+  printf("%d %d\n", i1, i2);
+  return 0;
+}
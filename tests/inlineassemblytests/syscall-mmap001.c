@@ -0,0 +1,84 @@
+#include "nanolibc.h"
+#include <sys/mman.h>
+
+#define PAGE_SIZE 4096
+#define PAGES 64
+
+static char *map(char *addr, size_t length, int prot, int flags, int fd, off_t offset) {
+  return (char *) syscall(SYS_mmap, (int64_t) addr, (int64_t) length, (int64_t) prot, (int64_t) flags, (int64_t) fd, (int64_t) offset);
+}
+
+static int unmap(char *addr, size_t length) {
+  return syscall(SYS_munmap, (int64_t) addr, (int64_t) length, 0, 0, 0, 0);
+}
+
+static unsigned int checksum(const char *data, size_t length, int *lines) {
+  unsigned int sum = 0;
+  size_t i;
+  *lines = 0;
+  for (i = 0; i < length; i++) {
+    sum = sum * 31 + data[i];
+    if (data[i] == '\n') {
+      (*lines)++;
+    }
+  }
+  return sum;
+}
+
+int main(void) {
+  char buf[4096];
+  char *region;
+  char *page;
+  char *file;
+  long sum = 0;
+  int fd, i, lines, mappedLines;
+  long size;
+  ssize_t read_size;
+
+  region = map(NULL, PAGES * PAGE_SIZE, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS, -1, 0);
+  if (region == MAP_FAILED) {
+    return 1;
+  }
+  printf("aligned: %d\n", ((long) region & (PAGE_SIZE - 1)) == 0);
+  for (i = 0; i < PAGES * PAGE_SIZE; i++) {
+    sum += region[i];
+  }
+  printf("zeroed: %d\n", sum == 0);
+  for (i = 0; i < PAGES; i++) {
+    region[i * PAGE_SIZE] = i + 1;
+  }
+
+  page = map(region + 2 * PAGE_SIZE, PAGE_SIZE, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS | MAP_FIXED, -1, 0);
+  printf("fixed: %d %d %d\n", page == region + 2 * PAGE_SIZE, region[PAGE_SIZE], region[2 * PAGE_SIZE]);
+
+  printf("unaligned munmap: %d\n", unmap(region + 1, PAGE_SIZE));
+  printf("partial munmap: %d\n", unmap(region + 10 * PAGE_SIZE, 10 * PAGE_SIZE));
+  sum = 0;
+  for (i = 0; i < 10; i++) {
+    sum += region[i * PAGE_SIZE];
+  }
+  for (i = 20; i < PAGES; i++) {
+    sum += region[i * PAGE_SIZE];
+  }
+  printf("remaining: %ld\n", sum);
+  printf("munmap: %d\n", unmap(region, PAGES * PAGE_SIZE));
+
+  fd = open("tests/inlineassemblytests/syscall-read001.c", O_RDONLY, 0);
+  if (fd < 0) {
+    return 1;
+  }
+  size = lseek(fd, 0, SEEK_END);
+  file = map(NULL, size, PROT_READ, MAP_PRIVATE, fd, 0);
+  if (file == MAP_FAILED) {
+    close(fd);
+    return 1;
+  }
+  printf("mapped checksum: %u\n", checksum(file, size, &mappedLines));
+  lseek(fd, 0, SEEK_SET);
+  read_size = read(fd, buf, sizeof(buf));
+  printf("read checksum: %u\n", checksum(buf, read_size, &lines));
+  printf("lines: %d %d\n", mappedLines, lines);
+  printf("munmap: %d\n", unmap(file, size));
+  close(fd);
+  return 0;
+}
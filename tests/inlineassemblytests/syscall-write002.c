@@ -0,0 +1,56 @@
+#include "nanolibc.h"
+
+static int format(char *buf, unsigned int value) {
+  char tmp[16];
+  int n = 0;
+  int i;
+  do {
+    tmp[n++] = '0' + value % 10;
+    value /= 10;
+  } while (value != 0);
+  for (i = 0; i < n; i++) {
+    buf[i] = tmp[n - i - 1];
+  }
+  return n;
+}
+
+int main(void) {
+  char chunk[7];
+  char number[16];
+  struct iovec iov[3];
+  unsigned int checksum = 0;
+  ssize_t size;
+  int fd;
+  int i;
+
+  fd = open("tests/inlineassemblytests/syscall-read001.c", O_RDONLY, 0);
+  if (fd < 0) {
+    return 1;
+  }
+  while ((size = read(fd, chunk, sizeof(chunk))) > 0) {
+    for (i = 0; i < size; i++) {
+      checksum = checksum * 31 + chunk[i];
+    }
+    if (write(STDOUT_FILENO, chunk, size) != size) {
+      return 2;
+    }
+  }
+  close(fd);
+
+  iov[0].iov_base = "line ";
+  iov[0].iov_len = 5;
+  iov[1].iov_base = number;
+  iov[2].iov_base = "\n";
+  iov[2].iov_len = 1;
+  for (i = 0; i < 5000; i++) {
+    iov[1].iov_len = format(number, i * 2654435761u);
+    if (writev(i % 100 == 0 ? STDERR_FILENO : STDOUT_FILENO, iov, 3) != iov[1].iov_len + 6) {
+      return 3;
+    }
+  }
+
+  size = format(number, checksum);
+  number[size++] = '\n';
+  write(STDOUT_FILENO, number, size);
+  return 0;
+}